@@ -0,0 +1,75 @@
+package vitual.libary.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import vitual.libary.demo.DemoApplication;
+import vitual.libary.demo.entity.Book;
+import vitual.libary.demo.entity.User;
+import vitual.libary.demo.service.BookService;
+import vitual.libary.demo.service.UserService;
+
+/**
+ * Aplicação completa com o perfil h2 (banco em memória, esquema criado pelo
+ * Flyway), compartilhada pelos benchmarks que passam pelos serviços.
+ *
+ * Cada fork do JMH sobe o seu próprio contexto, então os dados de um
+ * benchmark não afetam os de outro.
+ */
+@State(Scope.Benchmark)
+public class ContextoH2 {
+
+    private ConfigurableApplicationContext contexto;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        // Argumentos de linha de comando: têm precedência sobre o application.properties
+        // (show-sql e logs de SQL distorceriam as medições)
+        contexto = new SpringApplicationBuilder(DemoApplication.class)
+                .profiles("h2")
+                .run("--server.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN");
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    public <T> T bean(Class<T> tipo) {
+        return contexto.getBean(tipo);
+    }
+
+    /**
+     * Cadastra um usuário para os benchmarks.
+     */
+    public User criarUsuario(String email, String role) {
+        User user = new User();
+        user.setNome("Leitor " + email);
+        user.setEmail(email);
+        user.setSenha("senha-benchmark");
+        user.setRole(role);
+        return bean(UserService.class).salvar(user);
+    }
+
+    /**
+     * Cadastra um livro com o estoque informado.
+     */
+    public Book criarLivro(int numero, int exemplares) {
+        Book book = new Book();
+        book.setTitulo("Livro " + numero);
+        book.setAutor("Autor " + (numero % 100));
+        book.setAnoPublicacao(1950 + numero % 70);
+        book.setIsbn(String.format("978%010d", numero));
+        book.setQuantidadeTotal(exemplares);
+        book.setQuantidadeDisponivel(exemplares);
+        return bean(BookService.class).salvar(book);
+    }
+}
@@ -0,0 +1,92 @@
+package vitual.libary.benchmarks;
+
+import jakarta.servlet.ServletException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import vitual.libary.demo.entity.User;
+import vitual.libary.demo.security.JwtAuthenticationFilter;
+import vitual.libary.demo.security.JwtTokenProvider;
+import vitual.libary.demo.security.UserStateRegistry;
+import vitual.libary.demo.service.UserService;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo do JwtAuthenticationFilter por requisição autenticada, com os beans
+ * reais da aplicação (cache de tokens verificados, cache de usuários no H2).
+ *
+ * - consultandoUsuario: modo padrão, principal carregado pelo UserService;
+ * - stateless: principal montado pelas claims (app.jwt.stateless.enabled=true);
+ * - tokenInvalido: assinatura adulterada, requisição segue sem autenticação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private JwtAuthenticationFilter filtro;
+    private JwtAuthenticationFilter filtroStateless;
+    private String cabecalho;
+    private String cabecalhoInvalido;
+
+    @Setup(Level.Trial)
+    public void preparar(ContextoH2 contexto) {
+        JwtTokenProvider provider = contexto.bean(JwtTokenProvider.class);
+        filtro = contexto.bean(JwtAuthenticationFilter.class);
+
+        filtroStateless = new JwtAuthenticationFilter(provider, contexto.bean(UserService.class),
+                contexto.bean(UserStateRegistry.class), contexto.bean(MeterRegistry.class));
+        ReflectionTestUtils.setField(filtroStateless, "stateless", true);
+
+        User user = contexto.criarUsuario("filtro@biblioteca.com", "MEMBRO");
+        String token = provider.generateToken(user);
+        cabecalho = "Bearer " + token;
+        cabecalhoInvalido = "Bearer " + token.substring(0, token.length() - 4) + "AAAA";
+    }
+
+    @Benchmark
+    public Authentication consultandoUsuario() throws ServletException, IOException {
+        return executar(filtro, cabecalho);
+    }
+
+    @Benchmark
+    public Authentication stateless() throws ServletException, IOException {
+        return executar(filtroStateless, cabecalho);
+    }
+
+    @Benchmark
+    public Authentication tokenInvalido() throws ServletException, IOException {
+        return executar(filtro, cabecalhoInvalido);
+    }
+
+    private static Authentication executar(JwtAuthenticationFilter alvo, String autorizacao)
+            throws ServletException, IOException {
+        MockHttpServletRequest requisicao = new MockHttpServletRequest("GET", "/api/books");
+        requisicao.addHeader("Authorization", autorizacao);
+        alvo.doFilter(requisicao, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return autenticacao;
+    }
+}
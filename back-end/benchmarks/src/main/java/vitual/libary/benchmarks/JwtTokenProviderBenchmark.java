@@ -0,0 +1,95 @@
+package vitual.libary.benchmarks;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import vitual.libary.demo.entity.User;
+import vitual.libary.demo.security.JwtTokenProvider;
+
+import javax.crypto.SecretKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo por requisição da verificação do JWT no JwtAuthenticationFilter.
+ *
+ * - legado: o que o filtro fazia antes (chave e parser recriados a cada chamada,
+ *   token analisado duas vezes: validateToken + getUserIdFromToken);
+ * - parserReutilizado: uma única análise com chave e parser criados uma vez
+ *   (caminho de um token ainda não visto);
+ * - verifyAndExtract: a API atual, com o token já no cache de tokens verificados;
+ * - generateToken: emissão de um token (login e cadastro);
+ * - validateToken: validação de um token já verificado (caminho de requisições repetidas).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SEGREDO =
+            "my-super-secret-key-for-jwt-token-generation-and-validation-biblioteca-2025";
+
+    private JwtTokenProvider provider;
+    private JwtParser parser;
+    private User user;
+    private String token;
+
+    @Setup
+    public void preparar() {
+        provider = new JwtTokenProvider(SEGREDO, 86400000L, 10000L);
+
+        user = new User();
+        user.setId(42L);
+        user.setNome("Leitor");
+        user.setEmail("leitor@biblioteca.com");
+        user.setRole("MEMBRO");
+        token = provider.generateToken(user);
+
+        SecretKey key = Keys.hmacShaKeyFor(SEGREDO.getBytes());
+        parser = Jwts.parser().verifyWith(key).build();
+        provider.verifyAndExtract(token);
+    }
+
+    @Benchmark
+    public Long legado() {
+        SecretKey key = Keys.hmacShaKeyFor(SEGREDO.getBytes());
+        Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
+
+        key = Keys.hmacShaKeyFor(SEGREDO.getBytes());
+        Claims claims = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        return Long.valueOf(claims.getSubject());
+    }
+
+    @Benchmark
+    public Long parserReutilizado() {
+        return Long.valueOf(parser.parseSignedClaims(token).getPayload().getSubject());
+    }
+
+    @Benchmark
+    public Long verifyAndExtract() {
+        return Long.valueOf(provider.verifyAndExtract(token).orElseThrow().getSubject());
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return provider.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return provider.validateToken(token);
+    }
+}
@@ -0,0 +1,80 @@
+package vitual.libary.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import vitual.libary.demo.entity.Loan;
+import vitual.libary.demo.service.LoanService;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Empréstimo seguido de devolução pelo LoanService, com transações, UPDATE
+ * condicional do estoque e verificação de empréstimo em aberto no H2.
+ *
+ * Os dois passos são medidos juntos porque um livro só pode ter um empréstimo
+ * em aberto: cada chamada empresta e devolve um livro diferente do acervo.
+ * O parâmetro historico pré-carrega empréstimos já devolvidos, para mostrar
+ * se o custo cresce com o histórico (índices da V3/V4).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoanServiceBenchmark {
+
+    private static final int LIVROS = 500;
+
+    @Param({"0", "50000"})
+    public int historico;
+
+    private LoanService loanService;
+    private long[] livros;
+    private Long usuarioId;
+    private int proximo;
+
+    @Setup(Level.Trial)
+    public void preparar(ContextoH2 contexto) {
+        loanService = contexto.bean(LoanService.class);
+        usuarioId = contexto.criarUsuario("emprestimos@biblioteca.com", "MEMBRO").getId();
+
+        livros = new long[LIVROS];
+        for (int i = 0; i < LIVROS; i++) {
+            livros[i] = contexto.criarLivro(i, 3).getId();
+        }
+        carregarHistorico(contexto.bean(JdbcTemplate.class));
+    }
+
+    @Benchmark
+    public Loan emprestarEDevolver() {
+        long bookId = livros[proximo++ % LIVROS];
+        Loan emprestimo = loanService.emprestar(bookId, usuarioId);
+        return loanService.devolver(emprestimo.getId());
+    }
+
+    private void carregarHistorico(JdbcTemplate jdbc) {
+        List<Object[]> linhas = new ArrayList<>(historico);
+        Date data = Date.valueOf(LocalDate.now().minusYears(1));
+        for (int i = 0; i < historico; i++) {
+            linhas.add(new Object[]{usuarioId, livros[i % LIVROS], data, data});
+        }
+        jdbc.batchUpdate("INSERT INTO loans (user_id, book_id, loan_date, return_date, returned, version) "
+                + "VALUES (?, ?, ?, ?, true, 0)", linhas);
+    }
+}
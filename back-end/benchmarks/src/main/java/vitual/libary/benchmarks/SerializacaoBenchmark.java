@@ -0,0 +1,158 @@
+package vitual.libary.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.env.MockEnvironment;
+import vitual.libary.demo.cache.BookJsonCache;
+import vitual.libary.demo.config.SparseFieldsetAdvice;
+import vitual.libary.demo.dto.BookResponse;
+import vitual.libary.demo.dto.LoanSummary;
+import vitual.libary.demo.entity.Book;
+import vitual.libary.demo.entity.Loan;
+import vitual.libary.demo.entity.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização JSON das respostas mais comuns, com um ObjectMapper configurado
+ * como o do Spring Boot (Jackson2ObjectMapperBuilder, datas ISO).
+ *
+ * Páginas com 20 itens, o tamanho padrão de GET /api/loans. As variantes com
+ * entidades (livro, emprestimo, paginaDeLivros) são a referência de antes dos
+ * DTOs de resposta; camposParciais usa ?fields=id,titulo (SparseFieldsetAdvice).
+ * livroResposta e livroJsonEmCache comparam GET /api/books/{id} serializando a
+ * cada chamada e com o acerto no BookJsonCache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacaoBenchmark {
+
+    private static final int ITENS_POR_PAGINA = 20;
+
+    private ObjectMapper mapper;
+    private Book livro;
+    private Loan emprestimo;
+    private Page<Book> paginaLivros;
+    private Page<LoanSummary> paginaResumos;
+    private Page<BookResponse> paginaRespostasLivro;
+    private ObjectWriter somenteIdETitulo;
+    private BookJsonCache jsonCache;
+
+    @Setup
+    public void preparar() {
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .filters(SparseFieldsetAdvice.todosOsCampos())
+                .build();
+        somenteIdETitulo = mapper.writer(SparseFieldsetAdvice.somente("id,titulo"));
+
+        User user = new User();
+        user.setId(1L);
+        user.setNome("Maria Santos");
+        user.setEmail("maria@biblioteca.com");
+        user.setSenha("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z6xq4gYc9nq1Xw2qD8lQeA1a");
+        user.setRole("MEMBRO");
+
+        List<Book> livros = new ArrayList<>();
+        List<LoanSummary> resumos = new ArrayList<>();
+        for (int i = 1; i <= ITENS_POR_PAGINA; i++) {
+            Book book = new Book();
+            book.setId((long) i);
+            book.setTitulo("Dom Casmurro - Edição " + i);
+            book.setAutor("Machado de Assis");
+            book.setAnoPublicacao(1899);
+            book.setIsbn(String.format("978%010d", i));
+            book.setQuantidadeTotal(5);
+            book.setQuantidadeDisponivel(3);
+            book.setVersion(1L);
+            livros.add(book);
+
+            resumos.add(new LoanSummary((long) i, LocalDate.of(2025, 3, i), null, false,
+                    book.getId(), book.getTitulo(), book.getAutor(), book.getIsbn(),
+                    user.getId(), user.getNome(), user.getEmail()));
+        }
+
+        livro = livros.get(0);
+        emprestimo = new Loan();
+        emprestimo.setId(1L);
+        emprestimo.setBook(livro);
+        emprestimo.setUser(user);
+        emprestimo.setLoanDate(LocalDate.of(2025, 3, 1));
+        emprestimo.setReturned(false);
+
+        paginaLivros = new PageImpl<>(livros, PageRequest.of(0, ITENS_POR_PAGINA), 1000);
+        paginaResumos = new PageImpl<>(resumos, PageRequest.of(0, ITENS_POR_PAGINA), 1000);
+        paginaRespostasLivro = paginaLivros.map(BookResponse::de);
+
+        jsonCache = new BookJsonCache(mapper, new MockEnvironment());
+        jsonCache.obter(livro);
+    }
+
+    @Benchmark
+    public byte[] livro() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(livro);
+    }
+
+    @Benchmark
+    public byte[] emprestimo() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(emprestimo);
+    }
+
+    @Benchmark
+    public byte[] paginaDeLivros() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(paginaLivros);
+    }
+
+    @Benchmark
+    public byte[] paginaDeResumosDeEmprestimo() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(paginaResumos);
+    }
+
+    @Benchmark
+    public byte[] emprestimoResumo() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(LoanSummary.de(emprestimo));
+    }
+
+    @Benchmark
+    public byte[] paginaDeRespostasDeLivro() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(paginaRespostasLivro);
+    }
+
+    @Benchmark
+    public byte[] paginaDeLivrosCamposParciais() throws JsonProcessingException {
+        return somenteIdETitulo.writeValueAsBytes(paginaRespostasLivro);
+    }
+
+    @Benchmark
+    public byte[] livroResposta() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(BookResponse.de(livro));
+    }
+
+    @Benchmark
+    public byte[] livroJsonEmCache() {
+        return jsonCache.obter(livro);
+    }
+}
@@ -0,0 +1,164 @@
+package vitual.libary.demo.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import vitual.libary.demo.dto.BookResponse;
+import vitual.libary.demo.dto.JsonCacheStatsResponse;
+import vitual.libary.demo.entity.Book;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache do JSON já serializado de cada livro (GET /api/books/{id}).
+ *
+ * Guarda os bytes de BookResponse por ID, junto com a versão do livro que os
+ * gerou: um acerto exige a mesma versão, então qualquer escrita (inclusive os
+ * UPDATEs de estoque, que também incrementam a versão) torna o fragmento
+ * obsoleto mesmo antes da invalidação explícita feita pelo BookService.
+ *
+ * O limite é em bytes (app.cache.books-json.max-bytes), não em entradas,
+ * para que o consumo de memória não dependa do tamanho dos títulos.
+ */
+@Component
+public class BookJsonCache {
+
+    public static final String NOME = "books-json";
+
+    // Estimativa do custo fixo de cada entrada além do JSON (chave, registro, nós do mapa)
+    static final int BYTES_POR_ENTRADA = 96;
+
+    private static final DataSize TAMANHO_MAXIMO_PADRAO = DataSize.ofMegabytes(16);
+    private static final Duration TTL_PADRAO = Duration.ofMinutes(10);
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, Fragmento> cache;
+    private final long bytesMaximo;
+    private final Duration ttl;
+
+    // Contados aqui, e não pelo Caffeine: um fragmento de versão antiga é uma falta
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder faltas = new LongAdder();
+
+    public BookJsonCache(ObjectMapper objectMapper, Environment environment) {
+        this.objectMapper = objectMapper;
+        this.bytesMaximo = environment.getProperty(
+                "app.cache." + NOME + ".max-bytes", DataSize.class, TAMANHO_MAXIMO_PADRAO).toBytes();
+        this.ttl = environment.getProperty("app.cache." + NOME + ".ttl", Duration.class, TTL_PADRAO);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(bytesMaximo)
+                .weigher((Long id, Fragmento fragmento) -> fragmento.json().length + BYTES_POR_ENTRADA)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * JSON do livro, do cache quando a versão confere ou serializado agora.
+     *
+     * @param book livro a serializar (o ID e a versão formam a chave)
+     * @return bytes UTF-8 do BookResponse do livro
+     */
+    public byte[] obter(Book book) {
+        Fragmento emCache = cache.asMap().get(book.getId());
+        if (emCache != null && emCache.eDaVersao(book.getVersion())) {
+            acertos.increment();
+            return emCache.json();
+        }
+
+        faltas.increment();
+        byte[] json = serializar(book);
+        cache.put(book.getId(), new Fragmento(book.getVersion(), json));
+        return json;
+    }
+
+    private byte[] serializar(Book book) {
+        try {
+            return objectMapper.writeValueAsBytes(BookResponse.de(book));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Remove o fragmento do livro (chamado após escritas).
+     *
+     * @param id ID do livro
+     */
+    public void invalidar(Long id) {
+        if (id != null) {
+            cache.invalidate(id);
+        }
+    }
+
+    /**
+     * Esvazia o cache.
+     */
+    public void limpar() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Aplica antes as escritas pendentes (o Caffeine atualiza o peso de forma
+     * assíncrona); chamado só na leitura das métricas.
+     *
+     * @return bytes ocupados pelas entradas (JSON mais o custo fixo estimado)
+     */
+    public long getBytes() {
+        cache.cleanUp();
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    public long getAcertos() {
+        return acertos.sum();
+    }
+
+    public long getFaltas() {
+        return faltas.sum();
+    }
+
+    public long getRemocoes() {
+        return cache.stats().evictionCount();
+    }
+
+    public long getTamanho() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * @return tamanho, memória ocupada, acertos, faltas e remoções desde a inicialização
+     */
+    public JsonCacheStatsResponse estatisticas() {
+        long hits = getAcertos();
+        long misses = getFaltas();
+        long consultas = hits + misses;
+        return new JsonCacheStatsResponse(
+                NOME,
+                getTamanho(),
+                getBytes(),
+                bytesMaximo,
+                ttl.toSeconds(),
+                hits,
+                misses,
+                consultas == 0 ? 0.0 : (double) hits / consultas,
+                getRemocoes());
+    }
+
+    /**
+     * JSON de um livro e a versão da qual ele foi gerado.
+     */
+    record Fragmento(Long versao, byte[] json) {
+
+        boolean eDaVersao(Long versaoAtual) {
+            return versao == null ? versaoAtual == null : versao.equals(versaoAtual);
+        }
+    }
+}
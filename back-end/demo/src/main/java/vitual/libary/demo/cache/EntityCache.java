@@ -0,0 +1,114 @@
+package vitual.libary.demo.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import vitual.libary.demo.dto.CacheStatsResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache de leitura (read-through) de entidades, limitado por tamanho e TTL.
+ *
+ * Guarda cópias desacopladas das entidades: cada acerto devolve uma nova cópia,
+ * para que quem chama possa alterá-la sem afetar outras threads. Em uma falta,
+ * a instância carregada do banco é devolvida como está (continua gerenciada
+ * pelo JPA dentro de uma transação) e uma cópia vai para o cache.
+ *
+ * @param <K> tipo da chave (ID)
+ * @param <V> tipo da entidade
+ */
+public class EntityCache<K, V> {
+
+    private final String nome;
+    private final Cache<K, V> cache;
+    private final UnaryOperator<V> copiador;
+    private final long tamanhoMaximo;
+    private final Duration ttl;
+
+    // Incrementado a cada invalidação: um carregamento que começou antes de uma
+    // escrita não pode repor no cache o valor antigo lido do banco.
+    private final AtomicLong geracao = new AtomicLong();
+
+    EntityCache(String nome, Cache<K, V> cache, UnaryOperator<V> copiador, long tamanhoMaximo, Duration ttl) {
+        this.nome = nome;
+        this.cache = cache;
+        this.copiador = copiador;
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Busca a entidade no cache ou, se ausente, carrega pelo carregador informado.
+     *
+     * @param chave ID da entidade
+     * @param carregador função que lê do banco (pode lançar exceção de "não encontrado")
+     * @return entidade encontrada
+     */
+    public V obter(K chave, Function<K, V> carregador) {
+        V emCache = cache.getIfPresent(chave);
+        if (emCache != null) {
+            return copiador.apply(emCache);
+        }
+
+        long geracaoInicial = geracao.get();
+        V carregado = carregador.apply(chave);
+        if (carregado != null) {
+            V copia = copiador.apply(carregado);
+            // Verificação e inserção atômicas para a chave: invalidar() incrementa a
+            // geração antes de remover, e a remoção espera este compute terminar
+            cache.asMap().compute(chave, (k, atual) -> geracao.get() == geracaoInicial ? copia : atual);
+        }
+        return carregado;
+    }
+
+    /**
+     * Remove a entidade do cache (chamado após escritas).
+     *
+     * @param chave ID da entidade
+     */
+    public void invalidar(K chave) {
+        if (chave == null) {
+            return;
+        }
+        geracao.incrementAndGet();
+        cache.invalidate(chave);
+    }
+
+    /**
+     * Esvazia o cache.
+     */
+    public void limpar() {
+        geracao.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * @return contadores de acertos, faltas e remoções desde a inicialização
+     */
+    public CacheStatsResponse estatisticas() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsResponse(
+                nome,
+                cache.estimatedSize(),
+                tamanhoMaximo,
+                ttl.toSeconds(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount());
+    }
+
+    /**
+     * Acesso ao cache Caffeine subjacente (para exportação de métricas).
+     */
+    public Cache<K, V> getCache() {
+        return cache;
+    }
+}
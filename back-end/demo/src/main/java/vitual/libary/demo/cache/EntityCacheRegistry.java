@@ -0,0 +1,73 @@
+package vitual.libary.demo.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import vitual.libary.demo.dto.CacheStatsResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cria e mantém os caches de entidades da aplicação.
+ *
+ * O tamanho e o TTL de cada cache vêm das propriedades
+ * app.cache.&lt;nome&gt;.max-size e app.cache.&lt;nome&gt;.ttl.
+ */
+@Component
+public class EntityCacheRegistry {
+
+    private static final long TAMANHO_MAXIMO_PADRAO = 10_000L;
+    private static final Duration TTL_PADRAO = Duration.ofMinutes(10);
+
+    private final Environment environment;
+    private final Map<String, EntityCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    public EntityCacheRegistry(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Cria (ou devolve, se já existir) o cache com o nome informado.
+     *
+     * @param nome nome do cache, usado nas propriedades e nas estatísticas
+     * @param copiador função que cria uma cópia desacoplada da entidade
+     * @return cache configurado
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> EntityCache<K, V> criar(String nome, UnaryOperator<V> copiador) {
+        return (EntityCache<K, V>) caches.computeIfAbsent(nome, n -> {
+            long tamanhoMaximo = environment.getProperty(
+                    "app.cache." + n + ".max-size", Long.class, TAMANHO_MAXIMO_PADRAO);
+            Duration ttl = environment.getProperty("app.cache." + n + ".ttl", Duration.class, TTL_PADRAO);
+
+            return new EntityCache<K, V>(n,
+                    Caffeine.newBuilder()
+                            .maximumSize(tamanhoMaximo)
+                            .expireAfterWrite(ttl)
+                            .recordStats()
+                            .build(),
+                    copiador, tamanhoMaximo, ttl);
+        });
+    }
+
+    /**
+     * @return caches criados até o momento
+     */
+    public List<EntityCache<?, ?>> getCaches() {
+        return List.copyOf(caches.values());
+    }
+
+    /**
+     * @return estatísticas de todos os caches, ordenadas por nome
+     */
+    public List<CacheStatsResponse> estatisticas() {
+        return caches.values().stream()
+                .map(EntityCache::estatisticas)
+                .sorted((a, b) -> a.getNome().compareTo(b.getNome()))
+                .toList();
+    }
+}
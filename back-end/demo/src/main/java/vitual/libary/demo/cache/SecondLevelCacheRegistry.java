@@ -0,0 +1,115 @@
+package vitual.libary.demo.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import vitual.libary.demo.dto.SecondLevelCacheStatsResponse;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Regiões do cache de segundo nível do Hibernate (JCache sobre Caffeine).
+ *
+ * As regiões são criadas aqui, com tamanho e TTL das propriedades
+ * app.l2.&lt;regiao&gt;.max-size e app.l2.&lt;regiao&gt;.ttl, e o CacheManager é
+ * entregue ao Hibernate (SecondLevelCacheConfig). Cada contexto Spring tem o
+ * seu próprio provedor, então vários contextos na mesma JVM (testes,
+ * benchmarks) não disputam as mesmas regiões.
+ */
+@Component
+public class SecondLevelCacheRegistry {
+
+    /** Livros: o estoque muda a cada empréstimo, por isso READ_WRITE. */
+    public static final String LIVROS = "books";
+    /** Usuários: mudam raramente, NONSTRICT_READ_WRITE basta. */
+    public static final String USUARIOS = "users";
+    /** Resolução e-mail -> ID (natural id de User). */
+    public static final String USUARIOS_POR_EMAIL = "users-email";
+
+    private static final long TAMANHO_MAXIMO_PADRAO = 10_000L;
+    private static final Duration TTL_PADRAO = Duration.ofMinutes(10);
+
+    private final List<Regiao> regioes;
+    private final CacheManager cacheManager;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    private record Regiao(String nome, long tamanhoMaximo, Duration ttl) {
+    }
+
+    public SecondLevelCacheRegistry(Environment environment,
+                                    ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.regioes = List.of(
+                regiao(environment, LIVROS),
+                regiao(environment, USUARIOS),
+                regiao(environment, USUARIOS_POR_EMAIL));
+
+        this.cacheManager = new CaffeineCachingProvider().getCacheManager();
+        for (Regiao regiao : regioes) {
+            CaffeineConfiguration<Object, Object> configuracao = new CaffeineConfiguration<>();
+            configuracao.setMaximumSize(OptionalLong.of(regiao.tamanhoMaximo()));
+            configuracao.setExpireAfterWrite(OptionalLong.of(regiao.ttl().toNanos()));
+            cacheManager.createCache(regiao.nome(), configuracao);
+        }
+    }
+
+    private static Regiao regiao(Environment environment, String nome) {
+        return new Regiao(nome,
+                environment.getProperty("app.l2." + nome + ".max-size", Long.class, TAMANHO_MAXIMO_PADRAO),
+                environment.getProperty("app.l2." + nome + ".ttl", Duration.class, TTL_PADRAO));
+    }
+
+    /**
+     * @return CacheManager com as regiões já criadas (hibernate.javax.cache.cache_manager)
+     */
+    public CacheManager getCacheManager() {
+        return cacheManager;
+    }
+
+    /**
+     * @return nomes das regiões configuradas
+     */
+    public List<String> getRegioes() {
+        return regioes.stream().map(Regiao::nome).toList();
+    }
+
+    /**
+     * Estatísticas do Hibernate por região (exige hibernate.generate_statistics=true).
+     *
+     * @param nome nome da região
+     * @return estatísticas, ou null se o Hibernate não as coleta
+     */
+    public CacheRegionStatistics estatisticasDaRegiao(String nome) {
+        Statistics statistics = entityManagerFactory.getObject().unwrap(SessionFactory.class).getStatistics();
+        return statistics.isStatisticsEnabled() ? statistics.getCacheRegionStatistics(nome) : null;
+    }
+
+    /**
+     * @return acertos, faltas e inserções de cada região, na ordem de configuração
+     */
+    public List<SecondLevelCacheStatsResponse> estatisticas() {
+        return regioes.stream().map(regiao -> {
+            CacheRegionStatistics stats = estatisticasDaRegiao(regiao.nome());
+            long acertos = stats != null ? stats.getHitCount() : 0;
+            long faltas = stats != null ? stats.getMissCount() : 0;
+            long consultas = acertos + faltas;
+            return new SecondLevelCacheStatsResponse(
+                    regiao.nome(),
+                    regiao.tamanhoMaximo(),
+                    regiao.ttl().toSeconds(),
+                    acertos,
+                    faltas,
+                    stats != null ? stats.getPutCount() : 0,
+                    consultas == 0 ? 0.0 : (double) acertos / consultas);
+        }).toList();
+    }
+}
@@ -0,0 +1,42 @@
+package vitual.libary.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Habilita o @Async. As tarefas assíncronas usam o applicationTaskExecutor
+ * do Spring Boot, que, como o Tomcat, passa a usar threads virtuais com
+ * spring.threads.virtual.enabled=true.
+ *
+ * Threads virtuais exigem Java 21+: em Java 17 a propriedade é ignorada e
+ * a aplicação segue com os pools de threads de plataforma.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncConfig.class);
+
+    private final Environment environment;
+
+    public AsyncConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void informarModoDeThreads() {
+        boolean solicitadas = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        int versaoJava = Runtime.version().feature();
+        if (solicitadas && versaoJava < 21) {
+            log.warn("spring.threads.virtual.enabled=true ignorado: threads virtuais exigem Java 21+ (em uso: {}). "
+                    + "Requisições e @Async seguem em threads de plataforma.", versaoJava);
+        } else {
+            log.info("Requisições e @Async em threads {}", solicitadas ? "virtuais" : "de plataforma");
+        }
+    }
+}
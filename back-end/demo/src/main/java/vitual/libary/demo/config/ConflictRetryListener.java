@@ -0,0 +1,63 @@
+package vitual.libary.demo.config;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.stereotype.Component;
+import vitual.libary.demo.dto.RetryStatsResponse;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Conta conflitos de versão (@Version) e novas tentativas das operações
+ * anotadas com @Retryable(listeners = "conflictRetryListener").
+ */
+@Component("conflictRetryListener")
+public class ConflictRetryListener implements RetryListener {
+
+    private final AtomicLong operacoes = new AtomicLong();
+    private final AtomicLong conflitos = new AtomicLong();
+    private final AtomicLong novasTentativas = new AtomicLong();
+    private final AtomicLong esgotadas = new AtomicLong();
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback,
+                                                 Throwable throwable) {
+        if (throwable instanceof OptimisticLockingFailureException) {
+            conflitos.incrementAndGet();
+        }
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback,
+                                               Throwable throwable) {
+        operacoes.incrementAndGet();
+        // getRetryCount() = tentativas que falharam; a última falha não é seguida de nova tentativa
+        int falhas = context.getRetryCount();
+        novasTentativas.addAndGet(throwable == null ? falhas : Math.max(0, falhas - 1));
+        if (throwable instanceof OptimisticLockingFailureException) {
+            esgotadas.incrementAndGet();
+        }
+    }
+
+    public long getOperacoes() {
+        return operacoes.get();
+    }
+
+    public long getConflitos() {
+        return conflitos.get();
+    }
+
+    public long getNovasTentativas() {
+        return novasTentativas.get();
+    }
+
+    public long getEsgotadas() {
+        return esgotadas.get();
+    }
+
+    public RetryStatsResponse estatisticas() {
+        return new RetryStatsResponse(getOperacoes(), getConflitos(), getNovasTentativas(), getEsgotadas());
+    }
+}
@@ -0,0 +1,57 @@
+package vitual.libary.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Envolve o DataSource da aplicação com o ConnectionAdmissionDataSource
+ * quando app.datasource.admission.enabled=true.
+ *
+ * Licenças: app.datasource.admission.permits, ou o maximum-pool-size do Hikari
+ * se não informado. Espera: app.datasource.admission.timeout (padrão 2s).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.admission.enabled", havingValue = "true")
+public class ConnectionAdmissionConfig {
+
+    // Envolve o pool antes do roteamento para réplicas (ReadReplicaConfig)
+    static final int ORDEM = 0;
+
+    private static final Duration ESPERA_PADRAO = Duration.ofSeconds(2);
+
+    // static: o pós-processador precisa existir antes dos demais beans
+    @Bean
+    public static BeanPostProcessor connectionAdmissionPostProcessor(Environment environment) {
+        return new AdmissaoPostProcessor(environment);
+    }
+
+    private record AdmissaoPostProcessor(Environment environment) implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionAdmissionDataSource) {
+                return bean;
+            }
+            int licencas = environment.getProperty("app.datasource.admission.permits", Integer.class, 0);
+            if (licencas <= 0) {
+                licencas = bean instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+            }
+            Duration espera = environment.getProperty(
+                    "app.datasource.admission.timeout", Duration.class, ESPERA_PADRAO);
+            return new ConnectionAdmissionDataSource(dataSource, licencas, espera);
+        }
+
+        @Override
+        public int getOrder() {
+            return ORDEM;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package vitual.libary.demo.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import vitual.libary.demo.exception.ConnectionAdmissionTimeoutException;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limita quantas threads pedem conexão ao pool ao mesmo tempo.
+ *
+ * Um semáforo justo com uma licença por conexão do pool controla a entrada.
+ * Quem não consegue licença espera estacionado (barato também para threads
+ * virtuais), em ordem de chegada, até o tempo limite; depois disso recebe
+ * ConnectionAdmissionTimeoutException (503), em vez de ficar preso na fila do
+ * Hikari até o connection-timeout dele. A licença é devolvida no close() da conexão.
+ */
+public class ConnectionAdmissionDataSource extends DelegatingDataSource {
+
+    private static final Class<?>[] INTERFACES = {Connection.class};
+
+    private final Semaphore licencas;
+    private final int totalLicencas;
+    private final long esperaMaximaNanos;
+    private final LongAdder rejeitadas = new LongAdder();
+
+    public ConnectionAdmissionDataSource(DataSource alvo, int licencas, Duration esperaMaxima) {
+        super(alvo);
+        if (licencas < 1) {
+            throw new IllegalArgumentException("A admissão precisa de pelo menos uma licença: " + licencas);
+        }
+        this.licencas = new Semaphore(licencas, true);
+        this.totalLicencas = licencas;
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        admitir();
+        return liberarAoFechar(() -> obterDoAlvo(null, null));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        admitir();
+        return liberarAoFechar(() -> obterDoAlvo(username, password));
+    }
+
+    private Connection obterDoAlvo(String username, String password) throws SQLException {
+        return username == null
+                ? obtainTargetDataSource().getConnection()
+                : obtainTargetDataSource().getConnection(username, password);
+    }
+
+    private void admitir() throws SQLException {
+        boolean admitido;
+        try {
+            admitido = licencas.tryAcquire(esperaMaximaNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionAdmissionTimeoutException("Interrompido aguardando conexão com o banco");
+        }
+        if (!admitido) {
+            rejeitadas.increment();
+            throw new ConnectionAdmissionTimeoutException("Nenhuma conexão com o banco livre em "
+                    + TimeUnit.NANOSECONDS.toMillis(esperaMaximaNanos) + " ms ("
+                    + totalLicencas + " em uso, " + licencas.getQueueLength() + " aguardando)");
+        }
+    }
+
+    private interface Obtencao {
+        Connection obter() throws SQLException;
+    }
+
+    private Connection liberarAoFechar(Obtencao obtencao) throws SQLException {
+        Connection conexao;
+        try {
+            conexao = obtencao.obter();
+        } catch (SQLException | RuntimeException | Error e) {
+            licencas.release();
+            throw e;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), INTERFACES,
+                new LiberaLicenca(conexao));
+    }
+
+    /**
+     * @return threads aguardando licença neste momento (estimativa)
+     */
+    public int getAguardando() {
+        return licencas.getQueueLength();
+    }
+
+    /**
+     * @return licenças livres neste momento
+     */
+    public int getLivres() {
+        return licencas.availablePermits();
+    }
+
+    public int getTotalLicencas() {
+        return totalLicencas;
+    }
+
+    /**
+     * @return pedidos de conexão recusados por tempo de espera desde a inicialização
+     */
+    public long getRejeitadas() {
+        return rejeitadas.sum();
+    }
+
+    /**
+     * Repassa as chamadas à conexão real e devolve a licença no primeiro close().
+     */
+    private final class LiberaLicenca implements InvocationHandler {
+
+        private final Connection alvo;
+        private final AtomicBoolean liberada = new AtomicBoolean();
+
+        LiberaLicenca(Connection alvo) {
+            this.alvo = alvo;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            switch (metodo.getName()) {
+                case "close":
+                    try {
+                        alvo.close();
+                    } finally {
+                        if (liberada.compareAndSet(false, true)) {
+                            licencas.release();
+                        }
+                    }
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return metodo.invoke(alvo, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
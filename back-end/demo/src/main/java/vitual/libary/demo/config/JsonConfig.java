@@ -0,0 +1,18 @@
+package vitual.libary.demo.config;
+
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Ajustes do ObjectMapper da aplicação.
+ */
+@Configuration
+public class JsonConfig {
+
+    // Sem ?fields=, os DTOs com @JsonFilter são serializados por inteiro
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer camposParciaisCustomizer() {
+        return builder -> builder.filters(SparseFieldsetAdvice.todosOsCampos());
+    }
+}
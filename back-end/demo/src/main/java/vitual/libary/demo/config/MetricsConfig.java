@@ -0,0 +1,291 @@
+package vitual.libary.demo.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import vitual.libary.demo.cache.BookJsonCache;
+import vitual.libary.demo.cache.EntityCache;
+import vitual.libary.demo.cache.EntityCacheRegistry;
+import vitual.libary.demo.cache.SecondLevelCacheRegistry;
+import vitual.libary.demo.security.CalibratedBCryptPasswordEncoder;
+import vitual.libary.demo.security.JwtTokenProvider;
+import vitual.libary.demo.security.RateLimiter;
+import vitual.libary.demo.service.AuthService;
+import vitual.libary.demo.service.BookService;
+import vitual.libary.demo.service.UserService;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.function.ToLongFunction;
+
+/**
+ * Métricas próprias da aplicação, publicadas em /actuator/prometheus.
+ *
+ * Os contadores já mantidos pelos componentes (caches, retry, estoque) são
+ * lidos só no momento da coleta (FunctionCounter/Gauge), sem custo extra nas
+ * requisições. Latência por endpoint (http.server.requests), pool de conexões
+ * (hikaricp.*) e JVM vêm da autoconfiguração do Actuator.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Caches de entidades e de tokens verificados: acertos, faltas, remoções,
+     * tamanho (CaffeineCacheMetrics) e a taxa de acerto já calculada.
+     *
+     * Recebe o BookService e o UserService para que os caches de entidades,
+     * criados nos construtores deles, já existam quando o binder roda.
+     */
+    @Bean
+    public MeterBinder cacheMetrics(EntityCacheRegistry cacheRegistry, BookService bookService,
+                                    UserService userService, JwtTokenProvider jwtTokenProvider) {
+        return registry -> {
+            for (EntityCache<?, ?> cache : cacheRegistry.getCaches()) {
+                registrarCache(registry, cache.getCache(), cache.getNome());
+            }
+            registrarCache(registry, jwtTokenProvider.getTokensVerificados(), "jwt");
+        };
+    }
+
+    private static void registrarCache(MeterRegistry registry, Cache<?, ?> cache, String nome) {
+        CaffeineCacheMetrics.monitor(registry, cache, nome);
+        Gauge.builder("biblioteca.cache.taxa.acerto", cache, MetricsConfig::taxaDeAcerto)
+                .description("Fração das consultas ao cache atendidas sem ir ao banco")
+                .tag("cache", nome)
+                .register(registry);
+    }
+
+    // Sem consultas ainda, NaN (o Caffeine informaria 100% de acerto)
+    private static double taxaDeAcerto(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return stats.requestCount() == 0 ? Double.NaN : stats.hitRate();
+    }
+
+    /**
+     * Cache de JSON pré-serializado dos livros: acertos e faltas com os nomes
+     * de métrica do Caffeine (tag cache=books-json), remoções, entradas e a
+     * memória ocupada em bytes.
+     */
+    @Bean
+    public MeterBinder bookJsonCacheMetrics(BookJsonCache jsonCache) {
+        return registry -> {
+            String nome = BookJsonCache.NOME;
+            FunctionCounter.builder("cache.gets", jsonCache, BookJsonCache::getAcertos)
+                    .tag("cache", nome)
+                    .tag("result", "hit")
+                    .description("Consultas ao cache de JSON dos livros")
+                    .register(registry);
+            FunctionCounter.builder("cache.gets", jsonCache, BookJsonCache::getFaltas)
+                    .tag("cache", nome)
+                    .tag("result", "miss")
+                    .description("Consultas ao cache de JSON dos livros")
+                    .register(registry);
+            FunctionCounter.builder("cache.evictions", jsonCache, BookJsonCache::getRemocoes)
+                    .tag("cache", nome)
+                    .description("Fragmentos removidos por limite de memória ou TTL")
+                    .register(registry);
+            Gauge.builder("cache.size", jsonCache, BookJsonCache::getTamanho)
+                    .tag("cache", nome)
+                    .description("Livros com JSON em cache")
+                    .register(registry);
+            Gauge.builder("biblioteca.cache.json.bytes", jsonCache, BookJsonCache::getBytes)
+                    .tag("cache", nome)
+                    .description("Memória ocupada pelo JSON em cache")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("biblioteca.cache.taxa.acerto", jsonCache, MetricsConfig::taxaDeAcertoJson)
+                    .description("Fração das consultas ao cache atendidas sem ir ao banco")
+                    .tag("cache", nome)
+                    .register(registry);
+        };
+    }
+
+    private static double taxaDeAcertoJson(BookJsonCache jsonCache) {
+        long consultas = jsonCache.getAcertos() + jsonCache.getFaltas();
+        return consultas == 0 ? Double.NaN : (double) jsonCache.getAcertos() / consultas;
+    }
+
+    /**
+     * Regiões do cache de segundo nível do Hibernate, com os mesmos nomes de
+     * métrica do Caffeine (cache.gets, cache.puts) e a tag cache=l2.&lt;regiao&gt;.
+     */
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(SecondLevelCacheRegistry l2) {
+        return registry -> {
+            for (String regiao : l2.getRegioes()) {
+                String nome = "l2." + regiao;
+                contadorL2(registry, l2, regiao, "cache.gets", "hit", CacheRegionStatistics::getHitCount);
+                contadorL2(registry, l2, regiao, "cache.gets", "miss", CacheRegionStatistics::getMissCount);
+                FunctionCounter.builder("cache.puts", l2,
+                                r -> valorL2(r, regiao, CacheRegionStatistics::getPutCount))
+                        .tag("cache", nome)
+                        .description("Entradas gravadas na região do cache de segundo nível")
+                        .register(registry);
+                Gauge.builder("biblioteca.cache.taxa.acerto", l2, r -> taxaDeAcertoL2(r, regiao))
+                        .description("Fração das consultas ao cache atendidas sem ir ao banco")
+                        .tag("cache", nome)
+                        .register(registry);
+            }
+        };
+    }
+
+    private static void contadorL2(MeterRegistry registry, SecondLevelCacheRegistry l2, String regiao,
+                                   String metrica, String resultado,
+                                   ToLongFunction<CacheRegionStatistics> valor) {
+        FunctionCounter.builder(metrica, l2, r -> valorL2(r, regiao, valor))
+                .tag("cache", "l2." + regiao)
+                .tag("result", resultado)
+                .description("Consultas à região do cache de segundo nível")
+                .register(registry);
+    }
+
+    private static double valorL2(SecondLevelCacheRegistry l2, String regiao,
+                                  ToLongFunction<CacheRegionStatistics> valor) {
+        CacheRegionStatistics stats = l2.estatisticasDaRegiao(regiao);
+        return stats != null ? valor.applyAsLong(stats) : 0;
+    }
+
+    private static double taxaDeAcertoL2(SecondLevelCacheRegistry l2, String regiao) {
+        CacheRegionStatistics stats = l2.estatisticasDaRegiao(regiao);
+        long consultas = stats != null ? stats.getHitCount() + stats.getMissCount() : 0;
+        return consultas == 0 ? Double.NaN : (double) stats.getHitCount() / consultas;
+    }
+
+    /**
+     * Conflitos de versão, novas tentativas e reservas negadas por falta de estoque.
+     */
+    @Bean
+    public MeterBinder emprestimoMetrics(ConflictRetryListener retryListener, BookService bookService) {
+        return registry -> {
+            FunctionCounter.builder("biblioteca.retry.operacoes", retryListener,
+                            ConflictRetryListener::getOperacoes)
+                    .description("Operações executadas com @RetryOnConflict")
+                    .register(registry);
+            FunctionCounter.builder("biblioteca.retry.conflitos", retryListener,
+                            ConflictRetryListener::getConflitos)
+                    .description("Tentativas que perderam um conflito de versão (@Version)")
+                    .register(registry);
+            FunctionCounter.builder("biblioteca.retry.novas.tentativas", retryListener,
+                            ConflictRetryListener::getNovasTentativas)
+                    .description("Novas tentativas após conflito")
+                    .register(registry);
+            FunctionCounter.builder("biblioteca.retry.esgotadas", retryListener,
+                            ConflictRetryListener::getEsgotadas)
+                    .description("Operações que falharam após esgotar as tentativas")
+                    .register(registry);
+            FunctionCounter.builder("biblioteca.estoque.insuficiente", bookService,
+                            BookService::getReservasSemEstoque)
+                    .description("Reservas de exemplar negadas por falta de estoque (InsufficientStockException)")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Custo do BCrypt escolhido na subida e hashes de senha refeitos no login.
+     */
+    @Bean
+    public MeterBinder senhaMetrics(CalibratedBCryptPasswordEncoder bcryptCalibrado, AuthService authService) {
+        return registry -> {
+            Gauge.builder("biblioteca.senha.custo", bcryptCalibrado, CalibratedBCryptPasswordEncoder::getCusto)
+                    .description("Custo (log2 das rodadas) do BCrypt calibrado para esta máquina")
+                    .register(registry);
+            FunctionCounter.builder("biblioteca.senha.rehash", authService, AuthService::getHashesAtualizados)
+                    .description("Hashes de senha regravados no login com o custo ou formato atual")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Limite de requisições (RateLimitFilter), por grupo de rotas.
+     */
+    @Bean
+    public MeterBinder limiteMetrics(RateLimiter rateLimiter) {
+        return registry -> {
+            for (RateLimiter.Grupo grupo : RateLimiter.Grupo.values()) {
+                FunctionCounter.builder("biblioteca.limite.rejeitadas", rateLimiter, r -> r.getRejeitadas(grupo))
+                        .description("Requisições recusadas por excesso de taxa (429)")
+                        .tag("grupo", grupo.getNome())
+                        .register(registry);
+                Gauge.builder("biblioteca.limite.chaves", rateLimiter, r -> r.getChaves(grupo))
+                        .description("IPs ou usuários com balde de fichas em memória")
+                        .tag("grupo", grupo.getNome())
+                        .register(registry);
+            }
+        };
+    }
+
+    /**
+     * Fila de admissão ao pool de conexões (app.datasource.admission.enabled=true).
+     */
+    @Bean
+    public MeterBinder admissaoMetrics(ObjectProvider<DataSource> dataSources) {
+        return registry -> dataSources.orderedStream().forEach(dataSource -> {
+            ConnectionAdmissionDataSource admissao = admissao(dataSource);
+            if (admissao == null) {
+                return;
+            }
+            Gauge.builder("biblioteca.datasource.admissao.aguardando", admissao,
+                            ConnectionAdmissionDataSource::getAguardando)
+                    .description("Threads aguardando licença para pedir conexão ao pool")
+                    .register(registry);
+            Gauge.builder("biblioteca.datasource.admissao.livres", admissao,
+                            ConnectionAdmissionDataSource::getLivres)
+                    .description("Licenças livres (conexões que ainda podem ser pedidas)")
+                    .register(registry);
+            FunctionCounter.builder("biblioteca.datasource.admissao.rejeitadas", admissao,
+                            ConnectionAdmissionDataSource::getRejeitadas)
+                    .description("Pedidos de conexão recusados após o tempo de espera (503)")
+                    .register(registry);
+        });
+    }
+
+    /**
+     * Réplicas de leitura (app.datasource.replica.enabled=true): atraso medido,
+     * se estão no rodízio e quantas leituras receberam. O pool de cada réplica
+     * publica as próprias métricas hikaricp.* (pool=replica-N).
+     */
+    @Bean
+    public MeterBinder replicaMetrics(ObjectProvider<ReadReplicaRegistry> replicas) {
+        return registry -> replicas.ifAvailable(replicaRegistry -> {
+            for (ReadReplicaRegistry.Replica replica : replicaRegistry.getReplicas()) {
+                Gauge.builder("biblioteca.datasource.replica.atraso", replica,
+                                r -> r.getAtrasoMillis() < 0 ? Double.NaN : r.getAtrasoMillis() / 1000.0)
+                        .description("Último atraso de replicação medido (NaN se a réplica não respondeu)")
+                        .baseUnit("seconds")
+                        .tag("replica", replica.getNome())
+                        .register(registry);
+                Gauge.builder("biblioteca.datasource.replica.disponivel", replica, r -> r.isDisponivel() ? 1 : 0)
+                        .description("1 se a réplica está dentro do atraso máximo e recebe leituras")
+                        .tag("replica", replica.getNome())
+                        .register(registry);
+                FunctionCounter.builder("biblioteca.datasource.replica.leituras", replica,
+                                ReadReplicaRegistry.Replica::getLeituras)
+                        .description("Conexões somente leitura entregues pela réplica")
+                        .tag("replica", replica.getNome())
+                        .register(registry);
+            }
+            FunctionCounter.builder("biblioteca.datasource.replica.leituras.primario", replicaRegistry,
+                            ReadReplicaRegistry::getLeiturasNoPrimario)
+                    .description("Leituras somente leitura enviadas ao primário por falta de réplica disponível")
+                    .register(registry);
+        });
+    }
+
+    private static ConnectionAdmissionDataSource admissao(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(ConnectionAdmissionDataSource.class)
+                    ? dataSource.unwrap(ConnectionAdmissionDataSource.class)
+                    : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
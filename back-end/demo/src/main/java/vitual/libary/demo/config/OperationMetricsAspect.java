@@ -0,0 +1,95 @@
+package vitual.libary.demo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import vitual.libary.demo.service.TimedOperation;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registra a duração dos métodos anotados com @TimedOperation.
+ *
+ * Os timers são criados uma vez por operação e resultado e guardados aqui, então
+ * cada chamada só lê o relógio duas vezes e incrementa os contadores do timer,
+ * sem montar tags nem consultar o MeterRegistry. A ordem 0 coloca a medição
+ * por fora do retry e da transação (que usam as menores precedências).
+ */
+@Aspect
+@Component
+@Order(OperationMetricsAspect.ORDEM)
+public class OperationMetricsAspect {
+
+    static final int ORDEM = 0;
+    static final String METRICA = "biblioteca.operacao";
+    private static final String SUCESSO = "sucesso";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timers> timersPorOperacao = new ConcurrentHashMap<>();
+
+    public OperationMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("@annotation(operacao)")
+    public Object medir(ProceedingJoinPoint joinPoint, TimedOperation operacao) throws Throwable {
+        Timers timers = timers(joinPoint, operacao.value());
+        long inicio = System.nanoTime();
+        try {
+            Object resultado = joinPoint.proceed();
+            timers.sucesso.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return resultado;
+        } catch (Throwable e) {
+            timers.falha(e.getClass()).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timers timers(ProceedingJoinPoint joinPoint, String operacao) {
+        Timers timers = timersPorOperacao.get(operacao);
+        if (timers == null) {
+            String servico = joinPoint.getSignature().getDeclaringType().getSimpleName();
+            timers = timersPorOperacao.computeIfAbsent(operacao, op -> new Timers(registry, servico, op));
+        }
+        return timers;
+    }
+
+    /**
+     * Timers de uma operação: um para sucesso e um por tipo de exceção lançada.
+     */
+    private static final class Timers {
+
+        private final MeterRegistry registry;
+        private final String servico;
+        private final String operacao;
+        private final Timer sucesso;
+        private final Map<Class<?>, Timer> falhas = new ConcurrentHashMap<>();
+
+        Timers(MeterRegistry registry, String servico, String operacao) {
+            this.registry = registry;
+            this.servico = servico;
+            this.operacao = operacao;
+            this.sucesso = criar(SUCESSO);
+        }
+
+        Timer falha(Class<?> tipo) {
+            Timer timer = falhas.get(tipo);
+            return timer != null ? timer : falhas.computeIfAbsent(tipo, t -> criar(t.getSimpleName()));
+        }
+
+        private Timer criar(String resultado) {
+            return Timer.builder(METRICA)
+                    .description("Duração das operações de serviço (inclui retry e commit)")
+                    .tag("servico", servico)
+                    .tag("operacao", operacao)
+                    .tag("resultado", resultado)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package vitual.libary.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Envia as transações somente leitura (@Transactional(readOnly = true)) para
+ * réplicas quando app.datasource.replica.enabled=true; o resto vai ao primário.
+ *
+ * Réplicas: app.datasource.replica.urls (separadas por vírgula), com usuário,
+ * senha e driver do primário se não informados. Uma réplica com atraso acima de
+ * app.datasource.replica.max-lag (ou fora do ar) sai do rodízio até voltar ao limite.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    // Depois da admissão: ela limita só o pool do primário, as réplicas têm pools próprios
+    static final int ORDEM = ConnectionAdmissionConfig.ORDEM + 1;
+
+    private static final Duration ATRASO_MAXIMO_PADRAO = Duration.ofSeconds(2);
+    private static final Duration INTERVALO_PADRAO = Duration.ofSeconds(1);
+
+    @Bean(destroyMethod = "close")
+    public ReadReplicaRegistry readReplicaRegistry(Environment environment, DataSourceProperties primario,
+                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        List<String> urls = List.of(environment.getProperty("app.datasource.replica.urls", String[].class,
+                new String[0]));
+        if (urls.isEmpty()) {
+            throw new IllegalStateException(
+                    "app.datasource.replica.enabled=true exige ao menos uma URL em app.datasource.replica.urls");
+        }
+        int tamanhoPool = environment.getProperty("app.datasource.replica.maximum-pool-size", Integer.class,
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + (i + 1));
+            pool.setJdbcUrl(urls.get(i).trim());
+            pool.setDriverClassName(primario.determineDriverClassName());
+            pool.setUsername(environment.getProperty("app.datasource.replica.username",
+                    primario.determineUsername()));
+            pool.setPassword(environment.getProperty("app.datasource.replica.password",
+                    primario.determinePassword()));
+            pool.setMaximumPoolSize(tamanhoPool);
+            pool.setReadOnly(true);
+            // Réplica fora do ar não impede a subida: fica fora do rodízio
+            pool.setInitializationFailTimeout(-1);
+            meterRegistry.ifAvailable(registry ->
+                    pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.put(pool.getPoolName(), pool);
+        }
+
+        ReadReplicaRegistry registry = new ReadReplicaRegistry(replicas,
+                environment.getProperty("app.datasource.replica.max-lag", Duration.class, ATRASO_MAXIMO_PADRAO),
+                environment.getProperty("app.datasource.replica.lag-query",
+                        ReadReplicaRegistry.CONSULTA_ATRASO_POSTGRES));
+        registry.iniciar(environment.getProperty("app.datasource.replica.check-interval", Duration.class,
+                INTERVALO_PADRAO));
+        return registry;
+    }
+
+    // static: o pós-processador precisa existir antes dos demais beans
+    @Bean
+    public static BeanPostProcessor readReplicaPostProcessor(ObjectProvider<ReadReplicaRegistry> registry) {
+        return new RoteamentoPostProcessor(registry);
+    }
+
+    private record RoteamentoPostProcessor(ObjectProvider<ReadReplicaRegistry> registry)
+            implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource primario) || bean instanceof LazyConnectionDataSourceProxy) {
+                return bean;
+            }
+            // A conexão só é obtida no primeiro comando, quando o readOnly da transação já é conhecido
+            LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primario);
+            proxy.setReadOnlyDataSource(new ReadReplicaRoutingDataSource(primario, registry::getObject));
+            return proxy;
+        }
+
+        @Override
+        public int getOrder() {
+            return ORDEM;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package vitual.libary.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Réplicas de leitura e o atraso de cada uma em relação ao primário.
+ *
+ * Uma thread verifica periodicamente o atraso de replicação (consulta
+ * configurável, em milissegundos); réplicas fora do ar ou com atraso acima do
+ * máximo deixam de receber leituras até voltarem ao limite. As leituras são
+ * distribuídas em rodízio entre as réplicas disponíveis; sem nenhuma, vão
+ * para o primário.
+ */
+public class ReadReplicaRegistry implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaRegistry.class);
+
+    /**
+     * Atraso de uma réplica PostgreSQL (streaming replication), em ms. Sem WAL
+     * pendente o atraso é zero, mesmo que o primário esteja sem escritas há tempo.
+     */
+    public static final String CONSULTA_ATRASO_POSTGRES =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() "
+                    + "THEN 0 ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final List<Replica> replicas;
+    private final long atrasoMaximoMillis;
+    private final String consultaAtraso;
+    private final AtomicInteger proxima = new AtomicInteger();
+    private final LongAdder leiturasNoPrimario = new LongAdder();
+    private ScheduledExecutorService verificador;
+
+    /**
+     * Uma réplica de leitura e o último atraso medido.
+     */
+    public static final class Replica {
+
+        private final String nome;
+        private final DataSource dataSource;
+        private final LongAdder leituras = new LongAdder();
+        private volatile long atrasoMillis = -1;
+        private volatile boolean disponivel;
+
+        private Replica(String nome, DataSource dataSource) {
+            this.nome = nome;
+            this.dataSource = dataSource;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        /** @return último atraso medido em ms, ou -1 se a verificação falhou */
+        public long getAtrasoMillis() {
+            return atrasoMillis;
+        }
+
+        public boolean isDisponivel() {
+            return disponivel;
+        }
+
+        public long getLeituras() {
+            return leituras.sum();
+        }
+    }
+
+    /**
+     * @param replicas réplicas por nome, na ordem do rodízio
+     * @param atrasoMaximo atraso acima do qual a réplica deixa de receber leituras
+     * @param consultaAtraso SELECT que devolve o atraso da réplica em ms
+     */
+    public ReadReplicaRegistry(Map<String, DataSource> replicas, Duration atrasoMaximo, String consultaAtraso) {
+        this.replicas = new ArrayList<>(replicas.size());
+        replicas.forEach((nome, dataSource) -> this.replicas.add(new Replica(nome, dataSource)));
+        this.atrasoMaximoMillis = atrasoMaximo.toMillis();
+        this.consultaAtraso = consultaAtraso;
+    }
+
+    /**
+     * Faz a primeira verificação e agenda as seguintes.
+     *
+     * @param intervalo intervalo entre verificações
+     */
+    public void iniciar(Duration intervalo) {
+        verificarAtraso();
+        verificador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "replica-atraso");
+            thread.setDaemon(true);
+            return thread;
+        });
+        verificador.scheduleWithFixedDelay(this::verificarAtraso,
+                intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Mede o atraso de todas as réplicas e atualiza quais podem receber leituras.
+     */
+    public void verificarAtraso() {
+        for (Replica replica : replicas) {
+            long atraso = medirAtraso(replica);
+            boolean disponivel = atraso >= 0 && atraso <= atrasoMaximoMillis;
+            if (disponivel != replica.disponivel) {
+                if (disponivel) {
+                    log.info("Réplica {} disponível para leitura (atraso {} ms)", replica.nome, atraso);
+                } else {
+                    log.warn("Réplica {} fora do rodízio (atraso {} ms, máximo {} ms); leituras vão ao primário",
+                            replica.nome, atraso, atrasoMaximoMillis);
+                }
+            }
+            replica.atrasoMillis = atraso;
+            replica.disponivel = disponivel;
+        }
+    }
+
+    private long medirAtraso(Replica replica) {
+        try (Connection conexao = replica.dataSource.getConnection();
+             Statement statement = conexao.createStatement();
+             ResultSet resultado = statement.executeQuery(consultaAtraso)) {
+            return resultado.next() ? Math.max(0, Math.round(resultado.getDouble(1))) : -1;
+        } catch (SQLException e) {
+            log.debug("Falha ao medir o atraso da réplica {}: {}", replica.nome, e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Escolhe, em rodízio, uma réplica dentro do atraso máximo.
+     *
+     * @return DataSource da réplica, ou null se nenhuma está disponível (usar o primário)
+     */
+    public DataSource escolher() {
+        int total = replicas.size();
+        int inicio = Math.floorMod(proxima.getAndIncrement(), Math.max(total, 1));
+        for (int i = 0; i < total; i++) {
+            Replica replica = replicas.get((inicio + i) % total);
+            if (replica.disponivel) {
+                replica.leituras.increment();
+                return replica.dataSource;
+            }
+        }
+        leiturasNoPrimario.increment();
+        return null;
+    }
+
+    public List<Replica> getReplicas() {
+        return List.copyOf(replicas);
+    }
+
+    /**
+     * @return leituras somente leitura enviadas ao primário por falta de réplica disponível
+     */
+    public long getLeiturasNoPrimario() {
+        return leiturasNoPrimario.sum();
+    }
+
+    @Override
+    public void close() {
+        if (verificador != null) {
+            verificador.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable fechavel) {
+                try {
+                    fechavel.close();
+                } catch (Exception e) {
+                    log.warn("Falha ao fechar o pool da réplica {}", replica.nome, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package vitual.libary.demo.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * DataSource das transações somente leitura: uma réplica disponível do
+ * ReadReplicaRegistry ou, se nenhuma estiver dentro do atraso máximo, o
+ * primário (o alvo deste DataSource).
+ *
+ * Usado como readOnlyDataSource do LazyConnectionDataSourceProxy, que só
+ * pede a conexão no primeiro comando, quando o readOnly da transação já foi
+ * aplicado.
+ */
+public class ReadReplicaRoutingDataSource extends DelegatingDataSource {
+
+    private final Supplier<ReadReplicaRegistry> registry;
+
+    /**
+     * @param primario DataSource do primário (fallback)
+     * @param registry réplicas; resolvido no primeiro uso
+     */
+    public ReadReplicaRoutingDataSource(DataSource primario, Supplier<ReadReplicaRegistry> registry) {
+        super(primario);
+        this.registry = registry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return escolher().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return escolher().getConnection(username, password);
+    }
+
+    private DataSource escolher() {
+        DataSource replica = registry.get().escolher();
+        return replica != null ? replica : obtainTargetDataSource();
+    }
+}
@@ -0,0 +1,15 @@
+package vitual.libary.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.annotation.EnableRetry;
+
+/**
+ * Habilita o @Retryable usado nas operações de empréstimo.
+ *
+ * O interceptor de retry tem precedência maior que o de transação, então
+ * cada nova tentativa roda em uma transação nova, com dados relidos do banco.
+ */
+@Configuration
+@EnableRetry
+public class RetryConfig {
+}
@@ -0,0 +1,21 @@
+package vitual.libary.demo.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import vitual.libary.demo.cache.SecondLevelCacheRegistry;
+
+/**
+ * Entrega ao Hibernate o CacheManager com as regiões do cache de segundo nível.
+ *
+ * O restante da configuração (fábrica de regiões jcache, modo seletivo,
+ * estatísticas) está no application.properties.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(SecondLevelCacheRegistry registry) {
+        return propriedades -> propriedades.put("hibernate.javax.cache.cache_manager", registry.getCacheManager());
+    }
+}
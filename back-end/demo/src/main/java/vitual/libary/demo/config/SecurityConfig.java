@@ -1,48 +1,98 @@
 package vitual.libary.demo.config;
 
+import jakarta.servlet.DispatcherType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import vitual.libary.demo.security.CalibratedBCryptPasswordEncoder;
 import vitual.libary.demo.security.JwtAuthenticationFilter;
+import vitual.libary.demo.security.RateLimitFilter;
+import vitual.libary.demo.security.RateLimiter;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
-    
+
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     
     public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
     }
     
+    /**
+     * BCrypt com o custo calibrado na subida para app.password.target-latency por
+     * hash (entre min-cost e max-cost), ou fixo com app.password.cost > 0.
+     */
+    @Bean
+    public CalibratedBCryptPasswordEncoder bcryptCalibrado(
+            @Value("${app.password.cost:0}") int custoFixo,
+            @Value("${app.password.target-latency:250ms}") Duration alvo,
+            @Value("${app.password.min-cost:10}") int custoMinimo,
+            @Value("${app.password.max-cost:14}") int custoMaximo) {
+        if (custoFixo > 0) {
+            log.info("BCrypt com custo fixo {} (app.password.cost)", custoFixo);
+            return new CalibratedBCryptPasswordEncoder(custoFixo);
+        }
+        long inicio = System.nanoTime();
+        int custo = CalibratedBCryptPasswordEncoder.calibrar(alvo, custoMinimo, custoMaximo);
+        log.info("BCrypt calibrado para {} ms por hash: custo {} (calibração em {} ms)",
+                alvo.toMillis(), custo, (System.nanoTime() - inicio) / 1_000_000);
+        return new CalibratedBCryptPasswordEncoder(custo);
+    }
+
+    /**
+     * Encoder usado no cadastro e no login: hashes novos saem como
+     * "{bcrypt}$2a$<custo>$...", e hashes antigos sem prefixo continuam
+     * válidos (conferidos pelo BCrypt). upgradeEncoding pede um novo hash para
+     * os sem prefixo e para os de outro custo; o AuthService regrava no login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Primary
+    public PasswordEncoder passwordEncoder(CalibratedBCryptPasswordEncoder bcryptCalibrado) {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcryptCalibrado));
+        encoder.setDefaultPasswordEncoderForMatches(bcryptCalibrado);
+        return encoder;
     }
     
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, RateLimiter rateLimiter) throws Exception {
         http
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(authz -> authz
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()  // Fim das exportações em streaming (requisição já autorizada)
                 .requestMatchers("/api/auth/**").permitAll()  // Permitir acesso público aos endpoints de autenticação
                 .requestMatchers("/h2-console/**").permitAll()  // Permitir H2 Console
+                .requestMatchers("/livez", "/readyz").permitAll()  // Probes do balanceador na porta da API
+                .requestMatchers(EndpointRequest.to(HealthEndpoint.class, PrometheusScrapeEndpoint.class)).permitAll()  // Coleta de métricas (só na porta de gerenciamento)
+                .requestMatchers(EndpointRequest.toAnyEndpoint()).hasAuthority("BIBLIOTECARIO")
                 .anyRequest().authenticated()  // Outros endpoints requerem autenticação
             )
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)  // Adicionar JWT filter
+            .addFilterAfter(new RateLimitFilter(rateLimiter), JwtAuthenticationFilter.class)  // Limite por IP (auth) ou por usuário
             .headers(headers -> headers.frameOptions(frameOptions -> frameOptions.disable())); // Para H2 Console
         
         return http.build();
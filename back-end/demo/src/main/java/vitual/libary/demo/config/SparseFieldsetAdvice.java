@@ -0,0 +1,68 @@
+package vitual.libary.demo.config;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Campos parciais (sparse fieldsets): com ?fields=id,titulo as respostas
+ * marcadas com @JsonFilter(FILTRO) (BookResponse, UserResponse, LoanSummary)
+ * trazem só os campos pedidos; envelopes como Page e CursorPageResponse ficam
+ * completos, e referências aninhadas (book, user do empréstimo) vão inteiras.
+ *
+ * O filtro é aplicado pelo Jackson durante a serialização: os campos não pedidos
+ * nem são lidos, em vez de serializar tudo e podar o JSON depois.
+ */
+@RestControllerAdvice
+public class SparseFieldsetAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    public static final String FILTRO = "campos";
+    public static final String PARAMETRO = "fields";
+
+    private static final FilterProvider TODOS_OS_CAMPOS = new SimpleFilterProvider()
+            .addFilter(FILTRO, SimpleBeanPropertyFilter.serializeAll());
+
+    /**
+     * @return filtros sem restrição (padrão do ObjectMapper, ver JsonConfig)
+     */
+    public static FilterProvider todosOsCampos() {
+        return TODOS_OS_CAMPOS;
+    }
+
+    /**
+     * @param campos nomes separados por vírgula
+     * @return filtros que mantêm só os campos informados
+     */
+    public static FilterProvider somente(String campos) {
+        Set<String> nomes = Arrays.stream(campos.split(","))
+                .map(String::trim)
+                .filter(nome -> !nome.isEmpty())
+                .collect(Collectors.toSet());
+        return new SimpleFilterProvider().addFilter(FILTRO, SimpleBeanPropertyFilter.filterOutAllExcept(nomes));
+    }
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue corpo, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        String campos = servletRequest.getServletRequest().getParameter(PARAMETRO);
+        if (campos != null && !campos.isBlank()) {
+            corpo.setFilters(somente(campos));
+        }
+    }
+}
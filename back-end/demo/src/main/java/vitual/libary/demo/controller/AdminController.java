@@ -0,0 +1,61 @@
+package vitual.libary.demo.controller;
+
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import vitual.libary.demo.cache.BookJsonCache;
+import vitual.libary.demo.cache.EntityCacheRegistry;
+import vitual.libary.demo.cache.SecondLevelCacheRegistry;
+import vitual.libary.demo.config.ConflictRetryListener;
+import vitual.libary.demo.dto.CacheStatsResponse;
+import vitual.libary.demo.dto.JsonCacheStatsResponse;
+import vitual.libary.demo.dto.RetryStatsResponse;
+import vitual.libary.demo.dto.SecondLevelCacheStatsResponse;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin")
+@PreAuthorize("hasAuthority('BIBLIOTECARIO')")
+public class AdminController {
+
+    private final EntityCacheRegistry cacheRegistry;
+    private final SecondLevelCacheRegistry secondLevelCacheRegistry;
+    private final BookJsonCache bookJsonCache;
+    private final ConflictRetryListener conflictRetryListener;
+
+    public AdminController(EntityCacheRegistry cacheRegistry, SecondLevelCacheRegistry secondLevelCacheRegistry,
+                           BookJsonCache bookJsonCache, ConflictRetryListener conflictRetryListener) {
+        this.cacheRegistry = cacheRegistry;
+        this.secondLevelCacheRegistry = secondLevelCacheRegistry;
+        this.bookJsonCache = bookJsonCache;
+        this.conflictRetryListener = conflictRetryListener;
+    }
+
+    // GET /api/admin/cache - ESTATÍSTICAS DOS CACHES DE ENTIDADES (Apenas BIBLIOTECARIO)
+    // Acertos, faltas e remoções por cache, para dimensionar tamanho e TTL.
+    @GetMapping("/cache")
+    public List<CacheStatsResponse> getCacheStats() {
+        return cacheRegistry.estatisticas();
+    }
+
+    // GET /api/admin/cache/l2 - ESTATÍSTICAS DO CACHE DE SEGUNDO NÍVEL DO HIBERNATE (Apenas BIBLIOTECARIO)
+    // Acertos, faltas e inserções por região (livros, usuários, e-mail -> usuário).
+    @GetMapping("/cache/l2")
+    public List<SecondLevelCacheStatsResponse> getSecondLevelCacheStats() {
+        return secondLevelCacheRegistry.estatisticas();
+    }
+
+    // GET /api/admin/cache/json - ESTATÍSTICAS DO CACHE DE JSON DOS LIVROS (Apenas BIBLIOTECARIO)
+    // Memória ocupada (bytes), acertos, faltas e remoções do JSON pré-serializado de GET /api/books/{id}.
+    @GetMapping("/cache/json")
+    public JsonCacheStatsResponse getJsonCacheStats() {
+        return bookJsonCache.estatisticas();
+    }
+
+    // GET /api/admin/retry - CONFLITOS DE VERSÃO E NOVAS TENTATIVAS (Apenas BIBLIOTECARIO)
+    // Operações de empréstimo que colidiram com outra escrita e foram repetidas.
+    @GetMapping("/retry")
+    public RetryStatsResponse getRetryStats() {
+        return conflictRetryListener.estatisticas();
+    }
+}
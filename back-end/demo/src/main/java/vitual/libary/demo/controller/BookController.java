@@ -1,17 +1,34 @@
 package vitual.libary.demo.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import vitual.libary.demo.cache.BookJsonCache;
+import vitual.libary.demo.dto.BookCursor;
+import vitual.libary.demo.dto.BookImportResponse;
+import vitual.libary.demo.dto.BookResponse;
+import vitual.libary.demo.dto.CursorPageResponse;
 import vitual.libary.demo.entity.Book;
+import vitual.libary.demo.service.BookImportService;
 import vitual.libary.demo.service.BookService;
+import vitual.libary.demo.service.ExportService;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -19,47 +36,156 @@ import java.util.List;
 public class BookController {
 
     private final BookService bookService;
+    private final BookJsonCache bookJsonCache;
+    private final ExportService exportService;
+    private final BookImportService bookImportService;
+
+    // Maior página aceita na listagem por cursor (como em LoanController)
+    private static final int TAMANHO_MAXIMO_CURSOR = 100;
+
+    // Cache-Control das leituras: um livro muda pouco; as páginas mudam a cada cadastro.
+    // "private" por padrão; "public" (app.http.cache.compartilhado=true) permite que proxies
+    // compartilhados guardem respostas obtidas com Authorization e as sirvam a qualquer cliente.
+    private final CacheControl cacheDoLivro;
+    private final CacheControl cacheDoCatalogo;
 
     @Autowired
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BookJsonCache bookJsonCache, ExportService exportService,
+                          BookImportService bookImportService,
+                          @Value("${app.http.cache.livro.max-age:30s}") Duration maxAgeLivro,
+                          @Value("${app.http.cache.catalogo.max-age:10s}") Duration maxAgeCatalogo,
+                          @Value("${app.http.cache.compartilhado:false}") boolean compartilhado) {
         this.bookService = bookService;
+        this.bookJsonCache = bookJsonCache;
+        this.exportService = exportService;
+        this.bookImportService = bookImportService;
+        this.cacheDoLivro = politica(maxAgeLivro, compartilhado);
+        this.cacheDoCatalogo = politica(maxAgeCatalogo, compartilhado);
+    }
+
+    private static CacheControl politica(Duration maxAge, boolean compartilhado) {
+        CacheControl cacheControl = CacheControl.maxAge(maxAge).mustRevalidate();
+        return compartilhado ? cacheControl.cachePublic() : cacheControl.cachePrivate();
     }
 
     // POST /api/books - CREATE (Apenas BIBLIOTECARIO)
     @PostMapping
     @PreAuthorize("hasAuthority('BIBLIOTECARIO')")
-    public ResponseEntity<Book> createBook(@Valid @RequestBody Book book) {
+    public ResponseEntity<BookResponse> createBook(@Valid @RequestBody Book book) {
         Book savedBook = bookService.salvar(book);
-        return new ResponseEntity<>(savedBook, HttpStatus.CREATED);
+        return new ResponseEntity<>(BookResponse.de(savedBook), HttpStatus.CREATED);
     }
 
     // GET /api/books - READ ALL WITH PAGINATION AND SEARCH
+    // ?fields=id,titulo limita os campos de cada livro (sparse fieldset)
+    // ETag pelo conteúdo da página: com If-None-Match igual, 304 sem serializar
     @GetMapping
-    public Page<Book> getAllBooks(
+    public ResponseEntity<Page<BookResponse>> getAllBooks(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String titulo) {
+            @RequestParam(required = false) String titulo,
+            @RequestParam(required = false) String fields) {
         
         Pageable pageable = PageRequest.of(page, size);
         
+        Page<BookResponse> livros;
         if (titulo != null && !titulo.trim().isEmpty()) {
-            return bookService.buscarPorTitulo(titulo, pageable);
+            livros = bookService.buscarPorTitulo(titulo, pageable).map(BookResponse::de);
+        } else {
+            livros = bookService.listarResumos(pageable);
         }
-        
-        return bookService.listarTodos(pageable);
+
+        String etag = Etags.doConteudo(livros.getNumber(), livros.getSize(), livros.getTotalElements(),
+                livros.getContent(), fields);
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheDoCatalogo).body(livros);
+    }
+
+    // GET /api/books?cursor= - READ ALL WITH CURSOR (KEYSET) PAGINATION
+    // Primeira página: cursor vazio (opcionalmente sort=id|titulo).
+    // Próximas páginas: repetir a chamada com o valor de "next" da resposta.
+    // Aceita ?fields= como a listagem paginada.
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponse<BookResponse>> getBooksByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String fields) {
+
+        BookCursor posicao = cursor.isBlank()
+                ? BookCursor.inicio(BookCursor.Ordenacao.de(sort))
+                : BookCursor.decodificar(cursor);
+
+        Slice<Book> fatia = bookService.listarPorCursor(posicao, Math.min(Math.max(size, 1), TAMANHO_MAXIMO_CURSOR));
+
+        String proximo = null;
+        if (fatia.hasNext()) {
+            Book ultimo = fatia.getContent().get(fatia.getNumberOfElements() - 1);
+            proximo = BookCursor.apos(ultimo, posicao.ordenacao()).codificar();
+        }
+        List<BookResponse> livros = fatia.getContent().stream().map(BookResponse::de).toList();
+        CursorPageResponse<BookResponse> resposta =
+                new CursorPageResponse<>(livros, fatia.getNumberOfElements(), fatia.hasNext(), proximo);
+        return ResponseEntity.ok()
+                .eTag(Etags.doConteudo(resposta, fields))
+                .cacheControl(cacheDoCatalogo)
+                .body(resposta);
+    }
+
+    // GET /api/books/export?format=ndjson|csv - EXPORTAR O ACERVO INTEIRO (Apenas BIBLIOTECARIO)
+    // Streaming direto da consulta (memória constante); gzip com Accept-Encoding: gzip
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('BIBLIOTECARIO')")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        ExportService.Formato formato = ExportService.Formato.de(format);
+        return Exportacoes.resposta("livros", formato, acceptEncoding,
+                saida -> exportService.exportarLivros(formato, saida));
+    }
+
+    // POST /api/books/import?format=csv|ndjson - IMPORTAR EM LOTE (Apenas BIBLIOTECARIO)
+    // Corpo lido em streaming; upsert por ISBN, INSERTs em batch JDBC; devolve as linhas rejeitadas
+    @PostMapping("/import")
+    @PreAuthorize("hasAuthority('BIBLIOTECARIO')")
+    public BookImportResponse importBooks(@RequestParam(required = false) String format,
+                                          InputStream corpo) throws IOException {
+        return bookImportService.importar(corpo, ExportService.Formato.de(format));
     }
 
     // GET /api/books/{id} - READ ONE
+    // Escreve direto os bytes do JSON guardados no BookJsonCache (sem passar pelo Jackson).
+    // ETag pela versão do livro: If-None-Match igual responde 304 antes de buscar o JSON.
     @GetMapping("/{id}")
-    public Book getBookById(@PathVariable Long id) {
-        return bookService.buscarPorId(id);
+    public ResponseEntity<byte[]> getBookById(@PathVariable Long id, WebRequest request) {
+        Book book = bookService.buscarPorId(id);
+        String etag = Etags.doLivro(book, null);
+        if (request.checkNotModified(etag)) {
+            // checkNotModified já escreveu o status 304 e o ETag
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheDoLivro).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheDoLivro)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(bookJsonCache.obter(book));
+    }
+
+    // GET /api/books/{id}?fields=id,titulo - READ ONE COM CAMPOS PARCIAIS (serializado a cada chamada)
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<BookResponse> getBookFieldsById(@PathVariable Long id, @RequestParam String fields) {
+        Book book = bookService.buscarPorId(id);
+        return ResponseEntity.ok()
+                .eTag(Etags.doLivro(book, fields))
+                .cacheControl(cacheDoLivro)
+                .body(BookResponse.de(book));
     }
 
     // PUT /api/books/{id} - UPDATE (Apenas BIBLIOTECARIO)
     @PutMapping("/{id}")
     @PreAuthorize("hasAuthority('BIBLIOTECARIO')")
-    public Book updateBook(@PathVariable Long id, @Valid @RequestBody Book bookDetails) {
-        return bookService.atualizar(id, bookDetails);
+    public BookResponse updateBook(@PathVariable Long id, @Valid @RequestBody Book bookDetails) {
+        return BookResponse.de(bookService.atualizar(id, bookDetails));
     }
 
     // DELETE /api/books/{id} - DELETE (Apenas BIBLIOTECARIO)
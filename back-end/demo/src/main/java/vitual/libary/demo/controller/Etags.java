@@ -0,0 +1,50 @@
+package vitual.libary.demo.controller;
+
+import org.springframework.util.DigestUtils;
+import vitual.libary.demo.entity.Book;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * ETags fortes das respostas do acervo.
+ *
+ * Um livro usa o ID e a versão otimista (que também muda nas baixas e
+ * devoluções de estoque), então o ETag sai sem serializar nada. Páginas usam
+ * um resumo MD5 do conteúdo já montado, como o ShallowEtagHeaderFilter, mas
+ * calculado antes da serialização.
+ */
+final class Etags {
+
+    private Etags() {
+    }
+
+    /**
+     * @param book livro carregado (do cache de entidades, normalmente)
+     * @param campos valor de ?fields= (null para a representação completa)
+     * @return ETag do livro, entre aspas
+     */
+    static String doLivro(Book book, String campos) {
+        String etag = "livro-" + book.getId() + "-v" + book.getVersion();
+        if (campos != null) {
+            etag += "-" + resumo(campos);
+        }
+        return "\"" + etag + "\"";
+    }
+
+    /**
+     * @param partes o que compõe a resposta (itens, metadados da página, ?fields=)
+     * @return ETag derivado do conteúdo, entre aspas
+     */
+    static String doConteudo(Object... partes) {
+        return "\"" + resumo(Arrays.stream(partes)
+                .map(Objects::toString)
+                .collect(Collectors.joining("|"))) + "\"";
+    }
+
+    private static String resumo(String conteudo) {
+        return DigestUtils.md5DigestAsHex(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,75 @@
+package vitual.libary.demo.controller;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import vitual.libary.demo.service.ExportService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Respostas das rotas de exportação: o corpo é escrito por uma thread do
+ * executor assíncrono do Spring MVC (StreamingResponseBody), direto na
+ * resposta, e comprimido com gzip quando o cliente envia Accept-Encoding: gzip.
+ */
+final class Exportacoes {
+
+    private static final int TAMANHO_BUFFER_GZIP = 64 * 1024;
+
+    private Exportacoes() {
+    }
+
+    /**
+     * Escrita do conteúdo exportado no fluxo da resposta.
+     */
+    @FunctionalInterface
+    interface Escrita {
+        void escrever(OutputStream saida) throws IOException;
+    }
+
+    /**
+     * @param nome nome do arquivo sugerido, sem extensão
+     * @param formato formato da exportação (define Content-Type e extensão)
+     * @param acceptEncoding cabeçalho Accept-Encoding da requisição (pode ser null)
+     * @param escrita o que escrever no corpo
+     * @return resposta 200 com o corpo em streaming
+     */
+    static ResponseEntity<StreamingResponseBody> resposta(String nome, ExportService.Formato formato,
+                                                          String acceptEncoding, Escrita escrita) {
+        boolean gzip = aceitaGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+                .contentType(formato.getTipo())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(nome + "." + formato.getExtensao())
+                        .build()
+                        .toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!gzip) {
+            return resposta.body(escrita::escrever);
+        }
+        return resposta
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(saida -> {
+                    GZIPOutputStream comprimida = new GZIPOutputStream(saida, TAMANHO_BUFFER_GZIP);
+                    escrita.escrever(comprimida);
+                    comprimida.finish();
+                });
+    }
+
+    // "gzip" na lista do Accept-Encoding, exceto com q=0
+    static boolean aceitaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String opcao : acceptEncoding.split(",")) {
+            String[] partes = opcao.trim().split(";");
+            if (partes[0].trim().equalsIgnoreCase("gzip")) {
+                return partes.length == 1 || !partes[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -1,35 +1,115 @@
 package vitual.libary.demo.controller;
 
 import lombok.Data; // Importante para o DTO
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import vitual.libary.demo.dto.CursorPageResponse;
+import vitual.libary.demo.dto.LoanBatchResponse;
+import vitual.libary.demo.dto.LoanBorrowBatchRequest;
+import vitual.libary.demo.dto.LoanCursor;
+import vitual.libary.demo.dto.LoanFilter;
+import vitual.libary.demo.dto.LoanReturnBatchRequest;
+import vitual.libary.demo.dto.LoanSummary;
 import vitual.libary.demo.entity.Loan;
+import vitual.libary.demo.service.ExportService;
 import vitual.libary.demo.service.LoanService;
 
-import java.util.List;
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/loans")
 public class LoanController {
 
     private final LoanService loanService;
+    private final ExportService exportService;
 
-    public LoanController(LoanService loanService) {
+    public LoanController(LoanService loanService, ExportService exportService) {
         this.loanService = loanService;
+        this.exportService = exportService;
     }
 
-    // GET /api/loans - LISTAR TODOS
+    // Maior página aceita na listagem (evita carregar a tabela inteira de uma vez)
+    private static final int TAMANHO_MAXIMO_PAGINA = 100;
+
+    // GET /api/loans - LISTAR COM PAGINAÇÃO E FILTROS
+    // Filtros opcionais: userId, bookId, returned, de/ate (data do empréstimo, yyyy-MM-dd)
+    // ?fields=id,loanDate,book limita os campos de cada empréstimo (sparse fieldset)
     @GetMapping
-    public List<Loan> getAllLoans() {
-        return loanService.listarTodos();
+    public Page<LoanSummary> getAllLoans(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long bookId,
+            @RequestParam(required = false) Boolean returned,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate) {
+
+        LoanFilter filtro = new LoanFilter(userId, bookId, returned, de, ate);
+        return loanService.listar(filtro, PageRequest.of(Math.max(page, 0), limitarTamanho(size)));
+    }
+
+    // GET /api/loans?cursor= - LISTAR COM PAGINAÇÃO POR CURSOR (KEYSET)
+    // Primeira página: cursor vazio. Próximas: repetir a chamada (com os mesmos filtros)
+    // usando o valor de "next" da resposta.
+    @GetMapping(params = "cursor")
+    public CursorPageResponse<LoanSummary> getLoansByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long bookId,
+            @RequestParam(required = false) Boolean returned,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate) {
+
+        LoanCursor posicao = cursor.isBlank() ? LoanCursor.inicio() : LoanCursor.decodificar(cursor);
+        LoanFilter filtro = new LoanFilter(userId, bookId, returned, de, ate);
+
+        Slice<LoanSummary> fatia = loanService.listarPorCursor(filtro, posicao, limitarTamanho(size));
+
+        String proximo = null;
+        if (fatia.hasNext()) {
+            LoanSummary ultimo = fatia.getContent().get(fatia.getNumberOfElements() - 1);
+            proximo = LoanCursor.apos(ultimo).codificar();
+        }
+        return new CursorPageResponse<>(fatia.getContent(), fatia.getNumberOfElements(), fatia.hasNext(), proximo);
+    }
+
+    // GET /api/loans/export?format=ndjson|csv - EXPORTAR O HISTÓRICO (Apenas BIBLIOTECARIO)
+    // Mesmos filtros da listagem, sem limite de tamanho: as linhas saem direto da
+    // consulta (memória constante); gzip com Accept-Encoding: gzip
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('BIBLIOTECARIO')")
+    public ResponseEntity<StreamingResponseBody> exportLoans(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long bookId,
+            @RequestParam(required = false) Boolean returned,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        ExportService.Formato formato = ExportService.Formato.de(format);
+        LoanFilter filtro = new LoanFilter(userId, bookId, returned, de, ate);
+        return Exportacoes.resposta("emprestimos", formato, acceptEncoding,
+                saida -> exportService.exportarEmprestimos(filtro, formato, saida));
+    }
+
+    private static int limitarTamanho(int size) {
+        return Math.min(Math.max(size, 1), TAMANHO_MAXIMO_PAGINA);
     }
     
     // GET /api/loans/{id} - BUSCAR UM
     @GetMapping("/{id}")
-    public Loan getLoanById(@PathVariable Long id) {
-        return loanService.buscarPorId(id);
+    public LoanSummary getLoanById(@PathVariable Long id) {
+        return LoanSummary.de(loanService.buscarPorId(id));
     }
 
     // --- MUDANÇA: Classe auxiliar (DTO) para representar o JSON ---
@@ -50,18 +130,45 @@ public class LoanController {
     // Body esperado: { "bookId": 10, "userId": 1 }
     @PostMapping("/borrow")
     @PreAuthorize("hasAuthority('BIBLIOTECARIO')")
-    public ResponseEntity<Loan> borrowBook(@RequestBody LoanRequestDTO request) {
+    public ResponseEntity<LoanSummary> borrowBook(@RequestBody LoanRequestDTO request) {
         // Extrai os IDs de dentro do objeto request (JSON)
         Loan newLoan = loanService.emprestar(request.getBookId(), request.getUserId());
-        return new ResponseEntity<>(newLoan, HttpStatus.CREATED);
+        return new ResponseEntity<>(LoanSummary.de(newLoan), HttpStatus.CREATED);
+    }
+
+    // CRIAÇÃO EM LOTE: Endpoint para EMPRESTAR vários livros (Apenas BIBLIOTECARIO)
+    // POST /api/loans/borrow/batch
+    // Body esperado: { "atomico": false, "itens": [{ "bookId": 10, "userId": 1 }, ...] }
+    // 200 com o resultado de cada item; 409 se o lote atômico foi rejeitado (nada gravado)
+    @PostMapping("/borrow/batch")
+    @PreAuthorize("hasAuthority('BIBLIOTECARIO')")
+    public ResponseEntity<LoanBatchResponse> borrowBooksBatch(@RequestBody LoanBorrowBatchRequest request) {
+        LoanBatchResponse resultado = loanService.emprestarEmLote(request.getItens(), request.isAtomico());
+        return respostaDoLote(resultado);
+    }
+
+    // DEVOLUÇÃO EM LOTE: Endpoint para DEVOLVER vários empréstimos (Apenas BIBLIOTECARIO)
+    // PUT /api/loans/return/batch
+    // Body esperado: { "atomico": false, "loanIds": [1, 2, 3] }
+    // 200 com o resultado de cada item; 409 se o lote atômico foi rejeitado (nada gravado)
+    @PutMapping("/return/batch")
+    @PreAuthorize("hasAuthority('BIBLIOTECARIO')")
+    public ResponseEntity<LoanBatchResponse> returnBooksBatch(@RequestBody LoanReturnBatchRequest request) {
+        LoanBatchResponse resultado = loanService.devolverEmLote(request.getLoanIds(), request.isAtomico());
+        return respostaDoLote(resultado);
+    }
+
+    private ResponseEntity<LoanBatchResponse> respostaDoLote(LoanBatchResponse resultado) {
+        HttpStatus status = resultado.isConfirmado() ? HttpStatus.OK : HttpStatus.CONFLICT;
+        return new ResponseEntity<>(resultado, status);
     }
 
     // DEVOLUÇÃO: Endpoint para DEVOLVER um livro (Apenas BIBLIOTECARIO)
     // PUT /api/loans/{loanId}/return - DEVE VIR ANTES DE PUT /{loanId} PARA EVITAR CONFLITO
     @PutMapping("/{loanId}/return")
     @PreAuthorize("hasAuthority('BIBLIOTECARIO')")
-    public Loan returnBook(@PathVariable Long loanId) {
-        return loanService.devolver(loanId);
+    public LoanSummary returnBook(@PathVariable Long loanId) {
+        return LoanSummary.de(loanService.devolver(loanId));
     }
 
     // ATUALIZAÇÃO: Endpoint para EDITAR um empréstimo (Apenas BIBLIOTECARIO)
@@ -69,8 +176,8 @@ public class LoanController {
     // Body esperado: { "bookId": 10, "userId": 2 }
     @PutMapping("/{loanId}")
     @PreAuthorize("hasAuthority('BIBLIOTECARIO')")
-    public Loan updateLoan(@PathVariable Long loanId, @RequestBody LoanUpdateRequestDTO request) {
-        return loanService.atualizar(loanId, request.getBookId(), request.getUserId());
+    public LoanSummary updateLoan(@PathVariable Long loanId, @RequestBody LoanUpdateRequestDTO request) {
+        return LoanSummary.de(loanService.atualizar(loanId, request.getBookId(), request.getUserId()));
     }
 
     // EXCLUSÃO: Endpoint para DELETAR um empréstimo (Apenas BIBLIOTECARIO)
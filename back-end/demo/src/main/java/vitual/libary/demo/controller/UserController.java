@@ -4,10 +4,16 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import vitual.libary.demo.dto.UserImportResponse;
+import vitual.libary.demo.dto.UserResponse;
 import vitual.libary.demo.entity.User;
+import vitual.libary.demo.service.ExportService;
+import vitual.libary.demo.service.UserImportService;
 import vitual.libary.demo.service.UserService;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -15,38 +21,50 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final UserImportService userImportService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserImportService userImportService) {
         this.userService = userService;
+        this.userImportService = userImportService;
     }
 
     // POST /api/users - CREATE (Apenas BIBLIOTECARIO)
     @PostMapping
     @PreAuthorize("hasAuthority('BIBLIOTECARIO')")
-    public ResponseEntity<User> createUser(@Valid @RequestBody User user) {
+    public ResponseEntity<UserResponse> createUser(@Valid @RequestBody User user) {
         User savedUser = userService.salvar(user);
-        return new ResponseEntity<>(savedUser, HttpStatus.CREATED); // Status 201
+        return new ResponseEntity<>(UserResponse.de(savedUser), HttpStatus.CREATED); // Status 201
+    }
+
+    // POST /api/users/import?format=csv|ndjson - IMPORTAR EM LOTE (Apenas BIBLIOTECARIO)
+    // E-mails verificados por lote em uma consulta; BCrypt em paralelo; INSERTs em batch JDBC
+    @PostMapping("/import")
+    @PreAuthorize("hasAuthority('BIBLIOTECARIO')")
+    public UserImportResponse importUsers(@RequestParam(required = false) String format,
+                                          InputStream corpo) throws IOException {
+        return userImportService.importar(corpo, ExportService.Formato.de(format)); // Status 200
     }
 
     // GET /api/users - READ ALL (Apenas BIBLIOTECARIO)
+    // ?fields=id,nome limita os campos de cada usuário (sparse fieldset)
     @GetMapping
     @PreAuthorize("hasAuthority('BIBLIOTECARIO')")
-    public List<User> getAllUsers() {
-        return userService.listarTodos(); // Status 200
+    public List<UserResponse> getAllUsers() {
+        return userService.listarResumos(); // Status 200
     }
 
     // GET /api/users/{id} - READ ONE (Apenas BIBLIOTECARIO ou próprio usuário)
     @GetMapping("/{id}")
     @PreAuthorize("hasAuthority('BIBLIOTECARIO')")
-    public User getUserById(@PathVariable Long id) {
-        return userService.buscarPorId(id); // Status 200 ou 404
+    public UserResponse getUserById(@PathVariable Long id) {
+        return UserResponse.de(userService.buscarPorId(id)); // Status 200 ou 404
     }
 
     // PUT /api/users/{id} - UPDATE (Apenas BIBLIOTECARIO)
     @PutMapping("/{id}")
     @PreAuthorize("hasAuthority('BIBLIOTECARIO')")
-    public User updateUser(@PathVariable Long id, @Valid @RequestBody User userDetails) {
-        return userService.atualizar(id, userDetails); // Status 200 ou 404
+    public UserResponse updateUser(@PathVariable Long id, @Valid @RequestBody User userDetails) {
+        return UserResponse.de(userService.atualizar(id, userDetails)); // Status 200 ou 404
     }
 
     // DELETE /api/users/{id} - DELETE (Apenas BIBLIOTECARIO)
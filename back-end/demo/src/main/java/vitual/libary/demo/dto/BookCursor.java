@@ -0,0 +1,96 @@
+package vitual.libary.demo.dto;
+
+import vitual.libary.demo.entity.Book;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Posição na listagem de livros por cursor (keyset).
+ *
+ * Guarda a ordenação escolhida e a chave do último livro entregue. Para o
+ * cliente é um texto opaco (Base64 URL-safe) que deve ser devolvido no
+ * parâmetro cursor para obter a próxima página.
+ *
+ * @param ordenacao chave de ordenação da listagem
+ * @param id ID do último livro entregue (null na primeira página)
+ * @param titulo título do último livro entregue (apenas na ordenação por título)
+ */
+public record BookCursor(Ordenacao ordenacao, Long id, String titulo) {
+
+    private static final String SEPARADOR = "|";
+
+    /**
+     * Chaves de ordenação suportadas pela listagem por cursor.
+     */
+    public enum Ordenacao {
+        ID, TITULO;
+
+        /**
+         * @param valor valor do parâmetro sort (id ou titulo; vazio = id)
+         * @return ordenação correspondente
+         */
+        public static Ordenacao de(String valor) {
+            if (valor == null || valor.isBlank()) {
+                return ID;
+            }
+            try {
+                return valueOf(valor.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Ordenação inválida para cursor: " + valor);
+            }
+        }
+    }
+
+    /**
+     * @return true se o cursor aponta para o início da listagem
+     */
+    public boolean isInicio() {
+        return id == null;
+    }
+
+    /**
+     * Cursor da primeira página.
+     */
+    public static BookCursor inicio(Ordenacao ordenacao) {
+        return new BookCursor(ordenacao, null, null);
+    }
+
+    /**
+     * Cursor que continua a listagem logo após o livro informado.
+     */
+    public static BookCursor apos(Book book, Ordenacao ordenacao) {
+        return new BookCursor(ordenacao, book.getId(), ordenacao == Ordenacao.TITULO ? book.getTitulo() : null);
+    }
+
+    /**
+     * @return representação opaca para devolver ao cliente
+     */
+    public String codificar() {
+        String bruto = ordenacao.name() + SEPARADOR + id + (titulo != null ? SEPARADOR + titulo : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bruto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Lê o cursor recebido do cliente.
+     *
+     * @param valor texto opaco recebido no parâmetro cursor
+     * @return cursor decodificado
+     * @throws IllegalArgumentException se o cursor foi adulterado ou é inválido
+     */
+    public static BookCursor decodificar(String valor) {
+        try {
+            String bruto = new String(Base64.getUrlDecoder().decode(valor), StandardCharsets.UTF_8);
+            String[] partes = bruto.split("\\" + SEPARADOR, 3);
+            Ordenacao ordenacao = Ordenacao.valueOf(partes[0]);
+            Long id = Long.valueOf(partes[1]);
+            if (ordenacao == Ordenacao.TITULO) {
+                return new BookCursor(ordenacao, id, partes[2]);
+            }
+            return new BookCursor(ordenacao, id, null);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + valor);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package vitual.libary.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de uma importação do acervo: contagens, vazão e as linhas rejeitadas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportResponse {
+
+    private long linhas;
+    private long inseridos;
+    private long atualizados;
+    private long rejeitados;
+    private long duracaoMs;
+    private long linhasPorSegundo;
+    // Limitada a app.books.import.max-errors; "rejeitados" conta todas
+    private List<ErroLinha> erros;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ErroLinha {
+        // Linha do arquivo (a 1 é o cabeçalho no CSV)
+        private long linha;
+        private String isbn;
+        private String erro;
+    }
+}
@@ -0,0 +1,35 @@
+package vitual.libary.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import vitual.libary.demo.config.SparseFieldsetAdvice;
+import vitual.libary.demo.entity.Book;
+
+/**
+ * Livro como exposto pela API: os campos do cadastro e o estoque, sem a
+ * versão de controle de concorrência.
+ *
+ * Nas listagens é montado direto na consulta JPQL (SELECT new ...), sem
+ * carregar entidades; aceita ?fields= (SparseFieldsetAdvice).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonFilter(SparseFieldsetAdvice.FILTRO)
+public class BookResponse {
+
+    private Long id;
+    private String titulo;
+    private String autor;
+    private Integer anoPublicacao;
+    private String isbn;
+    private Integer quantidadeTotal;
+    private Integer quantidadeDisponivel;
+
+    public static BookResponse de(Book book) {
+        return new BookResponse(book.getId(), book.getTitulo(), book.getAutor(), book.getAnoPublicacao(),
+                book.getIsbn(), book.getQuantidadeTotal(), book.getQuantidadeDisponivel());
+    }
+}
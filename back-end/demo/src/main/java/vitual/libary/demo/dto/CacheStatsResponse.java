@@ -0,0 +1,21 @@
+package vitual.libary.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Estatísticas de um cache de entidades, expostas no endpoint administrativo.
+ */
+@Data
+@AllArgsConstructor
+public class CacheStatsResponse {
+
+    private String nome;
+    private long tamanho;
+    private long tamanhoMaximo;
+    private long ttlSegundos;
+    private long acertos;
+    private long faltas;
+    private double taxaAcerto;
+    private long remocoes;
+}
@@ -0,0 +1,21 @@
+package vitual.libary.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Resposta da listagem por cursor: os itens da página e o cursor opaco
+ * da próxima página (null quando não há mais itens). Não traz total de
+ * elementos, pois a consulta não executa COUNT(*).
+ */
+@Data
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String next;
+}
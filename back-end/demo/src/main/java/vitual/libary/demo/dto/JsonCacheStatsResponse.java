@@ -0,0 +1,23 @@
+package vitual.libary.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Estatísticas do cache de JSON pré-serializado, expostas no endpoint
+ * administrativo. Os tamanhos de memória estão em bytes.
+ */
+@Data
+@AllArgsConstructor
+public class JsonCacheStatsResponse {
+
+    private String nome;
+    private long tamanho;
+    private long bytes;
+    private long bytesMaximo;
+    private long ttlSegundos;
+    private long acertos;
+    private long faltas;
+    private double taxaAcerto;
+    private long remocoes;
+}
@@ -0,0 +1,35 @@
+package vitual.libary.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de uma operação em lote, item a item, na ordem do pedido.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanBatchResponse {
+
+    private boolean atomico;
+    // false quando um lote atômico foi rejeitado: nada foi gravado
+    private boolean confirmado;
+    private int sucessos;
+    private int falhas;
+    private List<ItemResultado> itens;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResultado {
+        private int indice;
+        private Long loanId;
+        private Long bookId;
+        private Long userId;
+        private boolean sucesso;
+        private String erro;
+    }
+}
@@ -0,0 +1,24 @@
+package vitual.libary.demo.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Empréstimo em lote: vários pares (livro, usuário) lidos no balcão.
+ *
+ * Com atomico = true o lote é tudo ou nada; caso contrário os itens
+ * válidos são gravados e os demais voltam com o motivo da falha.
+ */
+@Data
+public class LoanBorrowBatchRequest {
+
+    private boolean atomico;
+    private List<Item> itens;
+
+    @Data
+    public static class Item {
+        private Long bookId;
+        private Long userId;
+    }
+}
@@ -0,0 +1,64 @@
+package vitual.libary.demo.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posição na listagem de empréstimos por cursor (keyset), do mais recente
+ * para o mais antigo. Para o cliente é um texto opaco (Base64 URL-safe);
+ * os filtros não fazem parte do cursor e devem ser repetidos a cada página.
+ *
+ * @param id ID do último empréstimo entregue (null na primeira página)
+ */
+public record LoanCursor(Long id) {
+
+    private static final String PREFIXO = "L|";
+
+    /**
+     * @return true se o cursor aponta para o início da listagem
+     */
+    public boolean isInicio() {
+        return id == null;
+    }
+
+    /**
+     * Cursor da primeira página.
+     */
+    public static LoanCursor inicio() {
+        return new LoanCursor(null);
+    }
+
+    /**
+     * Cursor que continua a listagem logo após o empréstimo informado.
+     */
+    public static LoanCursor apos(LoanSummary emprestimo) {
+        return new LoanCursor(emprestimo.getId());
+    }
+
+    /**
+     * @return representação opaca para devolver ao cliente
+     */
+    public String codificar() {
+        String bruto = PREFIXO + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bruto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Lê o cursor recebido do cliente.
+     *
+     * @param valor texto opaco recebido no parâmetro cursor
+     * @return cursor decodificado
+     * @throws IllegalArgumentException se o cursor foi adulterado ou é inválido
+     */
+    public static LoanCursor decodificar(String valor) {
+        try {
+            String bruto = new String(Base64.getUrlDecoder().decode(valor), StandardCharsets.UTF_8);
+            if (!bruto.startsWith(PREFIXO)) {
+                throw new IllegalArgumentException();
+            }
+            return new LoanCursor(Long.valueOf(bruto.substring(PREFIXO.length())));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + valor);
+        }
+    }
+}
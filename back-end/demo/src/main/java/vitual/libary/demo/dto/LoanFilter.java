@@ -0,0 +1,19 @@
+package vitual.libary.demo.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Filtros opcionais da listagem de empréstimos (null = sem filtro).
+ *
+ * @param userId apenas empréstimos deste usuário
+ * @param bookId apenas empréstimos deste livro
+ * @param returned true = devolvidos, false = em aberto
+ * @param de data de empréstimo a partir de (inclusive)
+ * @param ate data de empréstimo até (inclusive)
+ */
+public record LoanFilter(Long userId, Long bookId, Boolean returned, LocalDate de, LocalDate ate) {
+
+    public static LoanFilter vazio() {
+        return new LoanFilter(null, null, null, null, null);
+    }
+}
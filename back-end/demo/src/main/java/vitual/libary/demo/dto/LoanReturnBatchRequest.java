@@ -0,0 +1,18 @@
+package vitual.libary.demo.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Devolução em lote de vários empréstimos.
+ *
+ * Com atomico = true o lote é tudo ou nada; caso contrário os itens
+ * válidos são gravados e os demais voltam com o motivo da falha.
+ */
+@Data
+public class LoanReturnBatchRequest {
+
+    private boolean atomico;
+    private List<Long> loanIds;
+}
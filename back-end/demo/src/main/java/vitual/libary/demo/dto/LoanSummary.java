@@ -0,0 +1,71 @@
+package vitual.libary.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import vitual.libary.demo.config.SparseFieldsetAdvice;
+import vitual.libary.demo.entity.Book;
+import vitual.libary.demo.entity.Loan;
+import vitual.libary.demo.entity.User;
+
+import java.time.LocalDate;
+
+/**
+ * Resumo de um empréstimo para listagens: só os campos exibidos, com
+ * referências compactas ao livro e ao usuário (sem senha, sem estoque).
+ *
+ * Montado direto na consulta JPQL (SELECT new ...), sem carregar entidades.
+ * Também é a resposta das operações sobre um empréstimo (de(Loan)); aceita
+ * ?fields= (SparseFieldsetAdvice).
+ */
+@Data
+@NoArgsConstructor
+@JsonFilter(SparseFieldsetAdvice.FILTRO)
+public class LoanSummary {
+
+    private Long id;
+    private LocalDate loanDate;
+    private LocalDate returnDate;
+    private boolean returned;
+    private BookRef book;
+    private UserRef user;
+
+    public LoanSummary(Long id, LocalDate loanDate, LocalDate returnDate, boolean returned,
+                       Long bookId, String titulo, String autor, String isbn,
+                       Long userId, String nome, String email) {
+        this.id = id;
+        this.loanDate = loanDate;
+        this.returnDate = returnDate;
+        this.returned = returned;
+        this.book = new BookRef(bookId, titulo, autor, isbn);
+        this.user = new UserRef(userId, nome, email);
+    }
+
+    public static LoanSummary de(Loan loan) {
+        Book book = loan.getBook();
+        User user = loan.getUser();
+        return new LoanSummary(loan.getId(), loan.getLoanDate(), loan.getReturnDate(), loan.isReturned(),
+                book.getId(), book.getTitulo(), book.getAutor(), book.getIsbn(),
+                user.getId(), user.getNome(), user.getEmail());
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BookRef {
+        private Long id;
+        private String titulo;
+        private String autor;
+        private String isbn;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class UserRef {
+        private Long id;
+        private String nome;
+        private String email;
+    }
+}
@@ -0,0 +1,21 @@
+package vitual.libary.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Contadores de conflitos de versão e novas tentativas das operações de empréstimo.
+ */
+@Data
+@AllArgsConstructor
+public class RetryStatsResponse {
+
+    // Execuções de operações com retry
+    private long operacoes;
+    // Falhas por conflito de versão (cada tentativa conta)
+    private long conflitos;
+    // Tentativas extras após uma falha
+    private long novasTentativas;
+    // Operações que falharam por conflito mesmo após todas as tentativas
+    private long esgotadas;
+}
@@ -0,0 +1,21 @@
+package vitual.libary.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Estatísticas de uma região do cache de segundo nível do Hibernate,
+ * expostas no endpoint administrativo.
+ */
+@Data
+@AllArgsConstructor
+public class SecondLevelCacheStatsResponse {
+
+    private String regiao;
+    private long tamanhoMaximo;
+    private long ttlSegundos;
+    private long acertos;
+    private long faltas;
+    private long insercoes;
+    private double taxaAcerto;
+}
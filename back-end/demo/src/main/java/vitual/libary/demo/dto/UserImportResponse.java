@@ -0,0 +1,34 @@
+package vitual.libary.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de uma importação de usuários: contagens, vazão e as linhas rejeitadas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportResponse {
+
+    private long linhas;
+    private long inseridos;
+    private long rejeitados;
+    private long duracaoMs;
+    private long linhasPorSegundo;
+    // Limitada a app.users.import.max-errors; "rejeitados" conta todas
+    private List<ErroLinha> erros;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ErroLinha {
+        // Linha do arquivo (a 1 é o cabeçalho no CSV)
+        private long linha;
+        private String email;
+        private String erro;
+    }
+}
@@ -0,0 +1,30 @@
+package vitual.libary.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import vitual.libary.demo.config.SparseFieldsetAdvice;
+import vitual.libary.demo.entity.User;
+
+/**
+ * Usuário como exposto pela API (nunca inclui a senha).
+ *
+ * Na listagem é montado direto na consulta JPQL (SELECT new ...);
+ * aceita ?fields= (SparseFieldsetAdvice).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonFilter(SparseFieldsetAdvice.FILTRO)
+public class UserResponse {
+
+    private Long id;
+    private String nome;
+    private String email;
+    private String role;
+
+    public static UserResponse de(User user) {
+        return new UserResponse(user.getId(), user.getNome(), user.getEmail(), user.getRole());
+    }
+}
@@ -6,15 +6,25 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Min;
 import lombok.Data; 
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import vitual.libary.demo.cache.SecondLevelCacheRegistry;
 
 @Entity
 @Table(name = "books")
+// READ_WRITE: o estoque muda a cada empréstimo; o soft lock impede que uma leitura
+// concorrente ponha no cache o valor anterior enquanto a escrita não é confirmada.
+// Os UPDATEs de estoque via JDBC removem o livro do cache (BookStockBatchRepository).
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheRegistry.LIVROS)
 @Data
 @NoArgsConstructor
 public class Book {
 
+    // Sequência com blocos de 50 IDs (pooled-lo): permite INSERTs em batch JDBC (V5)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "O título é obrigatório.")
@@ -38,4 +48,27 @@ public class Book {
     @Min(value = 0, message = "A quantidade disponível não pode ser negativa.")
     @Column(nullable = false)
     private Integer quantidadeDisponivel = 0;
+
+    // Controle de concorrência otimista: incrementado a cada escrita
+    @Version
+    private Long version;
+
+    /**
+     * Cria uma cópia desacoplada do livro, útil para guardar snapshots
+     * fora do contexto de persistência (índice de busca, caches).
+     *
+     * @return nova instância com os mesmos valores
+     */
+    public Book copiar() {
+        Book copia = new Book();
+        copia.setId(id);
+        copia.setTitulo(titulo);
+        copia.setAutor(autor);
+        copia.setAnoPublicacao(anoPublicacao);
+        copia.setIsbn(isbn);
+        copia.setQuantidadeTotal(quantidadeTotal);
+        copia.setQuantidadeDisponivel(quantidadeDisponivel);
+        copia.setVersion(version);
+        return copia;
+    }
 }
\ No newline at end of file
@@ -31,4 +31,9 @@ public class Loan {
     private LocalDate returnDate; // Data de devolução
 
     private boolean returned = false;
+
+    // Controle de concorrência otimista: duas devoluções simultâneas do mesmo
+    // empréstimo não podem ser gravadas as duas
+    @Version
+    private Long version;
 }
\ No newline at end of file
@@ -1,19 +1,31 @@
 package vitual.libary.demo.entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import vitual.libary.demo.cache.SecondLevelCacheRegistry;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Email;
 
 @Entity
 @Table(name = "users")
+// Usuários mudam raramente: NONSTRICT_READ_WRITE (remove do cache após o commit, sem soft lock)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = SecondLevelCacheRegistry.USUARIOS)
+@NaturalIdCache(region = SecondLevelCacheRegistry.USUARIOS_POR_EMAIL)
 @Data
 @NoArgsConstructor
 public class User {
 
+    // Sequência com blocos de 50 IDs (pooled-lo), como Book: INSERTs em batch na importação (V6)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "O nome é obrigatório.")
@@ -21,10 +33,13 @@ public class User {
 
     @NotBlank(message = "O email é obrigatório.")
     @Email(message = "Email inválido.")
+    @NaturalId(mutable = true)
     @Column(unique = true)
     private String email;
 
+    // Aceita na entrada (cadastro, atualização), nunca sai em uma resposta JSON
     @NotBlank(message = "A senha é obrigatória.")
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String senha;
 
     @Column(name = "role", nullable = false)
@@ -34,4 +49,20 @@ public class User {
     // Não é estritamente necessário para esta fase, mas é bom para consistência
     // @OneToMany(mappedBy = "user", cascade = CascadeType.ALL)
     // private List<Loan> loans;
+
+    /**
+     * Cria uma cópia desacoplada do usuário, útil para guardar snapshots
+     * fora do contexto de persistência (caches).
+     *
+     * @return nova instância com os mesmos valores
+     */
+    public User copiar() {
+        User copia = new User();
+        copia.setId(id);
+        copia.setNome(nome);
+        copia.setEmail(email);
+        copia.setSenha(senha);
+        copia.setRole(role);
+        return copia;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package vitual.libary.demo.exception;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Nenhuma conexão com o banco ficou livre dentro do tempo de espera da
+ * admissão (app.datasource.admission.timeout). Respondida com 503.
+ */
+public class ConnectionAdmissionTimeoutException extends SQLTransientConnectionException {
+    public ConnectionAdmissionTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -1,19 +1,142 @@
 package vitual.libary.demo.repository;
 
+import vitual.libary.demo.dto.BookResponse;
 import vitual.libary.demo.entity.Book;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Com réplicas de leitura (ReadReplicaConfig), as consultas somente leitura
+ * podem ir a uma réplica atrasada; por isso as listagens não alimentam o
+ * cache de segundo nível, e findById, que alimenta os caches, lê do primário.
+ */
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookRepositoryCustom {
+
+    /**
+     * Sempre no primário (transação de escrita): o livro lido vai para o cache de
+     * entidades e para o de segundo nível, e uma réplica atrasada poria de volta
+     * neles um estoque que o último commit acabou de invalidar.
+     */
+    @Override
+    @Transactional
+    Optional<Book> findById(Long id);
+
+    @Override
+    @QueryHints(@QueryHint(name = "jakarta.persistence.cache.storeMode", value = "BYPASS"))
+    List<Book> findAll();
+
+    @Override
+    @QueryHints(@QueryHint(name = "jakarta.persistence.cache.storeMode", value = "BYPASS"))
+    Page<Book> findAll(Pageable pageable);
+
+    @Override
+    @QueryHints(@QueryHint(name = "jakarta.persistence.cache.storeMode", value = "BYPASS"))
+    List<Book> findAllById(Iterable<Long> ids);
     
     /**
-     * Busca livros pelo título contendo a string fornecida (case-insensitive)
+     * Livros com os ISBNs informados, em ordem de ID (upsert da importação).
+     * Na transação de escrita da importação: lê do primário.
+     * @param isbns ISBNs procurados
+     * @return livros encontrados; um ISBN pode aparecer em mais de um livro
+     */
+    List<Book> findByIsbnInOrderByIdAsc(Collection<String> isbns);
+
+    /**
+     * Busca livros pelo título contendo a string fornecida (case-insensitive).
+     * Fallback da busca enquanto o índice em memória não está pronto; a
+     * transação somente leitura é aberta aqui, e não no BookService, para que
+     * as buscas respondidas pelo índice não peguem conexão.
      * @param titulo parte do título a buscar
      * @param pageable informações de paginação e ordenação
      * @return página com livros encontrados
      */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.cache.storeMode", value = "BYPASS"))
     Page<Book> findByTituloContainingIgnoreCase(String titulo, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Página do acervo já como resposta da API: seleciona só as colunas
+     * expostas, sem carregar entidades no contexto de persistência.
+     * @param pageable página e tamanho
+     * @return livros ordenados por ID
+     */
+    @Query(value = "SELECT new vitual.libary.demo.dto.BookResponse(b.id, b.titulo, b.autor, b.anoPublicacao, "
+            + "b.isbn, b.quantidadeTotal, b.quantidadeDisponivel) FROM Book b ORDER BY b.id",
+            countQuery = "SELECT count(b) FROM Book b")
+    Page<BookResponse> listarResumos(Pageable pageable);
+
+    /**
+     * Acervo inteiro como resposta da API, em ordem de ID, para a exportação.
+     * O Hibernate percorre o resultado com um cursor só de avanço, buscando
+     * 1000 linhas por vez: a memória não cresce com o tamanho da tabela.
+     * Deve ser consumido dentro de uma transação e fechado ao final.
+     * @return livros ordenados por ID
+     */
+    @Query("SELECT new vitual.libary.demo.dto.BookResponse(b.id, b.titulo, b.autor, b.anoPublicacao, "
+            + "b.isbn, b.quantidadeTotal, b.quantidadeDisponivel) FROM Book b ORDER BY b.id")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<BookResponse> percorrerResumos();
+
+    /**
+     * Lê os livros com ID maior que o informado, em ordem crescente de ID (keyset).
+     * Retorna Slice para não executar COUNT(*). Não alimenta o cache de segundo
+     * nível: a varredura completa (reconstrução do índice de busca) expulsaria
+     * dele os livros realmente consultados.
+     * @param id último ID já lido (0 para começar do início)
+     * @param pageable tamanho do lote (a página deve ser sempre 0)
+     * @return lote de livros
+     */
+    @QueryHints(@QueryHint(name = "jakarta.persistence.cache.storeMode", value = "BYPASS"))
+    Slice<Book> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Primeira página da listagem por cursor ordenada por título (keyset).
+     * @param pageable tamanho da página (a página deve ser sempre 0)
+     * @return livros ordenados por título e ID
+     */
+    @QueryHints(@QueryHint(name = "jakarta.persistence.cache.storeMode", value = "BYPASS"))
+    Slice<Book> findAllByOrderByTituloAscIdAsc(Pageable pageable);
+
+    /**
+     * Próxima página da listagem por cursor ordenada por título (keyset):
+     * continua a partir do par (título, ID) do último livro já entregue.
+     * A comparação de linha (titulo, id) &gt; (:titulo, :id) é atendida pelo
+     * índice idx_books_titulo_id (V7) como uma única faixa: o banco posiciona
+     * no par e lê em ordem, sem ordenar (com OR, cairia em varredura).
+     * @param titulo título do último livro lido
+     * @param id ID do último livro lido (desempate entre títulos iguais)
+     * @param pageable tamanho da página (a página deve ser sempre 0)
+     * @return livros seguintes ordenados por título e ID
+     */
+    @Query("SELECT b FROM Book b WHERE (b.titulo, b.id) > (:titulo, :id) ORDER BY b.titulo ASC, b.id ASC")
+    @QueryHints(@QueryHint(name = "jakarta.persistence.cache.storeMode", value = "BYPASS"))
+    Slice<Book> buscarAposTitulo(@Param("titulo") String titulo, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Lê o livro direto do banco, sem consultar nem alimentar o cache de
+     * segundo nível: usado logo após um UPDATE de estoque via JDBC, ainda
+     * dentro da transação, para não pôr no cache um valor não confirmado.
+     * @param id ID do livro
+     * @return livro com o estoque atual
+     */
+    @Query("SELECT b FROM Book b WHERE b.id = :id")
+    @QueryHints({
+            @QueryHint(name = "jakarta.persistence.cache.retrieveMode", value = "BYPASS"),
+            @QueryHint(name = "jakarta.persistence.cache.storeMode", value = "BYPASS")
+    })
+    Optional<Book> buscarSemCache(@Param("id") Long id);
+}
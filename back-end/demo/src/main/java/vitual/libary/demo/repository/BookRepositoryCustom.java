@@ -0,0 +1,21 @@
+package vitual.libary.demo.repository;
+
+import vitual.libary.demo.entity.Book;
+
+import java.util.List;
+
+/**
+ * Gravação de livros que usa a API do Hibernate diretamente.
+ */
+public interface BookRepositoryCustom {
+
+    /**
+     * Insere os livros novos em batches JDBC, sem passar pelo cache de segundo
+     * nível (uma importação grande expulsaria dele os livros realmente consultados).
+     * Deve ser chamado dentro de uma transação; os IDs vêm da sequência books_seq.
+     *
+     * @param livros livros sem ID
+     * @param tamanhoBatch INSERTs por batch JDBC
+     */
+    void inserirEmLote(List<Book> livros, int tamanhoBatch);
+}
@@ -0,0 +1,40 @@
+package vitual.libary.demo.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import vitual.libary.demo.entity.Book;
+
+import java.util.List;
+
+/**
+ * Implementação da inserção em lote de livros.
+ *
+ * Com IDs de sequência em blocos (pooled-lo) o Hibernate conhece o ID antes do
+ * INSERT e pode agrupá-los; o tamanho do batch e o modo de cache são ajustados
+ * só durante o flush destes livros e depois restaurados na Session.
+ */
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void inserirEmLote(List<Book> livros, int tamanhoBatch) {
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode modoAnterior = session.getCacheMode();
+        Integer batchAnterior = session.getJdbcBatchSize();
+        session.setCacheMode(CacheMode.IGNORE);
+        session.setJdbcBatchSize(tamanhoBatch);
+        try {
+            for (Book livro : livros) {
+                session.persist(livro);
+            }
+            session.flush();
+        } finally {
+            session.setCacheMode(modoAnterior);
+            session.setJdbcBatchSize(batchAnterior);
+        }
+    }
+}
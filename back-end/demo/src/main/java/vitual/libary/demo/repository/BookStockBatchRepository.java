@@ -0,0 +1,159 @@
+package vitual.libary.demo.repository;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vitual.libary.demo.entity.Book;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Alterações de estoque via JDBC: UPDATEs condicionais (individuais ou em um
+ * único batch), na mesma conexão e transação do JPA.
+ *
+ * Um UPDATE em massa do JPQL faria o Hibernate esvaziar toda a região de
+ * livros do cache de segundo nível a cada empréstimo; aqui só os livros
+ * alterados são removidos do cache, logo após o UPDATE e de novo ao fim da
+ * transação (commit ou rollback), para descartar um valor antigo que outra
+ * transação tenha posto no cache nesse intervalo.
+ *
+ * O resultado de cada posição do batch depende da contagem de linhas que o
+ * driver informa. Se ele responder SUCCESS_NO_INFO, não há como saber se a
+ * condição do UPDATE valeu: o batch falha (a transação é desfeita e nada é
+ * dado como reservado) e as chamadas seguintes usam um UPDATE por item.
+ */
+@Repository
+public class BookStockBatchRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(BookStockBatchRepository.class);
+
+    private static final String DECREMENTAR =
+            "UPDATE books SET quantidade_disponivel = quantidade_disponivel - 1, version = version + 1 "
+                    + "WHERE id = ? AND quantidade_disponivel > 0";
+
+    private static final String INCREMENTAR =
+            "UPDATE books SET quantidade_disponivel = quantidade_disponivel + 1, version = version + 1 "
+                    + "WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    // false depois que o driver respondeu um batch sem a contagem por instrução
+    private volatile boolean contagemNoBatch = true;
+
+    public BookStockBatchRepository(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Retira um exemplar do estoque em um único UPDATE condicional.
+     * A condição (disponível > 0) é avaliada pelo banco junto com a escrita,
+     * então empréstimos concorrentes nunca deixam o estoque negativo.
+     * A versão do livro também é incrementada, para que uma edição concorrente
+     * feita a partir de uma leitura anterior falhe em vez de sobrescrever o estoque.
+     * @param bookId ID do livro
+     * @return 1 se o exemplar foi reservado; 0 se o livro não existe ou está esgotado
+     */
+    public int decrementarDisponivel(Long bookId) {
+        return executar(DECREMENTAR, bookId);
+    }
+
+    /**
+     * Devolve um exemplar ao estoque em um único UPDATE.
+     * @param bookId ID do livro
+     * @return 1 se o estoque foi atualizado; 0 se o livro não existe
+     */
+    public int incrementarDisponivel(Long bookId) {
+        return executar(INCREMENTAR, bookId);
+    }
+
+    /**
+     * Retira um exemplar de cada livro informado (um UPDATE por posição da lista).
+     * @param bookIds IDs dos livros, repetidos se mais de um exemplar for retirado
+     * @return para cada posição, true se o exemplar foi reservado
+     * @throws IncorrectUpdateSemanticsDataAccessException se o driver não informou a contagem
+     */
+    public boolean[] decrementarDisponivel(List<Long> bookIds) {
+        return executar(DECREMENTAR, bookIds);
+    }
+
+    /**
+     * Devolve um exemplar de cada livro informado (um UPDATE por posição da lista).
+     * @param bookIds IDs dos livros, repetidos se mais de um exemplar for devolvido
+     * @return para cada posição, true se o estoque foi atualizado
+     * @throws IncorrectUpdateSemanticsDataAccessException se o driver não informou a contagem
+     */
+    public boolean[] incrementarDisponivel(List<Long> bookIds) {
+        return executar(INCREMENTAR, bookIds);
+    }
+
+    private int executar(String sql, Long bookId) {
+        int alterados = jdbcTemplate.update(sql, bookId);
+        if (alterados > 0) {
+            removerDoCache(Set.of(bookId));
+        }
+        return alterados;
+    }
+
+    private boolean[] executar(String sql, List<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return new boolean[0];
+        }
+        boolean[] resultado = new boolean[bookIds.size()];
+        if (!contagemNoBatch) {
+            for (int i = 0; i < bookIds.size(); i++) {
+                resultado[i] = jdbcTemplate.update(sql, bookIds.get(i)) > 0;
+            }
+            removerDoCache(new LinkedHashSet<>(bookIds));
+            return resultado;
+        }
+
+        List<Object[]> parametros = new ArrayList<>(bookIds.size());
+        for (Long id : bookIds) {
+            parametros.add(new Object[]{id});
+        }
+
+        int[] contagens = jdbcTemplate.batchUpdate(sql, parametros);
+        removerDoCache(new LinkedHashSet<>(bookIds));
+        for (int i = 0; i < contagens.length; i++) {
+            if (contagens[i] == Statement.SUCCESS_NO_INFO) {
+                // Sem a contagem, o UPDATE pode ter sido barrado pela condição (estoque esgotado)
+                contagemNoBatch = false;
+                log.warn("O driver JDBC não informa a contagem de linhas do batch; "
+                        + "as alterações de estoque passam a usar um UPDATE por item");
+                throw new IncorrectUpdateSemanticsDataAccessException(
+                        "Contagem de linhas desconhecida no batch de estoque; operação desfeita");
+            }
+            resultado[i] = contagens[i] > 0;
+        }
+        return resultado;
+    }
+
+    /**
+     * Remove os livros do cache de segundo nível agora e ao fim da transação.
+     */
+    private void removerDoCache(Set<Long> bookIds) {
+        Cache cache = entityManagerFactory.getCache();
+        bookIds.forEach(id -> cache.evict(Book.class, id));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    bookIds.forEach(id -> cache.evict(Book.class, id));
+                }
+            });
+        }
+    }
+}
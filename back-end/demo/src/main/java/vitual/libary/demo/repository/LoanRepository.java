@@ -1,12 +1,46 @@
 package vitual.libary.demo.repository;
 
 import vitual.libary.demo.entity.Loan;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import java.util.Optional;
+
+import java.util.Collection;
+import java.util.List;
 
 @Repository
-public interface LoanRepository extends JpaRepository<Loan, Long> {
-    
-    Optional<Loan> findByBookIdAndReturnedFalse(Long bookId);
+public interface LoanRepository extends JpaRepository<Loan, Long>, LoanRepositoryCustom {
+
+    /**
+     * Se o livro tem empréstimo em aberto (executado em todo empréstimo).
+     * Consulta explícita para filtrar pela coluna loans.book_id, sem JOIN com
+     * books, e com "returned = false" igual ao predicado do índice parcial
+     * idx_loans_livro_em_aberto; a versão derivada do nome fazia LEFT JOIN e
+     * filtrava por books.id, o que impedia o uso do índice. Conta em vez de
+     * carregar o empréstimo: não falha se houver mais de uma linha.
+     * @param bookId ID do livro
+     * @return true se há empréstimo não devolvido do livro
+     */
+    @Query("SELECT CASE WHEN COUNT(l) > 0 THEN true ELSE false END FROM Loan l "
+            + "WHERE l.book.id = :bookId AND l.returned = false")
+    boolean existeEmprestimoAberto(@Param("bookId") Long bookId);
+
+    /**
+     * Quais dos livros informados têm empréstimo em aberto (uma consulta,
+     * sem carregar os empréstimos).
+     * @param bookIds IDs dos livros
+     * @return IDs dos livros com empréstimo ainda não devolvido
+     */
+    @Query("SELECT DISTINCT l.book.id FROM Loan l WHERE l.book.id IN :bookIds AND l.returned = false")
+    List<Long> buscarLivrosComEmprestimoAberto(@Param("bookIds") Collection<Long> bookIds);
+
+    /**
+     * Carrega vários empréstimos com livro e usuário em uma única consulta (JOIN).
+     * @param ids IDs dos empréstimos
+     * @return empréstimos encontrados
+     */
+    @EntityGraph(attributePaths = {"book", "user"})
+    List<Loan> findByIdIn(Collection<Long> ids);
 }
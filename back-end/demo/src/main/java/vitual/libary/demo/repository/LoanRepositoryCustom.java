@@ -0,0 +1,44 @@
+package vitual.libary.demo.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import vitual.libary.demo.dto.LoanFilter;
+import vitual.libary.demo.dto.LoanSummary;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Consultas de listagem de empréstimos com filtros opcionais, montadas
+ * dinamicamente (implementação em LoanRepositoryCustomImpl).
+ */
+public interface LoanRepositoryCustom {
+
+    /**
+     * Página de resumos de empréstimos, do mais recente para o mais antigo.
+     * O COUNT(*) só é executado quando o total não pode ser deduzido da página.
+     * @param filtro filtros opcionais
+     * @param pageable página e tamanho (a ordenação é sempre por ID decrescente)
+     * @return página de resumos
+     */
+    Page<LoanSummary> buscarResumos(LoanFilter filtro, Pageable pageable);
+
+    /**
+     * Resumos de empréstimos com ID menor que o informado (keyset), do mais
+     * recente para o mais antigo, sem OFFSET e sem COUNT(*).
+     * @param filtro filtros opcionais
+     * @param antesDoId ID do último empréstimo já entregue (null para começar do início)
+     * @param limite quantidade máxima de resultados
+     * @return resumos encontrados
+     */
+    List<LoanSummary> buscarResumosAntesDe(LoanFilter filtro, Long antesDoId, int limite);
+
+    /**
+     * Todos os resumos de empréstimos que atendem aos filtros, do mais recente
+     * para o mais antigo, lidos aos poucos por um cursor só de avanço (exportação).
+     * Deve ser consumido dentro de uma transação e fechado ao final.
+     * @param filtro filtros opcionais
+     * @return resumos, sem limite de quantidade
+     */
+    Stream<LoanSummary> percorrerResumos(LoanFilter filtro);
+}
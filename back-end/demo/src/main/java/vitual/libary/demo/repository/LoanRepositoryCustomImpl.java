@@ -0,0 +1,128 @@
+package vitual.libary.demo.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import vitual.libary.demo.dto.LoanFilter;
+import vitual.libary.demo.dto.LoanSummary;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Implementação das listagens de empréstimos.
+ *
+ * A consulta traz livro e usuário por JOIN em uma única instrução e projeta
+ * direto no LoanSummary, sem instanciar entidades (sem N+1 e sem senha).
+ * Só os filtros informados entram no WHERE, para que o banco possa usar os
+ * índices de cada combinação em vez de um plano genérico com "OR IS NULL".
+ */
+public class LoanRepositoryCustomImpl implements LoanRepositoryCustom {
+
+    private static final String SELECAO_RESUMO = "SELECT new vitual.libary.demo.dto.LoanSummary("
+            + "l.id, l.loanDate, l.returnDate, l.returned, "
+            + "b.id, b.titulo, b.autor, b.isbn, "
+            + "u.id, u.nome, u.email) "
+            + "FROM Loan l JOIN l.book b JOIN l.user u";
+
+    private static final String ORDENACAO = " ORDER BY l.id DESC";
+
+    // Linhas buscadas por ida ao banco na exportação (no PostgreSQL só vale dentro de transação)
+    private static final int TAMANHO_LOTE_EXPORTACAO = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<LoanSummary> buscarResumos(LoanFilter filtro, Pageable pageable) {
+        Condicoes condicoes = new Condicoes(filtro);
+
+        TypedQuery<LoanSummary> consulta = entityManager.createQuery(
+                SELECAO_RESUMO + condicoes.where() + ORDENACAO, LoanSummary.class);
+        condicoes.aplicar(consulta);
+        consulta.setFirstResult((int) pageable.getOffset());
+        consulta.setMaxResults(pageable.getPageSize());
+
+        return PageableExecutionUtils.getPage(consulta.getResultList(), pageable, () -> {
+            TypedQuery<Long> contagem = entityManager.createQuery(
+                    "SELECT COUNT(l) FROM Loan l" + condicoes.where(), Long.class);
+            condicoes.aplicar(contagem);
+            return contagem.getSingleResult();
+        });
+    }
+
+    @Override
+    public List<LoanSummary> buscarResumosAntesDe(LoanFilter filtro, Long antesDoId, int limite) {
+        Condicoes condicoes = new Condicoes(filtro);
+        if (antesDoId != null) {
+            condicoes.adicionar("l.id < :antesDoId", "antesDoId", antesDoId);
+        }
+
+        TypedQuery<LoanSummary> consulta = entityManager.createQuery(
+                SELECAO_RESUMO + condicoes.where() + ORDENACAO, LoanSummary.class);
+        condicoes.aplicar(consulta);
+        consulta.setMaxResults(limite);
+        return consulta.getResultList();
+    }
+
+    @Override
+    public Stream<LoanSummary> percorrerResumos(LoanFilter filtro) {
+        Condicoes condicoes = new Condicoes(filtro);
+
+        TypedQuery<LoanSummary> consulta = entityManager.createQuery(
+                SELECAO_RESUMO + condicoes.where() + ORDENACAO, LoanSummary.class);
+        condicoes.aplicar(consulta);
+        consulta.setHint("org.hibernate.fetchSize", TAMANHO_LOTE_EXPORTACAO);
+        return consulta.getResultStream();
+    }
+
+    /**
+     * Cláusulas e parâmetros do WHERE, apenas para os filtros presentes.
+     * Usa l.user.id / l.book.id (colunas de chave estrangeira), então o
+     * COUNT não precisa de JOIN.
+     */
+    private static final class Condicoes {
+
+        private final StringBuilder clausulas = new StringBuilder();
+        private final Map<String, Object> parametros = new LinkedHashMap<>();
+
+        Condicoes(LoanFilter filtro) {
+            if (filtro == null) {
+                return;
+            }
+            if (filtro.userId() != null) {
+                adicionar("l.user.id = :userId", "userId", filtro.userId());
+            }
+            if (filtro.bookId() != null) {
+                adicionar("l.book.id = :bookId", "bookId", filtro.bookId());
+            }
+            if (filtro.returned() != null) {
+                adicionar("l.returned = :returned", "returned", filtro.returned());
+            }
+            if (filtro.de() != null) {
+                adicionar("l.loanDate >= :de", "de", filtro.de());
+            }
+            if (filtro.ate() != null) {
+                adicionar("l.loanDate <= :ate", "ate", filtro.ate());
+            }
+        }
+
+        void adicionar(String clausula, String nome, Object valor) {
+            clausulas.append(clausulas.isEmpty() ? " WHERE " : " AND ").append(clausula);
+            parametros.put(nome, valor);
+        }
+
+        String where() {
+            return clausulas.toString();
+        }
+
+        void aplicar(TypedQuery<?> consulta) {
+            parametros.forEach(consulta::setParameter);
+        }
+    }
+}
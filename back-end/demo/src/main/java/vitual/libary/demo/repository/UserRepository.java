@@ -1,12 +1,80 @@
 package vitual.libary.demo.repository;
 
+import vitual.libary.demo.dto.UserResponse;
 import vitual.libary.demo.entity.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+/**
+ * Como em BookRepository: com réplicas de leitura, findById lê do primário e as
+ * demais consultas não alimentam o cache de segundo nível.
+ */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
-}
\ No newline at end of file
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+
+    /**
+     * Sempre no primário: o usuário lido vai para os caches (entidades e segundo nível).
+     */
+    @Override
+    @Transactional
+    Optional<User> findById(Long id);
+
+    /**
+     * Lê o usuário direto do primário, sem passar pelo cache de segundo nível
+     * (nem alimentá-lo). Os caches só são invalidados no nó que fez a alteração;
+     * esta leitura enxerga na hora uma role trocada ou uma remoção feita em outro nó.
+     */
+    @Transactional
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    @QueryHints({
+            @QueryHint(name = "jakarta.persistence.cache.retrieveMode", value = "BYPASS"),
+            @QueryHint(name = "jakarta.persistence.cache.storeMode", value = "BYPASS")
+    })
+    Optional<User> buscarSemCache(@Param("id") Long id);
+
+    @Override
+    @QueryHints(@QueryHint(name = "jakarta.persistence.cache.storeMode", value = "BYPASS"))
+    List<User> findAll();
+
+    @Override
+    @QueryHints(@QueryHint(name = "jakarta.persistence.cache.storeMode", value = "BYPASS"))
+    List<User> findAllById(Iterable<Long> ids);
+
+    /**
+     * Todos os usuários já como resposta da API: seleciona só as colunas
+     * expostas (sem a senha), sem carregar entidades.
+     * @return usuários ordenados por ID
+     */
+    @Query("SELECT new vitual.libary.demo.dto.UserResponse(u.id, u.nome, u.email, u.role) FROM User u ORDER BY u.id")
+    List<UserResponse> listarResumos();
+
+    /**
+     * Busca por e-mail sem diferenciar maiúsculas de minúsculas (sempre vai ao
+     * banco; para o e-mail exato, prefira buscarPorEmailExato, que usa o cache).
+     * A comparação por lower(email) usa o índice idx_users_email_lower no PostgreSQL,
+     * único desde a V8 (no H2, a coluna gerada email_minusculo): dois cadastros
+     * que diferem só em maiúsculas são recusados, e a busca devolve no máximo um.
+     */
+    @Query("SELECT u FROM User u WHERE lower(u.email) = lower(:email)")
+    @QueryHints(@QueryHint(name = "jakarta.persistence.cache.storeMode", value = "BYPASS"))
+    Optional<User> findByEmail(@Param("email") String email);
+
+    /**
+     * Quais destes e-mails já estão cadastrados, em uma única consulta
+     * (comparação sem diferenciar maiúsculas, pelo índice idx_users_email_lower).
+     *
+     * @param emails e-mails em minúsculas
+     * @return os e-mails já cadastrados, em minúsculas
+     */
+    @Query("SELECT lower(u.email) FROM User u WHERE lower(u.email) IN :emails")
+    List<String> buscarEmailsCadastrados(@Param("emails") Collection<String> emails);
+}
@@ -0,0 +1,31 @@
+package vitual.libary.demo.repository;
+
+import vitual.libary.demo.entity.User;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Consultas e gravações de usuários que usam a API do Hibernate diretamente.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Busca pelo e-mail exato (natural id), passando pelo cache de segundo
+     * nível: e-mail -> ID na região users-email e a entidade na região users.
+     *
+     * @param email e-mail exatamente como cadastrado
+     * @return usuário, se existir
+     */
+    Optional<User> buscarPorEmailExato(String email);
+
+    /**
+     * Insere os usuários em batches JDBC, sem passar pelo cache de segundo nível,
+     * como BookRepositoryCustom.inserirEmLote. Deve ser chamado dentro de uma
+     * transação; os IDs vêm da sequência users_seq.
+     *
+     * @param usuarios usuários sem ID, com a senha já codificada
+     * @param tamanhoBatch INSERTs por batch JDBC
+     */
+    void inserirEmLote(List<User> usuarios, int tamanhoBatch);
+}
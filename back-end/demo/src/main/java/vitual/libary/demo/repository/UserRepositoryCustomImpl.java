@@ -0,0 +1,52 @@
+package vitual.libary.demo.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+import vitual.libary.demo.entity.User;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementação das consultas de usuários pela API de natural id do Hibernate
+ * e da inserção em lote (mesmo ajuste de Session de BookRepositoryCustomImpl).
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Transação de escrita: lê do primário (o resultado vai para o cache de natural id)
+    // e mantém aberta a Session desembrulhada do EntityManager compartilhado
+    @Override
+    @Transactional
+    public Optional<User> buscarPorEmailExato(String email) {
+        if (email == null || email.isBlank()) {
+            return Optional.empty();
+        }
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(email);
+    }
+
+    @Override
+    public void inserirEmLote(List<User> usuarios, int tamanhoBatch) {
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode modoAnterior = session.getCacheMode();
+        Integer batchAnterior = session.getJdbcBatchSize();
+        session.setCacheMode(CacheMode.IGNORE);
+        session.setJdbcBatchSize(tamanhoBatch);
+        try {
+            for (User usuario : usuarios) {
+                session.persist(usuario);
+            }
+            session.flush();
+        } finally {
+            session.setCacheMode(modoAnterior);
+            session.setJdbcBatchSize(batchAnterior);
+        }
+    }
+}
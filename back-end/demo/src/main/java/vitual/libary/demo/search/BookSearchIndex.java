@@ -0,0 +1,330 @@
+package vitual.libary.demo.search;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import vitual.libary.demo.entity.Book;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido em memória do acervo, usado pela busca de livros.
+ *
+ * Cada termo normalizado de título, autor e ISBN aponta para os livros que o
+ * contêm. As consultas são respondidas sem acessar o banco: os termos da busca
+ * casam por prefixo, todos precisam estar presentes (E lógico) e o resultado é
+ * ordenado por relevância (peso do campo x raridade do termo), desempatando pelo ID.
+ *
+ * O índice só responde consultas depois de uma reconstrução completa a partir
+ * do banco; até lá {@link #estaPronto()} retorna false e o chamador deve usar o
+ * repositório.
+ */
+@Component
+public class BookSearchIndex {
+
+    static final int CAMPO_TITULO = 1;
+    static final int CAMPO_AUTOR = 2;
+    static final int CAMPO_ISBN = 4;
+
+    private static final double PESO_TITULO = 3.0;
+    private static final double PESO_AUTOR = 2.0;
+    private static final double PESO_ISBN = 1.0;
+    private static final double FATOR_PREFIXO = 0.5;
+
+    private static final Comparator<Resultado> POR_RELEVANCIA = Comparator
+            .comparingDouble(Resultado::pontuacao).reversed()
+            .thenComparingLong(Resultado::id);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // termo -> (id do livro -> máscara dos campos em que o termo aparece)
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Book> documentos = new HashMap<>();
+    private final Map<Long, Set<String>> termosPorDocumento = new HashMap<>();
+
+    // IDs removidos enquanto a reconstrução ainda está lendo o banco
+    private final Set<Long> removidosDuranteReconstrucao = new HashSet<>();
+
+    private volatile boolean pronto = false;
+    private boolean reconstruindo = false;
+
+    private record Resultado(long id, double pontuacao) {
+    }
+
+    /**
+     * @return true se o índice já foi carregado e pode responder consultas
+     */
+    public boolean estaPronto() {
+        return pronto;
+    }
+
+    /**
+     * @return quantidade de livros indexados
+     */
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return documentos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adiciona ou substitui um livro no índice.
+     *
+     * @param book livro já persistido (com ID)
+     */
+    public void indexar(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removerInterno(book.getId());
+            adicionarInterno(book);
+            removidosDuranteReconstrucao.remove(book.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ajusta a quantidade disponível guardada para um livro, sem reindexar
+     * seus termos (usado após empréstimos e devoluções).
+     *
+     * @param id ID do livro
+     * @param delta variação do estoque disponível
+     */
+    public void ajustarDisponivel(Long id, int delta) {
+        lock.writeLock().lock();
+        try {
+            Book documento = documentos.get(id);
+            if (documento != null && documento.getQuantidadeDisponivel() != null) {
+                documento.setQuantidadeDisponivel(documento.getQuantidadeDisponivel() + delta);
+                if (documento.getVersion() != null) {
+                    documento.setVersion(documento.getVersion() + 1);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove um livro do índice.
+     *
+     * @param id ID do livro
+     */
+    public void remover(Long id) {
+        if (id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removerInterno(id);
+            if (reconstruindo) {
+                removidosDuranteReconstrucao.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Descarta o conteúdo atual e começa uma reconstrução a partir do banco.
+     * Alterações feitas via {@link #indexar} e {@link #remover} durante a
+     * reconstrução continuam valendo e têm prioridade sobre os lotes lidos.
+     */
+    public void iniciarReconstrucao() {
+        lock.writeLock().lock();
+        try {
+            pronto = false;
+            reconstruindo = true;
+            postings.clear();
+            documentos.clear();
+            termosPorDocumento.clear();
+            removidosDuranteReconstrucao.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexa um lote lido do banco durante a reconstrução. Livros já indexados
+     * (por uma alteração concorrente) ou removidos nesse meio tempo são ignorados.
+     *
+     * @param lote livros lidos do banco
+     */
+    public void indexarLote(List<Book> lote) {
+        lock.writeLock().lock();
+        try {
+            for (Book book : lote) {
+                if (!documentos.containsKey(book.getId())
+                        && !removidosDuranteReconstrucao.contains(book.getId())) {
+                    adicionarInterno(book);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finaliza a reconstrução e libera o índice para consultas.
+     */
+    public void concluirReconstrucao() {
+        lock.writeLock().lock();
+        try {
+            reconstruindo = false;
+            removidosDuranteReconstrucao.clear();
+            pronto = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca livros por título, autor ou ISBN.
+     *
+     * @param consulta texto digitado pelo usuário
+     * @param pageable página desejada (a ordenação é sempre por relevância)
+     * @return página de livros ordenada por relevância
+     */
+    public Page<Book> buscar(String consulta, Pageable pageable) {
+        Set<String> termos = TextNormalizer.tokenizar(consulta);
+        if (termos.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> pontuacoes = null;
+            for (String termo : termos) {
+                Map<Long, Double> doTermo = pontuarTermo(termo);
+                if (pontuacoes == null) {
+                    pontuacoes = doTermo;
+                } else {
+                    pontuacoes.keySet().retainAll(doTermo.keySet());
+                    pontuacoes.replaceAll((id, pontuacao) -> pontuacao + doTermo.get(id));
+                }
+                if (pontuacoes.isEmpty()) {
+                    return Page.empty(pageable);
+                }
+            }
+
+            List<Resultado> ordenados = melhores(pontuacoes, pageable);
+            List<Book> conteudo = new ArrayList<>(ordenados.size());
+            for (Resultado resultado : ordenados) {
+                conteudo.add(documentos.get(resultado.id()).copiar());
+            }
+            return new PageImpl<>(conteudo, pageable, pontuacoes.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> pontuarTermo(String termo) {
+        Map<Long, Double> pontuacoes = new HashMap<>();
+        int totalDocumentos = documentos.size();
+        Map<String, Map<Long, Integer>> casados =
+                postings.subMap(termo, true, termo + Character.MAX_VALUE, true);
+
+        for (Map.Entry<String, Map<Long, Integer>> entrada : casados.entrySet()) {
+            Map<Long, Integer> livros = entrada.getValue();
+            double idf = Math.log(1.0 + (double) totalDocumentos / livros.size());
+            double fator = entrada.getKey().equals(termo) ? 1.0 : FATOR_PREFIXO;
+            for (Map.Entry<Long, Integer> livro : livros.entrySet()) {
+                double pontuacao = idf * fator * pesoDosCampos(livro.getValue());
+                pontuacoes.merge(livro.getKey(), pontuacao, Math::max);
+            }
+        }
+        return pontuacoes;
+    }
+
+    /**
+     * Mantém apenas os (offset + tamanho) melhores resultados em um heap,
+     * evitando ordenar todos os livros que casaram com a consulta.
+     */
+    private List<Resultado> melhores(Map<Long, Double> pontuacoes, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            List<Resultado> todos = new ArrayList<>(pontuacoes.size());
+            pontuacoes.forEach((id, pontuacao) -> todos.add(new Resultado(id, pontuacao)));
+            todos.sort(POR_RELEVANCIA);
+            return todos;
+        }
+
+        long limite = pageable.getOffset() + pageable.getPageSize();
+        if (pageable.getOffset() >= pontuacoes.size()) {
+            return Collections.emptyList();
+        }
+
+        PriorityQueue<Resultado> heap = new PriorityQueue<>(POR_RELEVANCIA.reversed());
+        for (Map.Entry<Long, Double> entrada : pontuacoes.entrySet()) {
+            heap.offer(new Resultado(entrada.getKey(), entrada.getValue()));
+            if (heap.size() > limite) {
+                heap.poll();
+            }
+        }
+
+        List<Resultado> ordenados = new ArrayList<>(heap);
+        ordenados.sort(POR_RELEVANCIA);
+        return ordenados.subList((int) pageable.getOffset(), ordenados.size());
+    }
+
+    private static double pesoDosCampos(int campos) {
+        double peso = 0;
+        if ((campos & CAMPO_TITULO) != 0) {
+            peso += PESO_TITULO;
+        }
+        if ((campos & CAMPO_AUTOR) != 0) {
+            peso += PESO_AUTOR;
+        }
+        if ((campos & CAMPO_ISBN) != 0) {
+            peso += PESO_ISBN;
+        }
+        return peso;
+    }
+
+    private void adicionarInterno(Book book) {
+        Map<String, Integer> campos = new HashMap<>();
+        TextNormalizer.tokenizar(book.getTitulo()).forEach(t -> campos.merge(t, CAMPO_TITULO, (a, b) -> a | b));
+        TextNormalizer.tokenizar(book.getAutor()).forEach(t -> campos.merge(t, CAMPO_AUTOR, (a, b) -> a | b));
+        TextNormalizer.tokenizarIsbn(book.getIsbn()).forEach(t -> campos.merge(t, CAMPO_ISBN, (a, b) -> a | b));
+
+        Long id = book.getId();
+        campos.forEach((termo, mascara) ->
+                postings.computeIfAbsent(termo, t -> new HashMap<>()).put(id, mascara));
+        termosPorDocumento.put(id, campos.keySet());
+        documentos.put(id, book.copiar());
+    }
+
+    private void removerInterno(Long id) {
+        Set<String> termos = termosPorDocumento.remove(id);
+        documentos.remove(id);
+        if (termos == null) {
+            return;
+        }
+        for (String termo : termos) {
+            Map<Long, Integer> livros = postings.get(termo);
+            if (livros != null) {
+                livros.remove(id);
+                if (livros.isEmpty()) {
+                    postings.remove(termo);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package vitual.libary.demo.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import vitual.libary.demo.entity.Book;
+import vitual.libary.demo.repository.BookRepository;
+
+/**
+ * Reconstrói o índice de busca a partir do banco na inicialização.
+ *
+ * A leitura é feita em lotes por ID crescente (keyset), no executor de tarefas
+ * da aplicação (threads virtuais, se ativadas), para não atrasar a subida. Enquanto o índice não fica pronto,
+ * o BookService continua consultando o banco.
+ *
+ * Desative com app.search.rebuild-on-startup=false.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.rebuild-on-startup", havingValue = "true", matchIfMissing = true)
+public class BookSearchIndexInitializer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BookSearchIndexInitializer.class);
+
+    private final BookRepository bookRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final TaskExecutor taskExecutor;
+
+    @Value("${app.search.rebuild-batch-size:5000}")
+    private int tamanhoLote;
+
+    public BookSearchIndexInitializer(BookRepository bookRepository, BookSearchIndex bookSearchIndex,
+                                      @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.bookRepository = bookRepository;
+        this.bookSearchIndex = bookSearchIndex;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        taskExecutor.execute(this::reconstruir);
+    }
+
+    /**
+     * Lê todos os livros do banco e recarrega o índice.
+     */
+    public void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        bookSearchIndex.iniciarReconstrucao();
+        try {
+            long ultimoId = 0L;
+            Slice<Book> lote;
+            do {
+                lote = bookRepository.findByIdGreaterThanOrderByIdAsc(ultimoId, PageRequest.of(0, tamanhoLote));
+                if (lote.hasContent()) {
+                    bookSearchIndex.indexarLote(lote.getContent());
+                    ultimoId = lote.getContent().get(lote.getNumberOfElements() - 1).getId();
+                }
+            } while (lote.hasNext());
+
+            bookSearchIndex.concluirReconstrucao();
+            log.info("Índice de busca reconstruído com {} livros em {} ms",
+                    bookSearchIndex.tamanho(), System.currentTimeMillis() - inicio);
+        } catch (RuntimeException e) {
+            // Mantém o índice desativado: a busca continua funcionando pelo banco
+            log.error("Falha ao reconstruir o índice de busca; consultas seguirão pelo banco", e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package vitual.libary.demo.search;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normaliza e quebra textos em termos para o índice de busca do acervo.
+ *
+ * Remove acentos (ex: "Memórias" vira "memorias"), converte para minúsculas
+ * e separa por qualquer caractere que não seja letra ou dígito.
+ */
+public final class TextNormalizer {
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{Alnum}]+");
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Remove acentos e converte o texto para minúsculas.
+     *
+     * @param texto texto original (pode ser nulo)
+     * @return texto normalizado, ou string vazia se nulo
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String semAcentos = MARCAS_DIACRITICAS
+                .matcher(Normalizer.normalize(texto, Normalizer.Form.NFD))
+                .replaceAll("");
+        return semAcentos.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Quebra o texto em termos normalizados, sem repetição e na ordem em que aparecem.
+     *
+     * @param texto texto original (pode ser nulo)
+     * @return conjunto de termos
+     */
+    public static Set<String> tokenizar(String texto) {
+        Set<String> termos = new LinkedHashSet<>();
+        for (String termo : SEPARADORES.split(normalizar(texto))) {
+            if (!termo.isEmpty()) {
+                termos.add(termo);
+            }
+        }
+        return termos;
+    }
+
+    /**
+     * Termos de um ISBN: as partes separadas por hífen e também o número
+     * completo só com dígitos, para que "978-85" e "97885" encontrem o livro.
+     *
+     * @param isbn ISBN original (pode ser nulo)
+     * @return conjunto de termos
+     */
+    public static Set<String> tokenizarIsbn(String isbn) {
+        Set<String> termos = tokenizar(isbn);
+        String somenteAlfanumericos = SEPARADORES.matcher(normalizar(isbn)).replaceAll("");
+        if (!somenteAlfanumericos.isEmpty()) {
+            termos.add(somenteAlfanumericos);
+        }
+        return termos;
+    }
+}
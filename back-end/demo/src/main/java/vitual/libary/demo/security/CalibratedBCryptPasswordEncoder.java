@@ -0,0 +1,118 @@
+package vitual.libary.demo.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt com o custo (log2 das rodadas) escolhido para a máquina em que a
+ * aplicação sobe.
+ *
+ * A calibração mede o hash em um custo baixo e extrapola (cada +1 no custo
+ * dobra o tempo), escolhendo o maior custo que fica dentro da latência alvo,
+ * entre um mínimo e um máximo. Diferente do BCryptPasswordEncoder, que só pede
+ * atualização de hashes mais fracos, aqui qualquer custo diferente do atual
+ * pede um novo hash: ao trocar de tamanho de máquina, os hashes gravados
+ * convergem para o custo calibrado nos próximos logins, nos dois sentidos.
+ */
+public class CalibratedBCryptPasswordEncoder implements PasswordEncoder {
+
+    // $2a$10$... / $2b$ / $2y$: o custo são os dois dígitos depois da versão
+    private static final Pattern HASH_BCRYPT = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}$");
+
+    // Custo medido na calibração: rápido o bastante para não atrasar a subida
+    private static final int CUSTO_DE_MEDICAO = 6;
+    private static final int AMOSTRAS = 5;
+
+    private final int custo;
+    private final BCryptPasswordEncoder bcrypt;
+
+    /**
+     * @param custo log2 das rodadas (4 a 31)
+     */
+    public CalibratedBCryptPasswordEncoder(int custo) {
+        this.custo = custo;
+        this.bcrypt = new BCryptPasswordEncoder(custo);
+    }
+
+    /**
+     * Mede o hash nesta máquina e escolhe o custo para a latência alvo.
+     *
+     * @param alvo latência desejada por hash
+     * @param minimo custo mínimo aceito, mesmo que passe do alvo
+     * @param maximo custo máximo
+     * @return custo calibrado, entre minimo e maximo
+     */
+    public static int calibrar(Duration alvo, int minimo, int maximo) {
+        return escolherCusto(medirNanos(), alvo.toNanos(), minimo, maximo);
+    }
+
+    /**
+     * @param nanosNoCustoDeMedicao tempo de um hash no custo de medição
+     * @return maior custo cujo tempo estimado não passa do alvo, entre minimo e maximo
+     */
+    static int escolherCusto(long nanosNoCustoDeMedicao, long alvoNanos, int minimo, int maximo) {
+        int escolhido = minimo;
+        for (int c = minimo; c <= maximo; c++) {
+            double estimado = nanosNoCustoDeMedicao * Math.pow(2, c - CUSTO_DE_MEDICAO);
+            if (estimado <= alvoNanos) {
+                escolhido = c;
+            }
+        }
+        return escolhido;
+    }
+
+    /**
+     * Mediana de algumas medições, depois de aquecer o JIT.
+     */
+    private static long medirNanos() {
+        BCryptPasswordEncoder medicao = new BCryptPasswordEncoder(CUSTO_DE_MEDICAO);
+        for (int i = 0; i < AMOSTRAS; i++) {
+            medicao.encode("aquecimento");
+        }
+        long[] tempos = new long[AMOSTRAS];
+        for (int i = 0; i < AMOSTRAS; i++) {
+            long inicio = System.nanoTime();
+            medicao.encode("calibracao-" + i);
+            tempos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(tempos);
+        return tempos[AMOSTRAS / 2];
+    }
+
+    /**
+     * @param hash hash BCrypt
+     * @return custo gravado no hash, ou -1 se não for um hash BCrypt
+     */
+    public static int custoDe(String hash) {
+        if (hash == null) {
+            return -1;
+        }
+        Matcher matcher = HASH_BCRYPT.matcher(hash);
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    public int getCusto() {
+        return custo;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return bcrypt.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return bcrypt.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int gravado = custoDe(encodedPassword);
+        return gravado != -1 && gravado != custo;
+    }
+}
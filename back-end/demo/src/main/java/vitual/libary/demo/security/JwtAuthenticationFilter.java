@@ -1,53 +1,86 @@
 package vitual.libary.demo.security;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import vitual.libary.demo.entity.User;
-import vitual.libary.demo.repository.UserRepository;
+import vitual.libary.demo.exception.UserNotFoundException;
+import vitual.libary.demo.service.UserService;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
-    
+
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserRepository userRepository;
-    
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserRepository userRepository) {
+    private final UserService userService;
+    private final UserStateRegistry userStateRegistry;
+
+    // Duração da verificação do token (biblioteca.jwt.verificacao), por resultado
+    private final Timer verificacaoValida;
+    private final Timer verificacaoInvalida;
+
+    // Modo stateless: monta o principal só com as claims do token, sem consultar o usuário
+    @Value("${app.jwt.stateless.enabled:false}")
+    private boolean stateless;
+
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserService userService,
+                                   UserStateRegistry userStateRegistry, MeterRegistry meterRegistry) {
         this.jwtTokenProvider = jwtTokenProvider;
-        this.userRepository = userRepository;
+        this.userService = userService;
+        this.userStateRegistry = userStateRegistry;
+        this.verificacaoValida = timerDeVerificacao(meterRegistry, "valido");
+        this.verificacaoInvalida = timerDeVerificacao(meterRegistry, "invalido");
     }
-    
+
+    private static Timer timerDeVerificacao(MeterRegistry meterRegistry, String resultado) {
+        return Timer.builder("biblioteca.jwt.verificacao")
+                .description("Verificação de assinatura e validade do JWT (com cache de tokens verificados)")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        
+
         try {
             String token = getTokenFromRequest(request);
-            
-            if (token != null && jwtTokenProvider.validateToken(token)) {
-                Long userId = jwtTokenProvider.getUserIdFromToken(token);
-                
-                // Busca o usuário no banco
-                User user = userRepository.findById(userId).orElse(null);
-                
+
+            // Verificação e extração das claims em uma única passada
+            Claims claims = token != null ? verificar(token) : null;
+
+            if (claims != null) {
+                User user;
+                if (stateless) {
+                    user = montarPrincipalPelasClaims(claims);
+                } else {
+                    // Busca o usuário (via cache de entidades do UserService)
+                    user = buscarUsuario(Long.valueOf(claims.getSubject()));
+                }
+
                 if (user != null) {
                     // Cria lista de authorities com a role do usuário
                     List<SimpleGrantedAuthority> authorities = Collections.singletonList(
                             new SimpleGrantedAuthority(user.getRole().toString())
                     );
-                    
+
                     // Cria authentication com as authorities
-                    UsernamePasswordAuthenticationToken auth = 
+                    UsernamePasswordAuthenticationToken auth =
                             new UsernamePasswordAuthenticationToken(user, null, authorities);
                     SecurityContextHolder.getContext().setAuthentication(auth);
                 }
@@ -55,10 +88,72 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         } catch (Exception e) {
             // Token inválido, continua sem autenticação
         }
-        
+
         filterChain.doFilter(request, response);
     }
-    
+
+    private Claims verificar(String token) {
+        long inicio = System.nanoTime();
+        Claims claims = jwtTokenProvider.verifyAndExtract(token).orElse(null);
+        (claims != null ? verificacaoValida : verificacaoInvalida)
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        return claims;
+    }
+
+    /**
+     * Monta o principal a partir das claims já verificadas (id, email, nome, role).
+     *
+     * A role e a existência do usuário são conferidas no UserStateRegistry; se o
+     * usuário não mudou recentemente e o token foi emitido dentro da janela de
+     * app.jwt.stateless.max-staleness, nenhuma consulta é feita. Tokens mais antigos
+     * são revalidados uma vez por janela, com uma leitura direta do banco (sem
+     * os caches de entidades e de segundo nível): uma alteração feita em outro
+     * nó vale aqui em no máximo max-staleness.
+     *
+     * @return principal, ou null se o usuário foi removido
+     */
+    private User montarPrincipalPelasClaims(Claims claims) {
+        Long userId = Long.valueOf(claims.getSubject());
+        String role = claims.get("role", String.class);
+
+        UserStateRegistry.UserState estado = userStateRegistry.consultar(userId);
+        if (estado != null) {
+            if (estado.removido()) {
+                return null;
+            }
+            role = estado.role();
+        } else if (emitidoForaDaJanela(claims.getIssuedAt())) {
+            User atual = userService.buscarSemCache(userId).orElse(null);
+            if (atual == null) {
+                userStateRegistry.registrarRemocao(userId);
+                return null;
+            }
+            userStateRegistry.registrarAlteracao(atual);
+            role = atual.getRole();
+        }
+
+        User principal = new User();
+        principal.setId(userId);
+        principal.setEmail(claims.get("email", String.class));
+        principal.setNome(claims.get("nome", String.class));
+        principal.setRole(role);
+        return principal;
+    }
+
+    private boolean emitidoForaDaJanela(Date emitidoEm) {
+        long limite = System.currentTimeMillis() - userStateRegistry.getMaxStaleness().toMillis();
+        return emitidoEm == null || emitidoEm.getTime() < limite;
+    }
+
+    private User buscarUsuario(Long userId) {
+        try {
+            return userService.buscarPorId(userId);
+        } catch (UserNotFoundException e) {
+            // Usuário removido depois da emissão do token
+            return null;
+        }
+    }
+
     private String getTokenFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
@@ -1,27 +1,62 @@
 package vitual.libary.demo.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import vitual.libary.demo.entity.User;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Emite e verifica os tokens JWT da aplicação.
+ *
+ * A chave HMAC e o JwtParser são criados uma única vez. Tokens verificados
+ * ficam em um cache LRU (chave = resumo SHA-256 do token) até expirarem, então
+ * requisições repetidas com o mesmo token não refazem o parse nem o HMAC.
+ */
 @Component
 public class JwtTokenProvider {
-    
-    @Value("${app.jwt.secret:my-super-secret-key-for-jwt-token-generation-and-validation}")
-    private String secretKey;
-    
-    @Value("${app.jwt.expiration:86400000}")
-    private long expiration; // Padrão: 24 horas
-    
+
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final long expiration; // Padrão: 24 horas
+    private final Cache<TokenDigest, Claims> tokensVerificados;
+
+    /**
+     * Resumo de 128 bits do token, usado como chave compacta do cache.
+     */
+    private record TokenDigest(long alto, long baixo) {
+    }
+
+    public JwtTokenProvider(
+            @Value("${app.jwt.secret:my-super-secret-key-for-jwt-token-generation-and-validation}") String secretKey,
+            @Value("${app.jwt.expiration:86400000}") long expiration,
+            @Value("${app.jwt.verified-cache-size:10000}") long tamanhoCache) {
+        this.key = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.expiration = expiration;
+        this.tokensVerificados = Caffeine.newBuilder()
+                .maximumSize(tamanhoCache)
+                .expireAfter(new ExpiraJuntoComToken())
+                .recordStats()
+                .build();
+    }
+
     public String generateToken(User user) {
-        SecretKey key = Keys.hmacShaKeyFor(secretKey.getBytes());
-        
         return Jwts.builder()
                 .subject(user.getId().toString())
                 .claim("email", user.getEmail())
@@ -29,31 +64,94 @@ public class JwtTokenProvider {
                 .claim("role", user.getRole())
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(key, SignatureAlgorithm.HS512)
+                .signWith(key, Jwts.SIG.HS512)
                 .compact();
     }
-    
+
+    /**
+     * Verifica assinatura e validade do token e devolve suas claims, em uma única passada.
+     *
+     * @param token JWT recebido no cabeçalho Authorization
+     * @return claims do token, ou vazio se o token for inválido ou expirado
+     */
+    public Optional<Claims> verifyAndExtract(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+
+        TokenDigest digest = resumir(token);
+        Claims emCache = tokensVerificados.getIfPresent(digest);
+        if (emCache != null && !expirado(emCache)) {
+            return Optional.of(emCache);
+        }
+
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            tokensVerificados.put(digest, claims);
+            return Optional.of(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    public Claims getClaimsFromToken(String token) {
+        return verifyAndExtract(token)
+                .orElseThrow(() -> new JwtException("Token inválido ou expirado"));
+    }
+
     public Long getUserIdFromToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(secretKey.getBytes());
-        
-        return Long.valueOf(Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject());
-    }
-    
+        return Long.valueOf(getClaimsFromToken(token).getSubject());
+    }
+
     public boolean validateToken(String token) {
+        return verifyAndExtract(token).isPresent();
+    }
+
+    /**
+     * Acesso ao cache de tokens verificados (para exportação de métricas).
+     */
+    public Cache<?, Claims> getTokensVerificados() {
+        return tokensVerificados;
+    }
+
+    private static boolean expirado(Claims claims) {
+        Date expiraEm = claims.getExpiration();
+        return expiraEm != null && expiraEm.getTime() <= System.currentTimeMillis();
+    }
+
+    private static TokenDigest resumir(String token) {
         try {
-            SecretKey key = Keys.hmacShaKeyFor(secretKey.getBytes());
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            ByteBuffer buffer = ByteBuffer.wrap(hash);
+            return new TokenDigest(buffer.getLong(), buffer.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível na JVM", e);
+        }
+    }
+
+    /**
+     * Remove cada token do cache no instante em que ele expira.
+     */
+    private static final class ExpiraJuntoComToken implements Expiry<TokenDigest, Claims> {
+
+        @Override
+        public long expireAfterCreate(TokenDigest chave, Claims claims, long agoraNanos) {
+            Date expiraEm = claims.getExpiration();
+            if (expiraEm == null) {
+                return Long.MAX_VALUE;
+            }
+            long restanteMs = Math.max(0L, expiraEm.getTime() - System.currentTimeMillis());
+            return TimeUnit.MILLISECONDS.toNanos(restanteMs);
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest chave, Claims claims, long agoraNanos, long duracaoAtual) {
+            return expireAfterCreate(chave, claims, agoraNanos);
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest chave, Claims claims, long agoraNanos, long duracaoAtual) {
+            return duracaoAtual;
         }
     }
 }
@@ -0,0 +1,90 @@
+package vitual.libary.demo.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import vitual.libary.demo.entity.User;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aplica o RateLimiter às rotas /api/**, depois do JwtAuthenticationFilter.
+ *
+ * Login e cadastro são limitados por IP (ainda não há usuário); as demais
+ * rotas, pelo ID do usuário do token, ou pelo IP quando a requisição não tem
+ * token válido. Acima do limite a resposta é 429 com Retry-After, sem chegar
+ * ao controller. Atrás de um proxy reverso, o IP do cliente vem de
+ * X-Forwarded-For com server.forward-headers-strategy=native.
+ *
+ * Não é um @Component: registrado como bean, o Spring Boot também o colocaria
+ * na cadeia de filtros do servlet, antes da autenticação.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimiter.isAtivo() || !caminho(request).startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        RateLimiter.Grupo grupo = grupoDe(request);
+        long esperaNanos = rateLimiter.tentar(grupo, chaveDe(grupo, request));
+        if (esperaNanos > 0) {
+            // Retry-After em segundos inteiros, arredondado para cima
+            long segundos = Math.max(1, (esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write("Muitas requisições. Tente novamente em " + segundos + " s.");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    static RateLimiter.Grupo grupoDe(HttpServletRequest request) {
+        String caminho = caminho(request);
+        if (caminho.startsWith("/api/auth/")) {
+            return RateLimiter.Grupo.AUTH;
+        }
+        if (HttpMethod.GET.matches(request.getMethod())
+                && (caminho.equals("/api/books") || caminho.startsWith("/api/books/"))) {
+            return RateLimiter.Grupo.BUSCA;
+        }
+        return RateLimiter.Grupo.GERAL;
+    }
+
+    private static String chaveDe(RateLimiter.Grupo grupo, HttpServletRequest request) {
+        if (grupo != RateLimiter.Grupo.AUTH) {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            if (auth != null && auth.getPrincipal() instanceof User user && user.getId() != null) {
+                return "usuario:" + user.getId();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static String caminho(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,162 @@
+package vitual.libary.demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Limite de requisições em memória, por grupo de rotas e por chave (IP ou
+ * usuário), no modelo de balde de fichas.
+ *
+ * Cada grupo tem capacidade (rajada) e reposição por minuto próprias, das
+ * propriedades app.rate-limit.&lt;grupo&gt;.capacity e .per-minute (per-minute=0
+ * desliga o limite do grupo). O balde é guardado como um único instante, o
+ * momento em que ele estaria cheio de novo (GCRA), e atualizado com
+ * compareAndSet: nenhuma trava, e duas requisições da mesma chave nunca gastam
+ * a mesma ficha.
+ *
+ * Os baldes ficam em um cache Caffeine por grupo, limitado a
+ * app.rate-limit.max-keys chaves e com remoção das ociosas por
+ * app.rate-limit.idle-timeout (nunca menos que o tempo de encher o balde:
+ * um balde removido volta cheio, como estaria). Com o limite de chaves
+ * atingido, os baldes menos usados saem primeiro.
+ */
+@Component
+public class RateLimiter {
+
+    /**
+     * Grupos de rotas com limites separados.
+     */
+    public enum Grupo {
+        /** /api/auth/** (login e cadastro, com BCrypt), por IP. */
+        AUTH,
+        /** Leituras do acervo (GET /api/books/**), por usuário. */
+        BUSCA,
+        /** Demais rotas da API, por usuário. */
+        GERAL;
+
+        /**
+         * @return nome usado nas propriedades e na tag das métricas
+         */
+        public String getNome() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final long MAX_CHAVES_PADRAO = 100_000L;
+    private static final Duration OCIOSIDADE_PADRAO = Duration.ofMinutes(10);
+    private static final Map<Grupo, long[]> PADROES = Map.of(
+            // {capacidade, por minuto}
+            Grupo.AUTH, new long[]{10, 30},
+            Grupo.BUSCA, new long[]{50, 600},
+            Grupo.GERAL, new long[]{100, 1200});
+
+    private final boolean ativo;
+    private final LongSupplier relogio;
+    private final Map<Grupo, Limite> limites = new EnumMap<>(Grupo.class);
+
+    /**
+     * Estado de um grupo: parâmetros do balde, baldes por chave e rejeições.
+     */
+    private static final class Limite {
+        final long capacidade;
+        final long intervaloNanos;
+        final Cache<String, AtomicLong> baldes;
+        final LongAdder rejeitadas = new LongAdder();
+
+        Limite(long capacidade, long porMinuto, long maxChaves, Duration ociosidade) {
+            this.capacidade = capacidade;
+            this.intervaloNanos = porMinuto > 0 ? Duration.ofMinutes(1).toNanos() / porMinuto : 0;
+            Duration tempoParaEncher = Duration.ofNanos(intervaloNanos * capacidade);
+            this.baldes = Caffeine.newBuilder()
+                    .maximumSize(maxChaves)
+                    .expireAfterAccess(ociosidade.compareTo(tempoParaEncher) >= 0 ? ociosidade : tempoParaEncher)
+                    .build();
+        }
+
+        boolean desligado() {
+            return intervaloNanos == 0 || capacidade <= 0;
+        }
+    }
+
+    @Autowired
+    public RateLimiter(Environment environment) {
+        this(environment, System::nanoTime);
+    }
+
+    RateLimiter(Environment environment, LongSupplier relogio) {
+        this.relogio = relogio;
+        this.ativo = environment.getProperty("app.rate-limit.enabled", Boolean.class, true);
+        long maxChaves = environment.getProperty("app.rate-limit.max-keys", Long.class, MAX_CHAVES_PADRAO);
+        Duration ociosidade = environment.getProperty("app.rate-limit.idle-timeout", Duration.class, OCIOSIDADE_PADRAO);
+        for (Grupo grupo : Grupo.values()) {
+            String prefixo = "app.rate-limit." + grupo.getNome() + ".";
+            long[] padrao = PADROES.get(grupo);
+            limites.put(grupo, new Limite(
+                    environment.getProperty(prefixo + "capacity", Long.class, padrao[0]),
+                    environment.getProperty(prefixo + "per-minute", Long.class, padrao[1]),
+                    maxChaves, ociosidade));
+        }
+    }
+
+    /**
+     * @return false com app.rate-limit.enabled=false (nenhuma requisição é limitada)
+     */
+    public boolean isAtivo() {
+        return ativo;
+    }
+
+    /**
+     * Gasta uma ficha do balde da chave no grupo.
+     *
+     * @param grupo grupo da rota
+     * @param chave IP ou usuário
+     * @return 0 se a requisição pode seguir; senão, nanossegundos até a próxima ficha
+     */
+    public long tentar(Grupo grupo, String chave) {
+        Limite limite = limites.get(grupo);
+        if (!ativo || limite.desligado()) {
+            return 0;
+        }
+        // Instante em que o balde estaria cheio; MIN_VALUE = cheio desde sempre
+        AtomicLong cheioEm = limite.baldes.get(chave, k -> new AtomicLong(Long.MIN_VALUE));
+        long rajada = limite.intervaloNanos * limite.capacidade;
+        while (true) {
+            long agora = relogio.getAsLong();
+            long atual = cheioEm.get();
+            long novo = Math.max(atual, agora) + limite.intervaloNanos;
+            long espera = novo - agora - rajada;
+            if (espera > 0) {
+                limite.rejeitadas.increment();
+                return espera;
+            }
+            if (cheioEm.compareAndSet(atual, novo)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return requisições recusadas (429) no grupo desde a subida
+     */
+    public long getRejeitadas(Grupo grupo) {
+        return limites.get(grupo).rejeitadas.sum();
+    }
+
+    /**
+     * @return chaves com balde em memória no grupo (estimativa)
+     */
+    public long getChaves(Grupo grupo) {
+        return limites.get(grupo).baldes.estimatedSize();
+    }
+}
@@ -0,0 +1,86 @@
+package vitual.libary.demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import vitual.libary.demo.entity.User;
+
+import java.time.Duration;
+
+/**
+ * Mapa compacto, em memória, do estado atual dos usuários alterados ou
+ * revalidados recentemente, usado pelo modo stateless do JwtAuthenticationFilter.
+ *
+ * No modo stateless o principal é montado só com as claims do token. Este
+ * registro garante que mudanças de role e remoções de usuário passem a valer
+ * sem esperar o token expirar: alterações feitas neste nó entram aqui na hora,
+ * e tokens emitidos há mais tempo que app.jwt.stateless.max-staleness são
+ * revalidados no banco uma vez por janela. Cada entrada expira após essa
+ * mesma janela, o que limita o uso de memória aos usuários ativos no período.
+ */
+@Component
+public class UserStateRegistry {
+
+    /**
+     * Estado conhecido de um usuário.
+     *
+     * @param role role atual
+     * @param removido true se o usuário foi excluído
+     */
+    public record UserState(String role, boolean removido) {
+    }
+
+    private final Cache<Long, UserState> estados;
+    private final Duration maxStaleness;
+
+    public UserStateRegistry(
+            @Value("${app.jwt.stateless.max-staleness:5m}") Duration maxStaleness,
+            @Value("${app.jwt.stateless.max-entries:100000}") long maxEntradas) {
+        this.maxStaleness = maxStaleness;
+        this.estados = Caffeine.newBuilder()
+                .expireAfterWrite(maxStaleness)
+                .maximumSize(maxEntradas)
+                .build();
+    }
+
+    /**
+     * @return janela máxima em que as claims de um token são aceitas sem revalidação
+     */
+    public Duration getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    /**
+     * @param userId ID do usuário
+     * @return estado conhecido, ou null se o usuário não mudou recentemente
+     */
+    public UserState consultar(Long userId) {
+        return estados.getIfPresent(userId);
+    }
+
+    /**
+     * Registra o estado atual do usuário (após criação, alteração ou revalidação).
+     */
+    public void registrarAlteracao(User user) {
+        if (user != null && user.getId() != null) {
+            estados.put(user.getId(), new UserState(user.getRole(), false));
+        }
+    }
+
+    /**
+     * Registra que o usuário foi excluído: seus tokens deixam de autenticar.
+     */
+    public void registrarRemocao(Long userId) {
+        if (userId != null) {
+            estados.put(userId, new UserState(null, true));
+        }
+    }
+
+    /**
+     * @return quantidade aproximada de usuários no registro
+     */
+    public long tamanho() {
+        return estados.estimatedSize();
+    }
+}
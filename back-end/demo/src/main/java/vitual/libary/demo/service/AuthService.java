@@ -1,5 +1,8 @@
 package vitual.libary.demo.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import vitual.libary.demo.dto.AuthRequest;
@@ -10,17 +13,31 @@ import vitual.libary.demo.exception.UserNotFoundException;
 import vitual.libary.demo.repository.UserRepository;
 import vitual.libary.demo.security.JwtTokenProvider;
 
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
 @Service
 public class AuthService {
-    
+
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
     private final UserRepository userRepository;
+    private final UserService userService;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
-    
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtTokenProvider jwtTokenProvider) {
+    private final boolean verificarSenha;
+
+    // Hashes refeitos no login com o custo/formato atual (exportado em /actuator/prometheus)
+    private final LongAdder hashesAtualizados = new LongAdder();
+
+    public AuthService(UserRepository userRepository, UserService userService, PasswordEncoder passwordEncoder,
+                       JwtTokenProvider jwtTokenProvider,
+                       @Value("${app.auth.verify-password:true}") boolean verificarSenha) {
         this.userRepository = userRepository;
+        this.userService = userService;
         this.passwordEncoder = passwordEncoder;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.verificarSenha = verificarSenha;
     }
     
     /**
@@ -28,7 +45,7 @@ public class AuthService {
      */
     public AuthResponse registrar(RegisterRequest request) {
         // Verifica se email já existe
-        if (userRepository.findByEmail(request.getEmail()).isPresent()) {
+        if (buscarPorEmail(request.getEmail()).isPresent()) {
             throw new IllegalArgumentException("Email já registrado: " + request.getEmail());
         }
         
@@ -48,21 +65,52 @@ public class AuthService {
     }
     
     /**
-     * Faz login de um usuário (MODO DESENVOLVIMENTO - sem validação de senha)
+     * Faz login de um usuário.
+     *
+     * Confere a senha e, se o hash gravado estiver com outro custo ou formato
+     * que o do encoder atual, grava um novo hash da mesma senha (ver
+     * SecurityConfig.passwordEncoder). Com app.auth.verify-password=false (só
+     * para desenvolvimento) aceita qualquer senha e não mexe no hash: sem a
+     * senha conferida, não há o que regravar.
      */
     public AuthResponse login(AuthRequest request) {
         // Busca usuário por email
-        User user = userRepository.findByEmail(request.getEmail())
+        User user = buscarPorEmail(request.getEmail())
                 .orElseThrow(() -> new UserNotFoundException("Usuário não encontrado com email: " + request.getEmail()));
-        
-        // ⚠️ MODO DESENVOLVIMENTO: Aceita qualquer senha
-        // if (!passwordEncoder.matches(request.getSenha(), user.getSenha())) {
-        //     throw new IllegalArgumentException("Senha incorreta");
-        // }
+
+        if (verificarSenha) {
+            if (request.getSenha() == null || !passwordEncoder.matches(request.getSenha(), user.getSenha())) {
+                throw new IllegalArgumentException("Senha incorreta");
+            }
+            atualizarHashSeNecessario(user, request.getSenha());
+        }
         
         // Gera token JWT
         String token = jwtTokenProvider.generateToken(user);
         
         return new AuthResponse(token, user.getId(), user.getNome(), user.getEmail(), user.getRole());
     }
+
+    private void atualizarHashSeNecessario(User user, String senha) {
+        if (!passwordEncoder.upgradeEncoding(user.getSenha())) {
+            return;
+        }
+        if (userService.atualizarHashDaSenha(user.getId(), user.getSenha(), passwordEncoder.encode(senha))) {
+            hashesAtualizados.increment();
+            log.debug("Hash da senha do usuário {} atualizado no login", user.getId());
+        }
+    }
+
+    public long getHashesAtualizados() {
+        return hashesAtualizados.sum();
+    }
+
+    /**
+     * E-mail exato pelo natural id (cache de segundo nível, sem consulta
+     * quando em cache); se não achar, compara sem diferenciar maiúsculas.
+     */
+    private Optional<User> buscarPorEmail(String email) {
+        return userRepository.buscarPorEmailExato(email)
+                .or(() -> userRepository.findByEmail(email));
+    }
 }
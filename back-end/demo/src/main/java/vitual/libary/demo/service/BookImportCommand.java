@@ -0,0 +1,71 @@
+package vitual.libary.demo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+import vitual.libary.demo.dto.BookImportResponse;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Importação do acervo pela linha de comando: com app.books.import.file, a
+ * aplicação importa o arquivo na subida, registra o resumo e encerra.
+ *
+ * O formato vem de app.books.import.format ou da extensão (.csv ou .ndjson).
+ * Para não abrir a porta HTTP, use também --spring.main.web-application-type=none.
+ * O código de saída é 0 sem rejeições, 2 com linhas rejeitadas e 1 em erro.
+ */
+@Component
+@ConditionalOnProperty(name = "app.books.import.file")
+public class BookImportCommand implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BookImportCommand.class);
+
+    private final BookImportService bookImportService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${app.books.import.file}")
+    private Path arquivo;
+
+    @Value("${app.books.import.format:}")
+    private String formato;
+
+    public BookImportCommand(BookImportService bookImportService, ConfigurableApplicationContext context) {
+        this.bookImportService = bookImportService;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int codigo;
+        try (InputStream entrada = Files.newInputStream(arquivo)) {
+            BookImportResponse resultado = bookImportService.importar(entrada, ExportService.Formato.de(
+                    formato.isBlank() ? extensao(arquivo) : formato));
+            for (BookImportResponse.ErroLinha erro : resultado.getErros()) {
+                log.warn("Linha {} rejeitada (ISBN {}): {}", erro.getLinha(), erro.getIsbn(), erro.getErro());
+            }
+            log.info("Importação de {} concluída: {} inseridos, {} atualizados, {} rejeitados, {} linhas/s",
+                    arquivo, resultado.getInseridos(), resultado.getAtualizados(), resultado.getRejeitados(),
+                    resultado.getLinhasPorSegundo());
+            codigo = resultado.getRejeitados() == 0 ? 0 : 2;
+        } catch (Exception e) {
+            log.error("Falha na importação de {}", arquivo, e);
+            codigo = 1;
+        }
+        int saida = codigo;
+        System.exit(SpringApplication.exit(context, () -> saida));
+    }
+
+    private static String extensao(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        return nome.substring(nome.lastIndexOf('.') + 1);
+    }
+}
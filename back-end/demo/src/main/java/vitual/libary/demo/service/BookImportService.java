@@ -0,0 +1,250 @@
+package vitual.libary.demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import vitual.libary.demo.dto.BookImportResponse;
+import vitual.libary.demo.dto.BookResponse;
+import vitual.libary.demo.entity.Book;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Importação do acervo a partir de CSV ou NDJSON (os mesmos formatos da
+ * exportação), com upsert por ISBN.
+ *
+ * O arquivo é lido em streaming: as linhas válidas são acumuladas em lotes de
+ * app.books.import.chunk-size e cada lote é gravado em uma transação própria
+ * (BookService.importarLote), com os INSERTs em batch JDBC. Linhas inválidas
+ * são rejeitadas sem interromper a importação; se um lote falhar no banco, as
+ * linhas dele são regravadas uma a uma para isolar as que causaram a falha.
+ */
+@Service
+public class BookImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookImportService.class);
+
+    // Tamanho das colunas VARCHAR de books (V1)
+    private static final int TAMANHO_MAXIMO_TEXTO = 255;
+
+    private static final List<String> COLUNAS_OBRIGATORIAS =
+            List.of("titulo", "autor", "anoPublicacao", "isbn", "quantidadeTotal");
+
+    private final BookService bookService;
+    private final Validator validator;
+    private final ObjectReader leitorJson;
+    private final int tamanhoLote;
+    private final int tamanhoBatch;
+    private final int maximoErros;
+
+    public BookImportService(BookService bookService, Validator validator, ObjectMapper objectMapper,
+                             @Value("${app.books.import.chunk-size:1000}") int tamanhoLote,
+                             @Value("${app.books.import.batch-size:50}") int tamanhoBatch,
+                             @Value("${app.books.import.max-errors:1000}") int maximoErros) {
+        this.bookService = bookService;
+        this.validator = validator;
+        this.leitorJson = objectMapper.readerFor(BookResponse.class);
+        this.tamanhoLote = tamanhoLote;
+        this.tamanhoBatch = tamanhoBatch;
+        this.maximoErros = maximoErros;
+    }
+
+    /**
+     * Lê e grava o arquivo inteiro.
+     *
+     * No CSV a primeira linha é o cabeçalho, com os nomes dos campos em qualquer
+     * ordem (colunas desconhecidas, como id, são ignoradas). No NDJSON cada linha
+     * é um livro em JSON. Sem quantidadeDisponivel, vale a quantidadeTotal.
+     *
+     * @param entrada conteúdo em UTF-8; não é fechado
+     * @param formato CSV ou NDJSON
+     * @return contagens, vazão e linhas rejeitadas
+     * @throws IllegalArgumentException se faltar uma coluna obrigatória no cabeçalho do CSV
+     */
+    public BookImportResponse importar(InputStream entrada, ExportService.Formato formato) throws IOException {
+        long inicio = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        Leitor leitor = formato == ExportService.Formato.CSV ? new LeitorCsvDeLivros(reader) : new LeitorNdjson(reader);
+        Resultado resultado = new Resultado();
+
+        List<Linha> lote = new ArrayList<>(tamanhoLote);
+        for (Linha linha = leitor.proxima(); linha != null; linha = leitor.proxima()) {
+            resultado.linhas++;
+            String erro = linha.erro() != null ? linha.erro() : validar(linha.livro());
+            if (erro != null) {
+                resultado.rejeitar(linha, erro);
+                continue;
+            }
+            lote.add(linha);
+            if (lote.size() == tamanhoLote) {
+                gravar(lote, resultado);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            gravar(lote, resultado);
+        }
+
+        long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+        long linhasPorSegundo = resultado.linhas * 1000 / Math.max(1, duracaoMs);
+        log.info("Importação de livros em {}: {} linhas ({} inseridos, {} atualizados, {} rejeitados) em {} ms ({} linhas/s)",
+                formato, resultado.linhas, resultado.inseridos, resultado.atualizados, resultado.rejeitados,
+                duracaoMs, linhasPorSegundo);
+        return new BookImportResponse(resultado.linhas, resultado.inseridos, resultado.atualizados,
+                resultado.rejeitados, duracaoMs, linhasPorSegundo, resultado.erros);
+    }
+
+    private void gravar(List<Linha> lote, Resultado resultado) {
+        try {
+            boolean[] inseridos = bookService.importarLote(lote.stream().map(Linha::livro).toList(), tamanhoBatch);
+            for (boolean inserido : inseridos) {
+                if (inserido) {
+                    resultado.inseridos++;
+                } else {
+                    resultado.atualizados++;
+                }
+            }
+        } catch (DataAccessException | TransactionException e) {
+            if (lote.size() == 1) {
+                resultado.rejeitar(lote.get(0), "Falha ao gravar: " + e.getMostSpecificCause().getMessage());
+                return;
+            }
+            log.warn("Lote de {} livros rejeitado pelo banco ({}); gravando linha a linha",
+                    lote.size(), e.getMostSpecificCause().getMessage());
+            for (Linha linha : lote) {
+                gravar(List.of(linha), resultado);
+            }
+        }
+    }
+
+    private String validar(Book livro) {
+        List<String> erros = new ArrayList<>();
+        for (ConstraintViolation<Book> violacao : validator.validate(livro)) {
+            erros.add(violacao.getMessage());
+        }
+        if (erros.isEmpty()) {
+            if (excede(livro.getTitulo()) || excede(livro.getAutor()) || excede(livro.getIsbn())) {
+                erros.add("Título, autor e ISBN têm no máximo " + TAMANHO_MAXIMO_TEXTO + " caracteres.");
+            }
+            if (livro.getQuantidadeDisponivel() > livro.getQuantidadeTotal()) {
+                erros.add("A quantidade disponível não pode ser maior que a total.");
+            }
+        }
+        return erros.isEmpty() ? null : erros.stream().sorted().collect(Collectors.joining(" "));
+    }
+
+    private static boolean excede(String texto) {
+        return texto.length() > TAMANHO_MAXIMO_TEXTO;
+    }
+
+    private static Book paraLivro(BookResponse dados) {
+        Book livro = new Book();
+        livro.setTitulo(aparado(dados.getTitulo()));
+        livro.setAutor(aparado(dados.getAutor()));
+        livro.setAnoPublicacao(dados.getAnoPublicacao());
+        livro.setIsbn(aparado(dados.getIsbn()));
+        livro.setQuantidadeTotal(dados.getQuantidadeTotal());
+        livro.setQuantidadeDisponivel(dados.getQuantidadeDisponivel() != null
+                ? dados.getQuantidadeDisponivel()
+                : dados.getQuantidadeTotal());
+        return livro;
+    }
+
+    private static String aparado(String texto) {
+        return texto == null ? null : texto.trim();
+    }
+
+    /**
+     * Linha lida do arquivo: o livro montado ou o erro de leitura.
+     */
+    private record Linha(long numero, Book livro, String erro) {
+    }
+
+    private interface Leitor {
+        // null no fim do arquivo
+        Linha proxima() throws IOException;
+    }
+
+    private final class LeitorNdjson implements Leitor {
+
+        private final BufferedReader reader;
+        private long numero;
+
+        LeitorNdjson(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Linha proxima() throws IOException {
+            String texto;
+            do {
+                texto = reader.readLine();
+                numero++;
+            } while (texto != null && texto.isBlank());
+            if (texto == null) {
+                return null;
+            }
+            try {
+                BookResponse dados = leitorJson.readValue(texto);
+                return new Linha(numero, paraLivro(dados), null);
+            } catch (JsonProcessingException e) {
+                return new Linha(numero, null, "JSON inválido: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static final class LeitorCsvDeLivros implements Leitor {
+
+        private final LeitorCsv csv;
+
+        LeitorCsvDeLivros(BufferedReader reader) throws IOException {
+            this.csv = new LeitorCsv(reader, COLUNAS_OBRIGATORIAS);
+        }
+
+        @Override
+        public Linha proxima() throws IOException {
+            if (!csv.proximo()) {
+                return null;
+            }
+            try {
+                BookResponse dados = new BookResponse(null, csv.texto("titulo"), csv.texto("autor"),
+                        csv.inteiro("anoPublicacao"), csv.texto("isbn"),
+                        csv.inteiro("quantidadeTotal"), csv.inteiro("quantidadeDisponivel"));
+                return new Linha(csv.linha(), paraLivro(dados), null);
+            } catch (NumberFormatException e) {
+                return new Linha(csv.linha(), null, e.getMessage());
+            }
+        }
+    }
+
+    private final class Resultado {
+        long linhas;
+        long inseridos;
+        long atualizados;
+        long rejeitados;
+        final List<BookImportResponse.ErroLinha> erros = new ArrayList<>();
+
+        void rejeitar(Linha linha, String erro) {
+            rejeitados++;
+            if (erros.size() < maximoErros) {
+                String isbn = linha.livro() != null ? linha.livro().getIsbn() : null;
+                erros.add(new BookImportResponse.ErroLinha(linha.numero(), isbn, erro));
+            }
+        }
+    }
+}
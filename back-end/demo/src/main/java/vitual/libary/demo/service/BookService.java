@@ -1,42 +1,302 @@
 package vitual.libary.demo.service;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vitual.libary.demo.cache.BookJsonCache;
+import vitual.libary.demo.cache.EntityCache;
+import vitual.libary.demo.cache.EntityCacheRegistry;
+import vitual.libary.demo.dto.BookCursor;
+import vitual.libary.demo.dto.BookResponse;
 import vitual.libary.demo.entity.Book;
 import vitual.libary.demo.exception.BookNotFoundException;
+import vitual.libary.demo.exception.InsufficientStockException;
 import vitual.libary.demo.repository.BookRepository;
+import vitual.libary.demo.repository.BookStockBatchRepository;
+import vitual.libary.demo.search.BookSearchIndex;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import static vitual.libary.demo.service.Transacoes.aposCommit;
 
 @Service
 public class BookService {
 
     private final BookRepository bookRepository;
+    private final BookStockBatchRepository bookStockBatchRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final EntityCache<Long, Book> cache;
+    private final BookJsonCache jsonCache;
+
+    // Reservas negadas por falta de estoque (exportado em /actuator/prometheus)
+    private final LongAdder reservasSemEstoque = new LongAdder();
 
-    public BookService(BookRepository bookRepository) {
+    public BookService(BookRepository bookRepository, BookStockBatchRepository bookStockBatchRepository,
+                       BookSearchIndex bookSearchIndex, EntityCacheRegistry cacheRegistry,
+                       BookJsonCache jsonCache) {
         this.bookRepository = bookRepository;
+        this.bookStockBatchRepository = bookStockBatchRepository;
+        this.bookSearchIndex = bookSearchIndex;
+        this.cache = cacheRegistry.criar("books", Book::copiar);
+        this.jsonCache = jsonCache;
     }
 
+    @Transactional(readOnly = true)
     public List<Book> listarTodos() {
         return bookRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Page<Book> listarTodos(Pageable pageable) {
         return bookRepository.findAll(pageable);
     }
 
+    /**
+     * Página do acervo como resposta da API, montada na própria consulta.
+     */
+    @Transactional(readOnly = true)
+    public Page<BookResponse> listarResumos(Pageable pageable) {
+        return bookRepository.listarResumos(pageable);
+    }
+
+    /**
+     * Lista livros por cursor (keyset): cada página continua a partir da chave
+     * do último livro entregue, sem OFFSET e sem COUNT(*), então o custo de uma
+     * página profunda é o mesmo da primeira.
+     *
+     * @param cursor posição na listagem
+     * @param tamanho quantidade de livros por página
+     * @return fatia de livros na ordem do cursor
+     */
+    @Transactional(readOnly = true)
+    public Slice<Book> listarPorCursor(BookCursor cursor, int tamanho) {
+        Pageable pageable = PageRequest.of(0, tamanho);
+
+        if (cursor.ordenacao() == BookCursor.Ordenacao.TITULO) {
+            return cursor.isInicio()
+                    ? bookRepository.findAllByOrderByTituloAscIdAsc(pageable)
+                    : bookRepository.buscarAposTitulo(cursor.titulo(), cursor.id(), pageable);
+        }
+        long ultimoId = cursor.isInicio() ? 0L : cursor.id();
+        return bookRepository.findByIdGreaterThanOrderByIdAsc(ultimoId, pageable);
+    }
+
+    /**
+     * Busca um livro pelo ID, passando pelo cache de entidades.
+     * Não é somente leitura: as faltas do cache são lidas do primário
+     * (ver BookRepository.findById).
+     */
     public Book buscarPorId(Long id) {
-        return bookRepository.findById(id)
-                .orElseThrow(() -> new BookNotFoundException("Livro não encontrado com ID: " + id));
+        return cache.obter(id, chave -> bookRepository.findById(chave)
+                .orElseThrow(() -> new BookNotFoundException("Livro não encontrado com ID: " + chave)));
+    }
+
+    /**
+     * Busca vários livros em uma única consulta (WHERE id IN ...).
+     *
+     * Devolve cópias desacopladas do contexto de persistência: quem chama pode
+     * ajustar o estoque exibido sem que o JPA regrave o livro no flush.
+     *
+     * @param ids IDs dos livros (repetições são ignoradas)
+     * @return livros encontrados, indexados pelo ID; IDs inexistentes ficam de fora
+     */
+    public Map<Long, Book> buscarTodosPorId(Collection<Long> ids) {
+        Map<Long, Book> livros = new HashMap<>();
+        for (Book book : bookRepository.findAllById(ids)) {
+            livros.put(book.getId(), book.copiar());
+        }
+        return livros;
     }
 
+    /**
+     * Busca livros por título, autor ou ISBN, ordenados por relevância.
+     * Usa o índice em memória quando ele já foi carregado; caso contrário,
+     * consulta o banco pelo título.
+     *
+     * Sem @Transactional: sem réplicas não há LazyConnectionDataSourceProxy, e
+     * uma transação aqui tiraria uma conexão do pool mesmo quando o índice
+     * responde. A transação somente leitura fica na consulta de fallback
+     * (BookRepository.findByTituloContainingIgnoreCase).
+     */
     public Page<Book> buscarPorTitulo(String titulo, Pageable pageable) {
+        if (bookSearchIndex.estaPronto()) {
+            return bookSearchIndex.buscar(titulo, pageable);
+        }
         return bookRepository.findByTituloContainingIgnoreCase(titulo, pageable);
     }
 
     public Book salvar(Book book) {
-        return bookRepository.save(book);
+        Book salvo = bookRepository.save(book);
+        Book snapshot = salvo.copiar();
+        aposCommit(() -> {
+            cache.invalidar(snapshot.getId());
+            jsonCache.invalidar(snapshot.getId());
+            bookSearchIndex.indexar(snapshot);
+        });
+        return salvo;
+    }
+
+    /**
+     * Grava um lote da importação em uma única transação, com upsert por ISBN.
+     *
+     * Livros com ISBN ainda não cadastrado são inseridos em batches JDBC (IDs da
+     * sequência); os já cadastrados (o de menor ID, se houver repetidos) recebem
+     * os dados do lote. Nesse caso os exemplares emprestados continuam
+     * emprestados: o disponível passa a ser o novo total menos os emprestados.
+     * Um ISBN repetido no próprio lote vale pela última ocorrência.
+     *
+     * Os livros recebidos não são alterados (em um conflito de versão o lote
+     * inteiro é repetido a partir deles).
+     *
+     * @param livros livros validados, na ordem do arquivo
+     * @param tamanhoBatch INSERTs por batch JDBC
+     * @return para cada posição, true se o livro foi inserido; false se atualizou um existente
+     */
+    @RetryOnConflict
+    @Transactional
+    public boolean[] importarLote(List<Book> livros, int tamanhoBatch) {
+        Set<String> isbns = new LinkedHashSet<>();
+        for (Book livro : livros) {
+            isbns.add(livro.getIsbn());
+        }
+        Map<String, Book> porIsbn = new HashMap<>();
+        for (Book existente : bookRepository.findByIsbnInOrderByIdAsc(isbns)) {
+            porIsbn.putIfAbsent(existente.getIsbn(), existente);
+        }
+
+        boolean[] inseridos = new boolean[livros.size()];
+        List<Book> novos = new ArrayList<>();
+        for (int i = 0; i < livros.size(); i++) {
+            Book dados = livros.get(i);
+            Book existente = porIsbn.get(dados.getIsbn());
+            if (existente == null) {
+                Book novo = dados.copiar();
+                novo.setId(null);
+                novo.setVersion(null);
+                novos.add(novo);
+                porIsbn.put(novo.getIsbn(), novo);
+                inseridos[i] = true;
+            } else {
+                int emprestados = existente.getQuantidadeTotal() - existente.getQuantidadeDisponivel();
+                existente.setTitulo(dados.getTitulo());
+                existente.setAutor(dados.getAutor());
+                existente.setAnoPublicacao(dados.getAnoPublicacao());
+                existente.setQuantidadeTotal(dados.getQuantidadeTotal());
+                existente.setQuantidadeDisponivel(Math.max(0, dados.getQuantidadeTotal() - emprestados));
+            }
+        }
+        bookRepository.inserirEmLote(novos, tamanhoBatch);
+
+        List<Book> snapshots = porIsbn.values().stream().map(Book::copiar).toList();
+        aposCommit(() -> {
+            for (Book snapshot : snapshots) {
+                cache.invalidar(snapshot.getId());
+                jsonCache.invalidar(snapshot.getId());
+                bookSearchIndex.indexar(snapshot);
+            }
+        });
+        return inseridos;
+    }
+
+    /**
+     * Reserva um exemplar do livro com um UPDATE condicional no banco
+     * (disponível - 1 apenas se disponível > 0), sem ler e regravar a entidade.
+     *
+     * Deve ser chamado antes de o livro ser carregado na transação: o livro
+     * devolvido é lido depois da atualização, sem passar pelo cache de segundo
+     * nível, e já reflete o novo estoque.
+     *
+     * @param id ID do livro
+     * @return livro com o estoque atualizado
+     * @throws BookNotFoundException se o livro não existe
+     * @throws InsufficientStockException se não há exemplares disponíveis
+     */
+    public Book reservarExemplar(Long id) {
+        if (bookStockBatchRepository.decrementarDisponivel(id) == 0) {
+            Book book = buscarPorId(id);
+            reservasSemEstoque.increment();
+            throw new InsufficientStockException(
+                    "Não há exemplares disponíveis do livro '" + book.getTitulo() + "'.");
+        }
+        aposCommit(() -> {
+            cache.invalidar(id);
+            jsonCache.invalidar(id);
+            bookSearchIndex.ajustarDisponivel(id, -1);
+        });
+        return bookRepository.buscarSemCache(id)
+                .orElseThrow(() -> new BookNotFoundException("Livro não encontrado com ID: " + id));
+    }
+
+    /**
+     * Devolve um exemplar do livro ao estoque com um único UPDATE no banco.
+     *
+     * Uma instância do livro já carregada na transação não é alterada
+     * (e por isso não sobrescreve o estoque no flush).
+     *
+     * @param id ID do livro
+     * @throws BookNotFoundException se o livro não existe
+     */
+    public void liberarExemplar(Long id) {
+        if (bookStockBatchRepository.incrementarDisponivel(id) == 0) {
+            throw new BookNotFoundException("Livro não encontrado com ID: " + id);
+        }
+        aposCommit(() -> {
+            cache.invalidar(id);
+            jsonCache.invalidar(id);
+            bookSearchIndex.ajustarDisponivel(id, 1);
+        });
+    }
+
+    /**
+     * Reserva um exemplar para cada posição da lista em um único batch JDBC
+     * de UPDATEs condicionais (mesma regra de {@link #reservarExemplar}).
+     *
+     * @param ids IDs dos livros, um por exemplar a reservar
+     * @return para cada posição, true se o exemplar foi reservado
+     */
+    public boolean[] reservarExemplares(List<Long> ids) {
+        boolean[] reservados = bookStockBatchRepository.decrementarDisponivel(ids);
+        for (boolean reservado : reservados) {
+            if (!reservado) {
+                reservasSemEstoque.increment();
+            }
+        }
+        aposCommitAjustarEstoque(ids, reservados, -1);
+        return reservados;
+    }
+
+    /**
+     * Devolve um exemplar para cada posição da lista em um único batch JDBC.
+     *
+     * @param ids IDs dos livros, um por exemplar devolvido
+     * @return para cada posição, true se o estoque foi atualizado
+     */
+    public boolean[] liberarExemplares(List<Long> ids) {
+        boolean[] liberados = bookStockBatchRepository.incrementarDisponivel(ids);
+        aposCommitAjustarEstoque(ids, liberados, 1);
+        return liberados;
+    }
+
+    private void aposCommitAjustarEstoque(List<Long> ids, boolean[] alterados, int delta) {
+        aposCommit(() -> {
+            for (int i = 0; i < alterados.length; i++) {
+                if (alterados[i]) {
+                    cache.invalidar(ids.get(i));
+                    jsonCache.invalidar(ids.get(i));
+                    bookSearchIndex.ajustarDisponivel(ids.get(i), delta);
+                }
+            }
+        });
     }
 
     public Book atualizar(Long id, Book dados) {
@@ -49,11 +309,23 @@ public class BookService {
         existente.setQuantidadeTotal(dados.getQuantidadeTotal());
         existente.setQuantidadeDisponivel(dados.getQuantidadeDisponivel());
 
-        return bookRepository.save(existente);
+        return salvar(existente);
     }
 
     public void deletar(Long id) {
         Book existente = buscarPorId(id);
         bookRepository.delete(existente);
+        aposCommit(() -> {
+            cache.invalidar(id);
+            jsonCache.invalidar(id);
+            bookSearchIndex.remover(id);
+        });
+    }
+
+    /**
+     * @return reservas de exemplar negadas por falta de estoque desde a inicialização
+     */
+    public long getReservasSemEstoque() {
+        return reservasSemEstoque.sum();
     }
 }
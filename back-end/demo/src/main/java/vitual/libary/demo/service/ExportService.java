@@ -0,0 +1,198 @@
+package vitual.libary.demo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vitual.libary.demo.dto.BookResponse;
+import vitual.libary.demo.dto.LoanFilter;
+import vitual.libary.demo.dto.LoanSummary;
+import vitual.libary.demo.repository.BookRepository;
+import vitual.libary.demo.repository.LoanRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Exportação do acervo e do histórico de empréstimos em NDJSON ou CSV.
+ *
+ * As linhas vêm de um Stream do Hibernate (cursor só de avanço, com fetch
+ * size) e são escritas uma a uma na saída, sem montar listas: a memória usada
+ * é a mesma para mil ou para milhões de linhas. A transação é somente leitura
+ * e fica aberta durante toda a escrita (com réplicas, vai para uma réplica).
+ */
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private static final List<Coluna<BookResponse>> COLUNAS_LIVRO = List.of(
+            new Coluna<>("id", BookResponse::getId),
+            new Coluna<>("titulo", BookResponse::getTitulo),
+            new Coluna<>("autor", BookResponse::getAutor),
+            new Coluna<>("anoPublicacao", BookResponse::getAnoPublicacao),
+            new Coluna<>("isbn", BookResponse::getIsbn),
+            new Coluna<>("quantidadeTotal", BookResponse::getQuantidadeTotal),
+            new Coluna<>("quantidadeDisponivel", BookResponse::getQuantidadeDisponivel));
+
+    private static final List<Coluna<LoanSummary>> COLUNAS_EMPRESTIMO = List.of(
+            new Coluna<>("id", LoanSummary::getId),
+            new Coluna<>("loanDate", LoanSummary::getLoanDate),
+            new Coluna<>("returnDate", LoanSummary::getReturnDate),
+            new Coluna<>("returned", LoanSummary::isReturned),
+            new Coluna<>("bookId", l -> l.getBook().getId()),
+            new Coluna<>("bookTitulo", l -> l.getBook().getTitulo()),
+            new Coluna<>("bookAutor", l -> l.getBook().getAutor()),
+            new Coluna<>("bookIsbn", l -> l.getBook().getIsbn()),
+            new Coluna<>("userId", l -> l.getUser().getId()),
+            new Coluna<>("userNome", l -> l.getUser().getNome()),
+            new Coluna<>("userEmail", l -> l.getUser().getEmail()));
+
+    /**
+     * Formatos aceitos no parâmetro format.
+     */
+    public enum Formato {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+        private final MediaType tipo;
+        private final String extensao;
+
+        Formato(MediaType tipo, String extensao) {
+            this.tipo = tipo;
+            this.extensao = extensao;
+        }
+
+        public MediaType getTipo() {
+            return tipo;
+        }
+
+        public String getExtensao() {
+            return extensao;
+        }
+
+        /**
+         * @param valor valor do parâmetro format (ndjson ou csv; vazio = ndjson)
+         * @return formato correspondente
+         */
+        public static Formato de(String valor) {
+            if (valor == null || valor.isBlank()) {
+                return NDJSON;
+            }
+            try {
+                return valueOf(valor.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Formato de exportação inválido: " + valor);
+            }
+        }
+    }
+
+    private final BookRepository bookRepository;
+    private final LoanRepository loanRepository;
+    private final ObjectWriter jsonWriter;
+
+    public ExportService(BookRepository bookRepository, LoanRepository loanRepository, ObjectMapper objectMapper) {
+        this.bookRepository = bookRepository;
+        this.loanRepository = loanRepository;
+        this.jsonWriter = objectMapper.writer();
+    }
+
+    /**
+     * Escreve o acervo inteiro, em ordem de ID.
+     *
+     * @param formato NDJSON (um BookResponse por linha) ou CSV (com cabeçalho)
+     * @param saida destino; é esvaziado (flush) ao final, mas não fechado
+     * @return quantidade de livros escritos
+     */
+    @Transactional(readOnly = true)
+    public long exportarLivros(Formato formato, OutputStream saida) throws IOException {
+        try (Stream<BookResponse> livros = bookRepository.percorrerResumos()) {
+            return escrever("livros", livros, formato, COLUNAS_LIVRO, saida);
+        }
+    }
+
+    /**
+     * Escreve o histórico de empréstimos, do mais recente para o mais antigo.
+     *
+     * @param filtro filtros opcionais (os mesmos da listagem)
+     * @param formato NDJSON (um LoanSummary por linha) ou CSV (livro e usuário em colunas)
+     * @param saida destino; é esvaziado (flush) ao final, mas não fechado
+     * @return quantidade de empréstimos escritos
+     */
+    @Transactional(readOnly = true)
+    public long exportarEmprestimos(LoanFilter filtro, Formato formato, OutputStream saida) throws IOException {
+        try (Stream<LoanSummary> emprestimos = loanRepository.percorrerResumos(filtro)) {
+            return escrever("emprestimos", emprestimos, formato, COLUNAS_EMPRESTIMO, saida);
+        }
+    }
+
+    private <T> long escrever(String nome, Stream<T> linhas, Formato formato, List<Coluna<T>> colunas,
+                              OutputStream saida) throws IOException {
+        long inicio = System.nanoTime();
+        long quantidade = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), TAMANHO_BUFFER);
+
+        if (formato == Formato.CSV) {
+            escreverLinhaCsv(writer, colunas, Coluna::nome);
+        }
+        for (Iterator<T> it = linhas.iterator(); it.hasNext(); quantidade++) {
+            T linha = it.next();
+            if (formato == Formato.CSV) {
+                escreverLinhaCsv(writer, colunas, coluna -> coluna.valor().apply(linha));
+            } else {
+                writer.write(jsonWriter.writeValueAsString(linha));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+
+        log.info("Exportação de {} em {}: {} linhas em {} ms", nome, formato, quantidade,
+                (System.nanoTime() - inicio) / 1_000_000);
+        return quantidade;
+    }
+
+    private static <T> void escreverLinhaCsv(Writer writer, List<Coluna<T>> colunas,
+                                             Function<Coluna<T>, Object> valor) throws IOException {
+        for (int i = 0; i < colunas.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object campo = valor.apply(colunas.get(i));
+            if (campo != null) {
+                writer.write(campoCsv(campo.toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Campo CSV (RFC 4180): entre aspas quando tem vírgula, aspas ou quebra de linha.
+     */
+    static String campoCsv(String valor) {
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0
+                && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Coluna do CSV: cabeçalho e como extrair o valor de cada linha.
+     */
+    private record Coluna<T>(String nome, Function<T, Object> valor) {
+    }
+}
@@ -0,0 +1,129 @@
+package vitual.libary.demo.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Leitura de CSV (RFC 4180) registro a registro, para as importações: campos
+ * entre aspas podem ter vírgulas, aspas dobradas e quebras de linha.
+ *
+ * A primeira linha é o cabeçalho; os campos são lidos pelo nome da coluna, em
+ * qualquer ordem, e colunas desconhecidas são ignoradas. Linhas em branco são
+ * puladas.
+ */
+final class LeitorCsv {
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> colunas = new HashMap<>();
+    private List<String> campos;
+    private long linhasLidas;
+    private long inicioRegistro;
+
+    /**
+     * @param reader conteúdo do arquivo; precisa aceitar mark (BufferedReader)
+     * @param obrigatorias colunas que precisam estar no cabeçalho
+     * @throws IllegalArgumentException se faltar uma coluna obrigatória
+     */
+    LeitorCsv(BufferedReader reader, List<String> obrigatorias) throws IOException {
+        this.reader = reader;
+        List<String> cabecalho = registro();
+        for (int i = 0; cabecalho != null && i < cabecalho.size(); i++) {
+            colunas.put(cabecalho.get(i).trim(), i);
+        }
+        List<String> faltando = obrigatorias.stream().filter(c -> !colunas.containsKey(c)).toList();
+        if (!faltando.isEmpty()) {
+            throw new IllegalArgumentException("Colunas obrigatórias ausentes no CSV: " + faltando);
+        }
+    }
+
+    /**
+     * Avança para o próximo registro.
+     *
+     * @return false no fim do arquivo
+     */
+    boolean proximo() throws IOException {
+        do {
+            campos = registro();
+        } while (campos != null && campos.size() == 1 && campos.get(0).isBlank());
+        return campos != null;
+    }
+
+    /**
+     * @return linha do arquivo em que o registro atual começa (a 1 é o cabeçalho)
+     */
+    long linha() {
+        return inicioRegistro;
+    }
+
+    /**
+     * @return valor da coluna no registro atual; null se vazio ou sem a coluna
+     */
+    String texto(String coluna) {
+        Integer indice = colunas.get(coluna);
+        if (indice == null || indice >= campos.size() || campos.get(indice).isEmpty()) {
+            return null;
+        }
+        return campos.get(indice);
+    }
+
+    /**
+     * @return valor inteiro da coluna no registro atual; null se vazio
+     * @throws NumberFormatException com a coluna e o valor na mensagem, se não for um inteiro
+     */
+    Integer inteiro(String coluna) {
+        String valor = texto(coluna);
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Valor inválido para " + coluna + ": " + valor);
+        }
+    }
+
+    // Próximo registro, ou null no fim; inicioRegistro recebe a linha em que ele começa
+    private List<String> registro() throws IOException {
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+        inicioRegistro = linhasLidas + 1;
+        List<String> lidos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        for (; c >= 0; c = reader.read()) {
+            if (c == '\n') {
+                linhasLidas++;
+            }
+            if (entreAspas) {
+                if (c != '"') {
+                    campo.append((char) c);
+                    continue;
+                }
+                reader.mark(1);
+                if (reader.read() == '"') {
+                    campo.append('"');
+                } else {
+                    reader.reset();
+                    entreAspas = false;
+                }
+            } else if (c == '"' && campo.isEmpty()) {
+                entreAspas = true;
+            } else if (c == ',') {
+                lidos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                campo.append((char) c);
+            }
+        }
+        lidos.add(campo.toString());
+        return lidos;
+    }
+}
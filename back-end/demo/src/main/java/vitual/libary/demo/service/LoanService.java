@@ -1,7 +1,20 @@
 package vitual.libary.demo.service;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import vitual.libary.demo.dto.LoanBatchResponse;
+import vitual.libary.demo.dto.LoanBorrowBatchRequest;
+import vitual.libary.demo.dto.LoanCursor;
+import vitual.libary.demo.dto.LoanFilter;
+import vitual.libary.demo.dto.LoanSummary;
 import vitual.libary.demo.entity.Book;
 import vitual.libary.demo.entity.Loan;
 import vitual.libary.demo.entity.User;
@@ -10,25 +23,70 @@ import vitual.libary.demo.exception.InsufficientStockException;
 import vitual.libary.demo.repository.LoanRepository;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static vitual.libary.demo.service.Transacoes.desfazer;
 
 @Service
 public class LoanService {
 
+    // Índice único de empréstimo em aberto por livro (V9; no H2, idx_loans_livro_em_aberto_unico)
+    private static final String INDICE_EMPRESTIMO_ABERTO = "idx_loans_livro_em_aberto";
+
     private final LoanRepository loanRepository;
     private final BookService bookService;
     private final UserService userService;
 
+    // Limite de itens por lote (empréstimo/devolução em lote)
+    @Value("${app.loans.batch.max-items:100}")
+    private int maxItensLote = 100;
+
     public LoanService(LoanRepository loanRepository, BookService bookService, UserService userService) {
         this.loanRepository = loanRepository;
         this.bookService = bookService;
         this.userService = userService;
     }
 
-    public List<Loan> listarTodos() {
-        return loanRepository.findAll();
+    /**
+     * Lista empréstimos paginados, do mais recente para o mais antigo, já com
+     * livro e usuário resumidos (uma única consulta com JOIN, sem entidades).
+     *
+     * @param filtro filtros opcionais (usuário, livro, devolvido, período)
+     * @param pageable página e tamanho
+     * @return página de resumos
+     */
+    @TimedOperation("listar")
+    public Page<LoanSummary> listar(LoanFilter filtro, Pageable pageable) {
+        return loanRepository.buscarResumos(filtro, pageable);
+    }
+
+    /**
+     * Lista empréstimos por cursor (keyset sobre o ID decrescente), sem OFFSET
+     * e sem COUNT(*). Busca um item a mais para saber se há próxima página.
+     *
+     * @param filtro filtros opcionais (os mesmos em todas as páginas)
+     * @param cursor posição na listagem
+     * @param tamanho quantidade de empréstimos por página
+     * @return fatia de resumos
+     */
+    @TimedOperation("listarPorCursor")
+    public Slice<LoanSummary> listarPorCursor(LoanFilter filtro, LoanCursor cursor, int tamanho) {
+        List<LoanSummary> resumos = loanRepository.buscarResumosAntesDe(filtro, cursor.id(), tamanho + 1);
+        boolean temProxima = resumos.size() > tamanho;
+        List<LoanSummary> conteudo = temProxima ? resumos.subList(0, tamanho) : resumos;
+        return new SliceImpl<>(conteudo, PageRequest.of(0, tamanho), temProxima);
     }
     
+    @TimedOperation("buscarPorId")
     public Loan buscarPorId(Long id) {
         return loanRepository.findById(id)
                 .orElseThrow(() -> new BookNotFoundException("Empréstimo não encontrado com ID: " + id));
@@ -36,53 +94,61 @@ public class LoanService {
 
     /**
      * Realiza o empréstimo de um livro para um usuário.
-     * Valida se há exemplares disponíveis e decrementa o estoque.
+     * O estoque é decrementado por um UPDATE condicional no banco, que só
+     * tem efeito se ainda houver exemplares disponíveis. A regra de um
+     * empréstimo em aberto por livro é garantida pelo índice único
+     * idx_loans_livro_em_aberto: se outra requisição emprestar o mesmo livro
+     * entre a verificação e o INSERT, o banco recusa este.
      * 
      * @param bookId ID do livro
      * @param userId ID do usuário
      * @return Empréstimo criado
      * @throws InsufficientStockException se não há exemplares disponíveis
+     * @throws IllegalStateException se o livro já tem empréstimo em aberto
      */
+    @TimedOperation("emprestar")
+    @RetryOnConflict
     @Transactional
     public Loan emprestar(Long bookId, Long userId) {
-        // 1. Busca as entidades
-        Book book = bookService.buscarPorId(bookId);
+        // 1. Busca o usuário
         User user = userService.buscarPorId(userId);
 
-        // 2. Validação: Verifica se há exemplares disponíveis
-        if (book.getQuantidadeDisponivel() <= 0) {
-            throw new InsufficientStockException(
-                    "Não há exemplares disponíveis do livro '" + book.getTitulo() + "'.");
+        // 2. Lógica de Negócio: Verifica se o livro já está emprestado para este usuário
+        if (loanRepository.existeEmprestimoAberto(bookId)) {
+            throw livroJaEmprestado(bookId);
         }
 
-        // 3. Lógica de Negócio: Verifica se o livro já está emprestado para este usuário
-        loanRepository.findByBookIdAndReturnedFalse(bookId)
-                .ifPresent(loan -> {
-                    throw new IllegalStateException(
-                            "Livro com ID: " + bookId + " já está emprestado.");
-                });
-
-        // 4. Decrementa o estoque
-        book.setQuantidadeDisponivel(book.getQuantidadeDisponivel() - 1);
-        bookService.salvar(book);
+        // 3. Decrementa o estoque (falha se o livro não existe ou está esgotado)
+        Book book = bookService.reservarExemplar(bookId);
 
-        // 5. Cria e Salva o novo Empréstimo
+        // 4. Cria e Salva o novo Empréstimo
         Loan newLoan = new Loan();
         newLoan.setBook(book);
         newLoan.setUser(user);
         newLoan.setLoanDate(LocalDate.now());
         newLoan.setReturned(false);
 
-        return loanRepository.save(newLoan);
+        // ID por IDENTITY: o INSERT (e a verificação do índice único) acontece aqui
+        try {
+            return loanRepository.save(newLoan);
+        } catch (DataIntegrityViolationException e) {
+            if (violouEmprestimoAberto(e)) {
+                throw livroJaEmprestado(bookId);
+            }
+            throw e;
+        }
     }
 
     /**
      * Marca um empréstimo como devolvido.
-     * Incrementa a quantidade disponível do livro.
+     * Incrementa a quantidade disponível do livro direto no banco; o livro
+     * já carregado junto com o empréstimo mantém o estoque lido antes.
      * 
      * @param loanId ID do empréstimo
      * @return Empréstimo marcado como devolvido
      */
+    @TimedOperation("devolver")
+    @RetryOnConflict
     @Transactional
     public Loan devolver(Long loanId) {
         Loan loan = buscarPorId(loanId);
@@ -93,9 +159,7 @@ public class LoanService {
         }
 
         // Incrementa a quantidade disponível
-        Book book = loan.getBook();
-        book.setQuantidadeDisponivel(book.getQuantidadeDisponivel() + 1);
-        bookService.salvar(book);
+        bookService.liberarExemplar(loan.getBook().getId());
 
         // Marca como devolvido
         loan.setReturned(true);
@@ -106,13 +170,16 @@ public class LoanService {
 
     /**
      * Atualiza um empréstimo (altera o livro ou usuário).
-     * Valida a disponibilidade do novo livro se foi alterado.
+     * Se o livro foi alterado, reserva um exemplar do novo (falhando se
+     * estiver esgotado) e devolve o exemplar do antigo ao estoque.
      * 
      * @param loanId ID do empréstimo
      * @param novoBookId Novo ID do livro
      * @param novoUserId Novo ID do usuário
      * @return Empréstimo atualizado
      */
+    @TimedOperation("atualizar")
+    @RetryOnConflict
     @Transactional
     public Loan atualizar(Long loanId, Long novoBookId, Long novoUserId) {
         Loan loan = buscarPorId(loanId);
@@ -123,25 +190,16 @@ public class LoanService {
                     "Não é possível editar um empréstimo que já foi devolvido.");
         }
 
-        Book novoBook = bookService.buscarPorId(novoBookId);
         User novoUser = userService.buscarPorId(novoUserId);
+        Book novoBook = loan.getBook();
 
-        // Se o livro foi alterado, valida a disponibilidade
+        // Se o livro foi alterado, reserva o novo e libera o antigo
         if (!loan.getBook().getId().equals(novoBookId)) {
-            // Libera o livro antigo
-            Book livroAntigo = loan.getBook();
-            livroAntigo.setQuantidadeDisponivel(livroAntigo.getQuantidadeDisponivel() + 1);
-            bookService.salvar(livroAntigo);
-
-            // Valida disponibilidade do novo livro
-            if (novoBook.getQuantidadeDisponivel() <= 0) {
-                throw new InsufficientStockException(
-                        "Não há exemplares disponíveis do livro '" + novoBook.getTitulo() + "'.");
-            }
+            // Decrementa o novo livro (falha se estiver esgotado)
+            novoBook = bookService.reservarExemplar(novoBookId);
 
-            // Decrementa o novo livro
-            novoBook.setQuantidadeDisponivel(novoBook.getQuantidadeDisponivel() - 1);
-            bookService.salvar(novoBook);
+            // Libera o livro antigo
+            bookService.liberarExemplar(loan.getBook().getId());
         }
 
         // Atualiza o empréstimo
@@ -157,6 +215,8 @@ public class LoanService {
      * 
      * @param loanId ID do empréstimo a deletar
      */
+    @TimedOperation("deletar")
+    @RetryOnConflict
     @Transactional
     public void deletar(Long loanId) {
         Loan loan = buscarPorId(loanId);
@@ -168,11 +228,251 @@ public class LoanService {
         }
 
         // Libera o livro
-        Book book = loan.getBook();
-        book.setQuantidadeDisponivel(book.getQuantidadeDisponivel() + 1);
-        bookService.salvar(book);
+        bookService.liberarExemplar(loan.getBook().getId());
 
         // Remove o empréstimo
         loanRepository.delete(loan);
     }
-}
\ No newline at end of file
+
+    /**
+     * Realiza vários empréstimos de uma vez (leitura em lote no balcão).
+     *
+     * Livros, usuários e empréstimos em aberto são carregados com uma consulta
+     * cada; os itens são validados em memória e o estoque é decrementado em um
+     * único batch JDBC de UPDATEs condicionais. No modo atômico, qualquer falha
+     * cancela o lote inteiro; caso contrário, os itens válidos são gravados.
+     *
+     * @param itens pares (livro, usuário), na ordem da leitura
+     * @param atomico true para tudo ou nada
+     * @return resultado item a item
+     */
+    @TimedOperation("emprestarEmLote")
+    @RetryOnConflict
+    @Transactional
+    public LoanBatchResponse emprestarEmLote(List<LoanBorrowBatchRequest.Item> itens, boolean atomico) {
+        validarTamanhoDoLote(itens);
+
+        // 1. Carrega tudo o que o lote precisa: uma consulta por tabela
+        Set<Long> bookIds = itens.stream().map(LoanBorrowBatchRequest.Item::getBookId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> userIds = itens.stream().map(LoanBorrowBatchRequest.Item::getUserId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, Book> livros = bookService.buscarTodosPorId(bookIds);
+        Map<Long, User> usuarios = userService.buscarTodosPorId(userIds);
+        Set<Long> livrosEmprestados = bookIds.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(loanRepository.buscarLivrosComEmprestimoAberto(bookIds));
+
+        // 2. Valida item a item, em memória
+        LoanBatchResponse.ItemResultado[] resultados = new LoanBatchResponse.ItemResultado[itens.size()];
+        List<Integer> validos = new ArrayList<>();
+        for (int i = 0; i < itens.size(); i++) {
+            LoanBorrowBatchRequest.Item item = itens.get(i);
+            String erro = validarEmprestimo(item, livros, usuarios, livrosEmprestados);
+            resultados[i] = new LoanBatchResponse.ItemResultado(
+                    i, null, item.getBookId(), item.getUserId(), false, erro);
+            if (erro == null) {
+                validos.add(i);
+                livrosEmprestados.add(item.getBookId());
+            }
+        }
+        if (atomico && validos.size() < itens.size()) {
+            return rejeitarLote(resultados);
+        }
+
+        // 3. Decrementa o estoque em um único batch
+        List<Long> reservar = validos.stream().map(i -> itens.get(i).getBookId()).toList();
+        boolean[] reservados = bookService.reservarExemplares(reservar);
+
+        List<Loan> novos = new ArrayList<>();
+        List<Integer> indicesNovos = new ArrayList<>();
+        for (int k = 0; k < validos.size(); k++) {
+            int i = validos.get(k);
+            Book book = livros.get(reservar.get(k));
+            if (!reservados[k]) {
+                resultados[i].setErro("Não há exemplares disponíveis do livro '" + book.getTitulo() + "'.");
+                continue;
+            }
+            // Cópia desacoplada: reflete o UPDATE na resposta sem ser regravada pelo JPA
+            book.setQuantidadeDisponivel(book.getQuantidadeDisponivel() - 1);
+
+            Loan newLoan = new Loan();
+            newLoan.setBook(book);
+            newLoan.setUser(usuarios.get(itens.get(i).getUserId()));
+            newLoan.setLoanDate(LocalDate.now());
+            newLoan.setReturned(false);
+            novos.add(newLoan);
+            indicesNovos.add(i);
+        }
+        if (atomico && novos.size() < validos.size()) {
+            desfazer();
+            return rejeitarLote(resultados);
+        }
+
+        // 4. Grava os empréstimos; se outra requisição emprestou um dos livros
+        // depois da consulta do passo 1, o índice único recusa e o lote é desfeito
+        List<Loan> salvos;
+        try {
+            salvos = loanRepository.saveAll(novos);
+        } catch (DataIntegrityViolationException e) {
+            if (violouEmprestimoAberto(e)) {
+                throw new IllegalStateException(
+                        "Um dos livros do lote foi emprestado por outra requisição. Tente novamente.");
+            }
+            throw e;
+        }
+        for (int k = 0; k < salvos.size(); k++) {
+            LoanBatchResponse.ItemResultado resultado = resultados[indicesNovos.get(k)];
+            resultado.setLoanId(salvos.get(k).getId());
+            resultado.setSucesso(true);
+        }
+        return montarRespostaDoLote(atomico, true, resultados);
+    }
+
+    /**
+     * Registra várias devoluções de uma vez.
+     *
+     * Os empréstimos são carregados com livro e usuário em uma única consulta
+     * e o estoque é incrementado em um único batch JDBC. No modo atômico,
+     * qualquer falha cancela o lote inteiro; caso contrário, os itens válidos
+     * são gravados.
+     *
+     * @param loanIds IDs dos empréstimos, na ordem da leitura
+     * @param atomico true para tudo ou nada
+     * @return resultado item a item
+     */
+    @TimedOperation("devolverEmLote")
+    @RetryOnConflict
+    @Transactional
+    public LoanBatchResponse devolverEmLote(List<Long> loanIds, boolean atomico) {
+        validarTamanhoDoLote(loanIds);
+
+        // 1. Carrega os empréstimos com livro e usuário (uma consulta)
+        Set<Long> ids = loanIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, Loan> emprestimos = ids.isEmpty()
+                ? Map.of()
+                : loanRepository.findByIdIn(ids).stream()
+                        .collect(Collectors.toMap(Loan::getId, Function.identity()));
+
+        // 2. Valida item a item, em memória
+        LoanBatchResponse.ItemResultado[] resultados = new LoanBatchResponse.ItemResultado[loanIds.size()];
+        List<Loan> validos = new ArrayList<>();
+        List<Integer> indicesValidos = new ArrayList<>();
+        Set<Long> vistos = new HashSet<>();
+        for (int i = 0; i < loanIds.size(); i++) {
+            Long loanId = loanIds.get(i);
+            Loan loan = loanId != null ? emprestimos.get(loanId) : null;
+            String erro = validarDevolucao(loanId, loan, vistos);
+            resultados[i] = new LoanBatchResponse.ItemResultado(i, loanId,
+                    loan != null ? loan.getBook().getId() : null,
+                    loan != null ? loan.getUser().getId() : null,
+                    false, erro);
+            if (erro == null) {
+                validos.add(loan);
+                indicesValidos.add(i);
+            }
+        }
+        if (atomico && validos.size() < loanIds.size()) {
+            return rejeitarLote(resultados);
+        }
+
+        // 3. Incrementa o estoque em um único batch
+        boolean[] liberados = bookService.liberarExemplares(
+                validos.stream().map(loan -> loan.getBook().getId()).toList());
+
+        // 4. Marca como devolvidos (gravados no flush, com verificação de versão)
+        for (int k = 0; k < validos.size(); k++) {
+            LoanBatchResponse.ItemResultado resultado = resultados[indicesValidos.get(k)];
+            if (!liberados[k]) {
+                resultado.setErro("Livro não encontrado com ID: " + resultado.getBookId());
+                continue;
+            }
+            Loan loan = validos.get(k);
+            loan.setReturned(true);
+            loan.setReturnDate(LocalDate.now());
+            resultado.setSucesso(true);
+        }
+        if (atomico && Arrays.stream(resultados).anyMatch(r -> !r.isSucesso())) {
+            desfazer();
+            return rejeitarLote(resultados);
+        }
+        return montarRespostaDoLote(atomico, true, resultados);
+    }
+
+    private static IllegalStateException livroJaEmprestado(Long bookId) {
+        return new IllegalStateException("Livro com ID: " + bookId + " já está emprestado.");
+    }
+
+    private static boolean violouEmprestimoAberto(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violacao
+                && violacao.getConstraintName() != null
+                && violacao.getConstraintName().toLowerCase(Locale.ROOT).contains(INDICE_EMPRESTIMO_ABERTO);
+    }
+
+    private void validarTamanhoDoLote(List<?> itens) {
+        if (itens == null || itens.isEmpty()) {
+            throw new IllegalArgumentException("O lote deve ter pelo menos um item.");
+        }
+        if (itens.size() > maxItensLote) {
+            throw new IllegalArgumentException("O lote deve ter no máximo " + maxItensLote + " itens.");
+        }
+    }
+
+    private static String validarEmprestimo(LoanBorrowBatchRequest.Item item, Map<Long, Book> livros,
+                                            Map<Long, User> usuarios, Set<Long> livrosEmprestados) {
+        if (item == null || item.getBookId() == null || item.getUserId() == null) {
+            return "bookId e userId são obrigatórios.";
+        }
+        if (!usuarios.containsKey(item.getUserId())) {
+            return "Usuário não encontrado com ID: " + item.getUserId();
+        }
+        Book book = livros.get(item.getBookId());
+        if (book == null) {
+            return "Livro não encontrado com ID: " + item.getBookId();
+        }
+        if (livrosEmprestados.contains(item.getBookId())) {
+            return "Livro com ID: " + item.getBookId() + " já está emprestado.";
+        }
+        if (book.getQuantidadeDisponivel() <= 0) {
+            return "Não há exemplares disponíveis do livro '" + book.getTitulo() + "'.";
+        }
+        return null;
+    }
+
+    private static String validarDevolucao(Long loanId, Loan loan, Set<Long> vistos) {
+        if (loanId == null) {
+            return "O ID do empréstimo é obrigatório.";
+        }
+        if (loan == null) {
+            return "Empréstimo não encontrado com ID: " + loanId;
+        }
+        if (!vistos.add(loanId)) {
+            return "Empréstimo com ID: " + loanId + " repetido no lote.";
+        }
+        if (loan.isReturned()) {
+            return "O empréstimo com ID: " + loanId + " já foi devolvido.";
+        }
+        return null;
+    }
+
+    /**
+     * Lote atômico com alguma falha: nada é gravado e os itens que estavam
+     * válidos voltam marcados como cancelados.
+     */
+    private static LoanBatchResponse rejeitarLote(LoanBatchResponse.ItemResultado[] resultados) {
+        for (LoanBatchResponse.ItemResultado resultado : resultados) {
+            resultado.setSucesso(false);
+            if (resultado.getErro() == null) {
+                resultado.setErro("Lote cancelado: outro item do lote falhou.");
+            }
+        }
+        return montarRespostaDoLote(true, false, resultados);
+    }
+
+    private static LoanBatchResponse montarRespostaDoLote(boolean atomico, boolean confirmado,
+                                                          LoanBatchResponse.ItemResultado[] resultados) {
+        int sucessos = (int) Arrays.stream(resultados).filter(LoanBatchResponse.ItemResultado::isSucesso).count();
+        return new LoanBatchResponse(atomico, confirmado, sucessos, resultados.length - sucessos,
+                Arrays.asList(resultados));
+    }
+}
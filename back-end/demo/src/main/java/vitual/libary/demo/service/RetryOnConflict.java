@@ -0,0 +1,32 @@
+package vitual.libary.demo.service;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Repete a operação transacional quando ela perde um conflito de versão (@Version).
+ *
+ * O número de tentativas e o backoff exponencial com jitter vêm de
+ * app.loans.retry.*; o jitter evita que as operações que colidiram
+ * voltem a colidir na nova tentativa. Conflitos e tentativas são
+ * contados pelo ConflictRetryListener.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Retryable(
+        retryFor = OptimisticLockingFailureException.class,
+        maxAttemptsExpression = "${app.loans.retry.max-attempts:4}",
+        backoff = @Backoff(
+                delayExpression = "${app.loans.retry.initial-delay-ms:20}",
+                maxDelayExpression = "${app.loans.retry.max-delay-ms:200}",
+                multiplier = 2,
+                random = true),
+        listeners = "conflictRetryListener")
+@interface RetryOnConflict {
+}
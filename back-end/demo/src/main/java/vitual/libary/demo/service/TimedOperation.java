@@ -0,0 +1,28 @@
+package vitual.libary.demo.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Mede a duração da operação de serviço no timer biblioteca.operacao,
+ * com as tags servico, operacao e resultado ("sucesso" ou o nome da exceção).
+ *
+ * O tempo inclui as novas tentativas (@RetryOnConflict) e o commit da
+ * transação: o aspecto de métricas envolve os demais interceptadores.
+ *
+ * Uso: @TimedOperation("emprestar")
+ *      public Loan emprestar(...) { ... }
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface TimedOperation {
+
+    /**
+     * @return nome da operação (valor da tag operacao)
+     */
+    String value();
+}
@@ -0,0 +1,47 @@
+package vitual.libary.demo.service;
+
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utilitários para sincronizar estruturas em memória (índice de busca, caches)
+ * com o resultado das transações.
+ */
+final class Transacoes {
+
+    private Transacoes() {
+    }
+
+    /**
+     * Executa a ação após o commit da transação corrente (ex: empréstimo),
+     * para que nada em memória reflita uma alteração desfeita por rollback.
+     * Sem transação ativa, executa imediatamente.
+     */
+    static void aposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+
+    /**
+     * Marca a transação corrente para rollback sem lançar exceção, para que o
+     * método possa devolver uma resposta normal (ex: lote atômico rejeitado).
+     * Sem transação ativa (testes unitários) não faz nada.
+     */
+    static void desfazer() {
+        try {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        } catch (NoTransactionException e) {
+            // Sem transação gerenciada pelo Spring: nada a marcar
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package vitual.libary.demo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+import vitual.libary.demo.dto.UserImportResponse;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Importação de usuários pela linha de comando, como BookImportCommand: com
+ * app.users.import.file, a aplicação importa o arquivo na subida, registra o
+ * resumo e encerra (código 0 sem rejeições, 2 com linhas rejeitadas, 1 em erro).
+ */
+@Component
+@ConditionalOnProperty(name = "app.users.import.file")
+public class UserImportCommand implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportCommand.class);
+
+    private final UserImportService userImportService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${app.users.import.file}")
+    private Path arquivo;
+
+    @Value("${app.users.import.format:}")
+    private String formato;
+
+    public UserImportCommand(UserImportService userImportService, ConfigurableApplicationContext context) {
+        this.userImportService = userImportService;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int codigo;
+        try (InputStream entrada = Files.newInputStream(arquivo)) {
+            UserImportResponse resultado = userImportService.importar(entrada, ExportService.Formato.de(
+                    formato.isBlank() ? extensao(arquivo) : formato));
+            for (UserImportResponse.ErroLinha erro : resultado.getErros()) {
+                log.warn("Linha {} rejeitada ({}): {}", erro.getLinha(), erro.getEmail(), erro.getErro());
+            }
+            log.info("Importação de {} concluída: {} inseridos, {} rejeitados, {} linhas/s",
+                    arquivo, resultado.getInseridos(), resultado.getRejeitados(), resultado.getLinhasPorSegundo());
+            codigo = resultado.getRejeitados() == 0 ? 0 : 2;
+        } catch (Exception e) {
+            log.error("Falha na importação de {}", arquivo, e);
+            codigo = 1;
+        }
+        int saida = codigo;
+        System.exit(SpringApplication.exit(context, () -> saida));
+    }
+
+    private static String extensao(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        return nome.substring(nome.lastIndexOf('.') + 1);
+    }
+}
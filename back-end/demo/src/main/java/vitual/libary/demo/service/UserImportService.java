@@ -0,0 +1,308 @@
+package vitual.libary.demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import vitual.libary.demo.dto.RegisterRequest;
+import vitual.libary.demo.dto.UserImportResponse;
+import vitual.libary.demo.entity.User;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Importação de usuários a partir de CSV ou NDJSON (nome, email, senha e,
+ * opcional, role).
+ *
+ * O custo está no BCrypt, não no banco. O arquivo é lido em lotes de
+ * app.users.import.chunk-size linhas; em cada lote, depois da validação:
+ * uma consulta só verifica quais e-mails já existem (sem gastar BCrypt com
+ * eles), as senhas são codificadas em paralelo em um ForkJoinPool próprio de
+ * app.users.import.parallelism threads (as requisições HTTP não disputam o
+ * pool comum) e os usuários são inseridos em batches JDBC em uma transação.
+ * Fora a lista de erros (até app.users.import.max-errors), só um lote fica em
+ * memória por vez, qualquer que seja o tamanho do arquivo. O progresso é
+ * registrado no log a cada lote.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    // Tamanho das colunas VARCHAR de users (V1)
+    private static final int TAMANHO_MAXIMO_TEXTO = 255;
+    // O BCrypt só considera os primeiros 72 bytes (e o encoder do Spring rejeita o que passar disso)
+    private static final int TAMANHO_MAXIMO_SENHA = 72;
+
+    private static final List<String> COLUNAS_OBRIGATORIAS = List.of("nome", "email", "senha");
+    private static final Set<String> ROLES = Set.of("MEMBRO", "BIBLIOTECARIO");
+
+    private final UserService userService;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectReader leitorJson;
+    private final ForkJoinPool poolDeHash;
+    private final int tamanhoLote;
+    private final int tamanhoBatch;
+    private final int maximoErros;
+
+    public UserImportService(UserService userService, PasswordEncoder passwordEncoder, Validator validator,
+                             ObjectMapper objectMapper,
+                             @Value("${app.users.import.parallelism:0}") int paralelismo,
+                             @Value("${app.users.import.chunk-size:500}") int tamanhoLote,
+                             @Value("${app.users.import.batch-size:50}") int tamanhoBatch,
+                             @Value("${app.users.import.max-errors:1000}") int maximoErros) {
+        this.userService = userService;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.leitorJson = objectMapper.readerFor(RegisterRequest.class);
+        // 0 = um thread por processador
+        this.poolDeHash = new ForkJoinPool(paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors());
+        this.tamanhoLote = tamanhoLote;
+        this.tamanhoBatch = tamanhoBatch;
+        this.maximoErros = maximoErros;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        poolDeHash.shutdown();
+    }
+
+    /**
+     * Lê e grava o arquivo inteiro. E-mails já cadastrados, ou repetidos no
+     * próprio arquivo, são rejeitados (não há atualização de usuários).
+     *
+     * Repetições dentro de um lote são detectadas antes do BCrypt; entre lotes
+     * não há registro em memória: o lote anterior já foi gravado, e a
+     * repetição cai na consulta de e-mails cadastrados (ou, em corrida com
+     * outra requisição, no índice único de lower(email), linha a linha).
+     *
+     * @param entrada conteúdo em UTF-8; não é fechado
+     * @param formato CSV ou NDJSON
+     * @return contagens, vazão e linhas rejeitadas
+     * @throws IllegalArgumentException se faltar uma coluna obrigatória no cabeçalho do CSV
+     */
+    public UserImportResponse importar(InputStream entrada, ExportService.Formato formato) throws IOException {
+        long inicio = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        Leitor leitor = formato == ExportService.Formato.CSV ? new LeitorCsvDeUsuarios(reader) : new LeitorNdjson(reader);
+        Resultado resultado = new Resultado(inicio);
+
+        List<Linha> lote = new ArrayList<>(tamanhoLote);
+        for (Linha linha = leitor.proxima(); linha != null; linha = leitor.proxima()) {
+            resultado.linhas++;
+            String erro = linha.erro() != null ? linha.erro() : validar(linha.dados());
+            if (erro != null) {
+                resultado.rejeitar(linha, erro);
+                continue;
+            }
+            lote.add(linha);
+            if (lote.size() == tamanhoLote) {
+                processar(lote, resultado);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            processar(lote, resultado);
+        }
+
+        long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+        long linhasPorSegundo = resultado.linhas * 1000 / Math.max(1, duracaoMs);
+        log.info("Importação de usuários em {}: {} linhas ({} inseridos, {} rejeitados) em {} ms ({} linhas/s, {} threads de hash)",
+                formato, resultado.linhas, resultado.inseridos, resultado.rejeitados, duracaoMs, linhasPorSegundo,
+                poolDeHash.getParallelism());
+        return new UserImportResponse(resultado.linhas, resultado.inseridos, resultado.rejeitados,
+                duracaoMs, linhasPorSegundo, resultado.erros);
+    }
+
+    private void processar(List<Linha> lote, Resultado resultado) {
+        Set<String> cadastrados = userService.emailsCadastrados(lote.stream().map(UserImportService::chave).toList());
+        Set<String> emailsDoLote = new HashSet<>(lote.size() * 2);
+        List<Linha> novos = new ArrayList<>(lote.size());
+        for (Linha linha : lote) {
+            String chave = chave(linha);
+            if (!emailsDoLote.add(chave)) {
+                resultado.rejeitar(linha, "Email repetido no arquivo: " + linha.dados().getEmail());
+            } else if (cadastrados.contains(chave)) {
+                resultado.rejeitar(linha, "Email já registrado: " + linha.dados().getEmail());
+            } else {
+                novos.add(linha);
+            }
+        }
+
+        // Parallel stream submetido ao pool próprio: as tarefas rodam nas threads dele
+        List<User> usuarios = poolDeHash.submit(() -> novos.parallelStream().map(this::paraUsuario).toList()).join();
+        gravar(novos, usuarios, resultado);
+
+        long decorridoMs = Math.max(1, (System.nanoTime() - resultado.inicio) / 1_000_000);
+        log.info("Importação de usuários: {} linhas lidas, {} inseridos, {} rejeitados ({} linhas/s)",
+                resultado.linhas, resultado.inseridos, resultado.rejeitados, resultado.linhas * 1000 / decorridoMs);
+    }
+
+    private void gravar(List<Linha> linhas, List<User> usuarios, Resultado resultado) {
+        if (usuarios.isEmpty()) {
+            return;
+        }
+        try {
+            userService.importarLote(usuarios, tamanhoBatch);
+            resultado.inseridos += usuarios.size();
+        } catch (DataAccessException | TransactionException e) {
+            if (usuarios.size() == 1) {
+                resultado.rejeitar(linhas.get(0), "Falha ao gravar: " + e.getMostSpecificCause().getMessage());
+                return;
+            }
+            // Ex.: e-mail cadastrado por outra requisição depois da verificação; isola a linha
+            log.warn("Lote de {} usuários rejeitado pelo banco ({}); gravando linha a linha",
+                    usuarios.size(), e.getMostSpecificCause().getMessage());
+            for (int i = 0; i < usuarios.size(); i++) {
+                User usuario = usuarios.get(i);
+                usuario.setId(null);
+                gravar(List.of(linhas.get(i)), List.of(usuario), resultado);
+            }
+        }
+    }
+
+    private User paraUsuario(Linha linha) {
+        RegisterRequest dados = linha.dados();
+        User usuario = new User();
+        usuario.setNome(dados.getNome());
+        usuario.setEmail(dados.getEmail());
+        usuario.setSenha(passwordEncoder.encode(dados.getSenha()));
+        usuario.setRole(dados.getRole());
+        return usuario;
+    }
+
+    private String validar(RegisterRequest dados) {
+        List<String> erros = new ArrayList<>();
+        for (ConstraintViolation<RegisterRequest> violacao : validator.validate(dados)) {
+            erros.add(violacao.getMessage());
+        }
+        if (erros.isEmpty()) {
+            if (dados.getNome().length() > TAMANHO_MAXIMO_TEXTO || dados.getEmail().length() > TAMANHO_MAXIMO_TEXTO) {
+                erros.add("Nome e email têm no máximo " + TAMANHO_MAXIMO_TEXTO + " caracteres.");
+            }
+            if (dados.getSenha().getBytes(StandardCharsets.UTF_8).length > TAMANHO_MAXIMO_SENHA) {
+                erros.add("A senha tem no máximo " + TAMANHO_MAXIMO_SENHA + " bytes.");
+            }
+            if (!ROLES.contains(dados.getRole())) {
+                erros.add("Role inválida: " + dados.getRole());
+            }
+        }
+        return erros.isEmpty() ? null : erros.stream().sorted().collect(Collectors.joining(" "));
+    }
+
+    private static String chave(Linha linha) {
+        return linha.dados().getEmail().toLowerCase(Locale.ROOT);
+    }
+
+    private static RegisterRequest paraRequisicao(String nome, String email, String senha, String role) {
+        RegisterRequest dados = new RegisterRequest();
+        dados.setNome(aparado(nome));
+        dados.setEmail(aparado(email));
+        dados.setSenha(senha);
+        dados.setRole(role == null || role.isBlank() ? "MEMBRO" : role.trim().toUpperCase(Locale.ROOT));
+        return dados;
+    }
+
+    private static String aparado(String texto) {
+        return texto == null ? null : texto.trim();
+    }
+
+    /**
+     * Linha lida do arquivo: os dados do usuário ou o erro de leitura.
+     */
+    private record Linha(long numero, RegisterRequest dados, String erro) {
+    }
+
+    private interface Leitor {
+        // null no fim do arquivo
+        Linha proxima() throws IOException;
+    }
+
+    private final class LeitorNdjson implements Leitor {
+
+        private final BufferedReader reader;
+        private long numero;
+
+        LeitorNdjson(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Linha proxima() throws IOException {
+            String texto;
+            do {
+                texto = reader.readLine();
+                numero++;
+            } while (texto != null && texto.isBlank());
+            if (texto == null) {
+                return null;
+            }
+            try {
+                RegisterRequest dados = leitorJson.readValue(texto);
+                return new Linha(numero, paraRequisicao(dados.getNome(), dados.getEmail(), dados.getSenha(),
+                        dados.getRole()), null);
+            } catch (JsonProcessingException e) {
+                return new Linha(numero, null, "JSON inválido: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static final class LeitorCsvDeUsuarios implements Leitor {
+
+        private final LeitorCsv csv;
+
+        LeitorCsvDeUsuarios(BufferedReader reader) throws IOException {
+            this.csv = new LeitorCsv(reader, COLUNAS_OBRIGATORIAS);
+        }
+
+        @Override
+        public Linha proxima() throws IOException {
+            if (!csv.proximo()) {
+                return null;
+            }
+            return new Linha(csv.linha(), paraRequisicao(csv.texto("nome"), csv.texto("email"),
+                    csv.texto("senha"), csv.texto("role")), null);
+        }
+    }
+
+    private final class Resultado {
+        final long inicio;
+        long linhas;
+        long inseridos;
+        long rejeitados;
+        final List<UserImportResponse.ErroLinha> erros = new ArrayList<>();
+
+        Resultado(long inicio) {
+            this.inicio = inicio;
+        }
+
+        void rejeitar(Linha linha, String erro) {
+            rejeitados++;
+            if (erros.size() < maximoErros) {
+                String email = linha.dados() != null ? linha.dados().getEmail() : null;
+                erros.add(new UserImportResponse.ErroLinha(linha.numero(), email, erro));
+            }
+        }
+    }
+}
@@ -1,32 +1,142 @@
 package vitual.libary.demo.service;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vitual.libary.demo.cache.EntityCache;
+import vitual.libary.demo.cache.EntityCacheRegistry;
+import vitual.libary.demo.dto.UserResponse;
 import vitual.libary.demo.entity.User;
 import vitual.libary.demo.exception.UserNotFoundException;
 import vitual.libary.demo.repository.UserRepository;
+import vitual.libary.demo.security.UserStateRegistry;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static vitual.libary.demo.service.Transacoes.aposCommit;
 
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
+    private final EntityCache<Long, User> cache;
+    private final UserStateRegistry userStateRegistry;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, EntityCacheRegistry cacheRegistry,
+                       UserStateRegistry userStateRegistry) {
         this.userRepository = userRepository;
+        this.cache = cacheRegistry.criar("users", User::copiar);
+        this.userStateRegistry = userStateRegistry;
     }
 
+    @Transactional(readOnly = true)
     public List<User> listarTodos() {
         return userRepository.findAll();
     }
 
+    /**
+     * Todos os usuários como resposta da API, montados na própria consulta (sem a senha).
+     */
+    @Transactional(readOnly = true)
+    public List<UserResponse> listarResumos() {
+        return userRepository.listarResumos();
+    }
+
+    /**
+     * Busca um usuário pelo ID, passando pelo cache de entidades.
+     */
     public User buscarPorId(Long id) {
-        return userRepository.findById(id)
-                .orElseThrow(() -> new UserNotFoundException("Usuário não encontrado com ID: " + id));
+        return cache.obter(id, chave -> userRepository.findById(chave)
+                .orElseThrow(() -> new UserNotFoundException("Usuário não encontrado com ID: " + chave)));
+    }
+
+    /**
+     * Lê o estado atual do usuário no banco, sem o cache de entidades nem o de
+     * segundo nível (invalidados só neste nó). Usado na revalidação dos tokens
+     * do modo stateless.
+     *
+     * @return usuário atual, ou vazio se ele foi removido
+     */
+    public Optional<User> buscarSemCache(Long id) {
+        return userRepository.buscarSemCache(id);
+    }
+
+    /**
+     * Busca vários usuários em uma única consulta (WHERE id IN ...).
+     *
+     * @param ids IDs dos usuários (repetições são ignoradas)
+     * @return usuários encontrados, indexados pelo ID; IDs inexistentes ficam de fora
+     */
+    public Map<Long, User> buscarTodosPorId(Collection<Long> ids) {
+        Map<Long, User> usuarios = new HashMap<>();
+        for (User user : userRepository.findAllById(ids)) {
+            usuarios.put(user.getId(), user);
+        }
+        return usuarios;
+    }
+
+    /**
+     * Verifica de uma vez quais e-mails já estão cadastrados (sem diferenciar
+     * maiúsculas). Não é somente leitura: consulta o primário, não uma réplica.
+     *
+     * @param emails e-mails em minúsculas
+     * @return subconjunto dos e-mails que já existem
+     */
+    @Transactional
+    public Set<String> emailsCadastrados(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(userRepository.buscarEmailsCadastrados(emails));
+    }
+
+    /**
+     * Insere um lote da importação em uma única transação, em batches JDBC.
+     *
+     * @param usuarios usuários novos, com a senha já codificada
+     * @param tamanhoBatch INSERTs por batch JDBC
+     */
+    @Transactional
+    public void importarLote(List<User> usuarios, int tamanhoBatch) {
+        userRepository.inserirEmLote(usuarios, tamanhoBatch);
+        List<User> snapshots = usuarios.stream().map(User::copiar).toList();
+        aposCommit(() -> snapshots.forEach(userStateRegistry::registrarAlteracao));
+    }
+
+    /**
+     * Troca o hash da senha por um novo hash da mesma senha (custo ou formato
+     * atualizado no login), só se o hash gravado ainda for o que foi verificado:
+     * uma troca de senha concorrente não é desfeita.
+     *
+     * @param id ID do usuário
+     * @param hashVerificado hash que acabou de ser conferido no login
+     * @param novoHash novo hash da mesma senha
+     * @return true se o hash foi trocado
+     */
+    @Transactional
+    public boolean atualizarHashDaSenha(Long id, String hashVerificado, String novoHash) {
+        User user = userRepository.findById(id).orElse(null);
+        if (user == null || !hashVerificado.equals(user.getSenha())) {
+            return false;
+        }
+        user.setSenha(novoHash);
+        aposCommit(() -> cache.invalidar(id));
+        return true;
     }
 
     public User salvar(User user) {
-        return userRepository.save(user);
+        User salvo = userRepository.save(user);
+        User snapshot = salvo.copiar();
+        aposCommit(() -> {
+            cache.invalidar(snapshot.getId());
+            userStateRegistry.registrarAlteracao(snapshot);
+        });
+        return salvo;
     }
 
     public User atualizar(Long id, User dados) {
@@ -40,11 +150,15 @@ public class UserService {
             existente.setSenha(dados.getSenha());
         }
 
-        return userRepository.save(existente);
+        return salvar(existente);
     }
 
     public void deletar(Long id) {
         User existente = buscarPorId(id);
         userRepository.delete(existente);
+        aposCommit(() -> {
+            cache.invalidar(id);
+            userStateRegistry.registrarRemocao(id);
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+-- Esquema inicial, equivalente ao que o Hibernate gerava com ddl-auto=update.
+-- Bancos já existentes são marcados nesta versão (spring.flyway.baseline-on-migrate)
+-- e não executam este script.
+
+CREATE TABLE IF NOT EXISTS users (
+    id    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nome  VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    senha VARCHAR(255) NOT NULL,
+    role  VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS books (
+    id                    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    titulo                VARCHAR(255) NOT NULL,
+    autor                 VARCHAR(255) NOT NULL,
+    ano_publicacao        INTEGER      NOT NULL,
+    isbn                  VARCHAR(255) NOT NULL,
+    quantidade_total      INTEGER      NOT NULL,
+    quantidade_disponivel INTEGER      NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS loans (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id     BIGINT  NOT NULL REFERENCES users (id),
+    book_id     BIGINT  NOT NULL REFERENCES books (id),
+    loan_date   DATE    NOT NULL,
+    return_date DATE,
+    returned    BOOLEAN NOT NULL
+);
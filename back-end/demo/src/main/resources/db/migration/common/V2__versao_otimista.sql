@@ -0,0 +1,5 @@
+-- Coluna de versão para o controle de concorrência otimista (@Version) de livros e empréstimos.
+-- Linhas existentes começam na versão 0.
+
+ALTER TABLE books ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE loans ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
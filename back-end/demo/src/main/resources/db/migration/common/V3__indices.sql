@@ -0,0 +1,12 @@
+-- Índices das consultas mais frequentes (válidos em qualquer banco).
+-- Os índices que dependem de recursos do banco (parcial, por expressão)
+-- ficam em db/migration/{vendor}, na V4.
+
+-- Histórico e empréstimos em aberto de um usuário (GET /api/loans?userId=&returned=)
+CREATE INDEX IF NOT EXISTS idx_loans_usuario_devolvido ON loans (user_id, returned);
+
+-- Filtro por período (GET /api/loans?de=&ate=)
+CREATE INDEX IF NOT EXISTS idx_loans_data_emprestimo ON loans (loan_date);
+
+-- Busca de livro por ISBN
+CREATE INDEX IF NOT EXISTS idx_books_isbn ON books (isbn);
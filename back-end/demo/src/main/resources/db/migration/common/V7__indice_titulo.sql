@@ -0,0 +1,5 @@
+-- Listagem por cursor ordenada por título (GET /api/books?cursor=&sort=titulo):
+-- BookRepository.buscarAposTitulo compara o par (titulo, id) com o do último livro
+-- entregue; com este índice cada página é uma busca seguida de leitura em ordem,
+-- sem ordenar a tabela, e custa o mesmo na primeira página e nas profundas.
+CREATE INDEX IF NOT EXISTS idx_books_titulo_id ON books (titulo, id);
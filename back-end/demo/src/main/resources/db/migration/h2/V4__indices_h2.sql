@@ -0,0 +1,5 @@
+-- Equivalentes em H2 dos índices da V4 do PostgreSQL.
+-- O H2 não tem índice parcial nem índice por expressão: o empréstimo em aberto
+-- usa um índice composto e o e-mail fica só com o índice da restrição UNIQUE.
+
+CREATE INDEX IF NOT EXISTS idx_loans_livro_em_aberto ON loans (book_id, returned);
@@ -0,0 +1,8 @@
+-- Equivalente em H2 da V5 do PostgreSQL: IDs de livros pela sequência books_seq
+-- (incremento 50, otimizador pooled-lo). O banco H2 é criado vazio pelo Flyway,
+-- então a sequência começa em 1.
+
+CREATE SEQUENCE IF NOT EXISTS books_seq START WITH 1 INCREMENT BY 50;
+
+ALTER TABLE books ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE books ALTER COLUMN id SET DEFAULT NEXT VALUE FOR books_seq;
@@ -0,0 +1,7 @@
+-- Equivalente em H2 da V6 do PostgreSQL: IDs de usuários pela sequência users_seq
+-- (incremento 50, otimizador pooled-lo).
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT NEXT VALUE FOR users_seq;
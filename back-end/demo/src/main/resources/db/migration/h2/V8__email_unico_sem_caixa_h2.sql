@@ -0,0 +1,6 @@
+-- Equivalente em H2 da V8 do PostgreSQL: e-mail único sem diferenciar maiúsculas.
+-- O H2 não tem índice por expressão; a unicidade fica em uma coluna gerada com
+-- lower(email), que a entidade User não mapeia.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS email_minusculo VARCHAR(255) GENERATED ALWAYS AS (LOWER(email));
+CREATE UNIQUE INDEX IF NOT EXISTS idx_users_email_minusculo ON users (email_minusculo);
@@ -0,0 +1,8 @@
+-- Equivalente em H2 da V9 do PostgreSQL: no máximo um empréstimo em aberto por
+-- livro. Sem índice parcial, a unicidade fica em uma coluna gerada que só tem
+-- valor nas linhas em aberto (o índice único aceita vários NULL); o índice
+-- composto da V4 continua atendendo a consulta.
+
+ALTER TABLE loans ADD COLUMN IF NOT EXISTS livro_em_aberto BIGINT
+    GENERATED ALWAYS AS (CASE WHEN returned THEN NULL ELSE book_id END);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_loans_livro_em_aberto_unico ON loans (livro_em_aberto);
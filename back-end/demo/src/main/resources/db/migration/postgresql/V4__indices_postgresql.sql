@@ -0,0 +1,9 @@
+-- Índices específicos do PostgreSQL.
+
+-- Empréstimo em aberto de um livro (findByBookIdAndReturnedFalse, executado em
+-- todo empréstimo). Índice parcial: só as linhas em aberto entram, então o
+-- tamanho acompanha os empréstimos ativos e não o histórico inteiro.
+CREATE INDEX IF NOT EXISTS idx_loans_livro_em_aberto ON loans (book_id) WHERE returned = false;
+
+-- Login e cadastro (UserRepository.findByEmail compara lower(email))
+CREATE INDEX IF NOT EXISTS idx_users_email_lower ON users (lower(email));
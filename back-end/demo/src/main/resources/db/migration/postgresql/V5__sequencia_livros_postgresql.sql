@@ -0,0 +1,14 @@
+-- IDs de livros por sequência com incremento 50 (Book.id, @SequenceGenerator).
+-- O Hibernate reserva um bloco de 50 IDs por chamada à sequência e, sabendo os IDs
+-- antes do INSERT, agrupa os INSERTs em batches JDBC (com IDENTITY cada INSERT
+-- precisa voltar ao banco para ler o ID gerado).
+--
+-- O valor da sequência é o primeiro ID do bloco (otimizador pooled-lo), então um
+-- INSERT sem ID, pelo DEFAULT da coluna, consome um bloco inteiro e nunca colide
+-- com IDs já reservados pela aplicação.
+
+CREATE SEQUENCE IF NOT EXISTS books_seq INCREMENT BY 50 OWNED BY books.id;
+SELECT setval('books_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM books), false);
+
+ALTER TABLE books ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE books ALTER COLUMN id SET DEFAULT nextval('books_seq');
@@ -0,0 +1,8 @@
+-- IDs de usuários pela sequência users_seq, como os livros na V5 (incremento 50,
+-- otimizador pooled-lo): a importação de usuários grava os INSERTs em batches JDBC.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50 OWNED BY users.id;
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM users), false);
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
@@ -0,0 +1,24 @@
+-- O login compara lower(email) (UserRepository.findByEmail): dois usuários cujos
+-- e-mails diferem só em maiúsculas fariam a busca devolver duas linhas. O índice
+-- lower(email) da V4 passa a ser UNIQUE, o que impede esse cadastro no banco.
+
+-- Interrompe a migração, listando os e-mails, se já houver repetições: as contas
+-- precisam ser unificadas manualmente antes (não há como escolher uma sozinho).
+DO $$
+DECLARE
+    repetidos TEXT;
+BEGIN
+    SELECT string_agg(email_minusculo, ', ')
+      INTO repetidos
+      FROM (SELECT lower(email) AS email_minusculo
+              FROM users
+             GROUP BY lower(email)
+            HAVING count(*) > 1
+             LIMIT 20) AS r;
+    IF repetidos IS NOT NULL THEN
+        RAISE EXCEPTION 'users tem e-mails que diferem só em maiúsculas: %. Unifique as contas e rode a migração de novo.', repetidos;
+    END IF;
+END $$;
+
+DROP INDEX IF EXISTS idx_users_email_lower;
+CREATE UNIQUE INDEX idx_users_email_lower ON users (lower(email));
@@ -0,0 +1,26 @@
+-- Um livro tem no máximo um empréstimo em aberto (regra de LoanService.emprestar).
+-- A verificação na aplicação corre antes do INSERT e, com requisições simultâneas,
+-- duas podiam passar juntas; o índice parcial da V4 passa a ser UNIQUE e o banco
+-- recusa o segundo empréstimo.
+
+-- Interrompe a migração, listando os livros, se já houver mais de um empréstimo em
+-- aberto para o mesmo livro: é preciso devolver ou remover os excedentes antes.
+DO $$
+DECLARE
+    repetidos TEXT;
+BEGIN
+    SELECT string_agg(book_id::TEXT, ', ')
+      INTO repetidos
+      FROM (SELECT book_id
+              FROM loans
+             WHERE returned = false
+             GROUP BY book_id
+            HAVING count(*) > 1
+             LIMIT 20) AS r;
+    IF repetidos IS NOT NULL THEN
+        RAISE EXCEPTION 'loans tem mais de um empréstimo em aberto para os livros %. Devolva os excedentes e rode a migração de novo.', repetidos;
+    END IF;
+END $$;
+
+DROP INDEX IF EXISTS idx_loans_livro_em_aberto;
+CREATE UNIQUE INDEX idx_loans_livro_em_aberto ON loans (book_id) WHERE returned = false;
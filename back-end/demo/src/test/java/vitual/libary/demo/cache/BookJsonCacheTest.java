@@ -0,0 +1,81 @@
+package vitual.libary.demo.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.env.MockEnvironment;
+import vitual.libary.demo.config.SparseFieldsetAdvice;
+import vitual.libary.demo.dto.BookResponse;
+import vitual.libary.demo.entity.Book;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do cache de JSON pré-serializado dos livros.
+ */
+@DisplayName("Testes - Cache de JSON dos livros")
+class BookJsonCacheTest {
+
+    private ObjectMapper mapper;
+    private BookJsonCache jsonCache;
+    private Book livro;
+
+    @BeforeEach
+    void setUp() {
+        // Mesmo filtro padrão do JsonConfig
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .filters(SparseFieldsetAdvice.todosOsCampos())
+                .build();
+        jsonCache = new BookJsonCache(mapper, new MockEnvironment());
+
+        livro = new Book();
+        livro.setId(1L);
+        livro.setTitulo("Dom Casmurro");
+        livro.setAutor("Machado de Assis");
+        livro.setAnoPublicacao(1899);
+        livro.setIsbn("9788535910663");
+        livro.setQuantidadeTotal(5);
+        livro.setQuantidadeDisponivel(3);
+        livro.setVersion(0L);
+    }
+
+    @Test
+    @DisplayName("Deve devolver os mesmos bytes enquanto a versão do livro não mudar")
+    void deveReutilizarJsonDaMesmaVersao() throws Exception {
+        // Act
+        byte[] primeiro = jsonCache.obter(livro);
+        byte[] segundo = jsonCache.obter(livro.copiar());
+
+        // Assert
+        assertSame(primeiro, segundo);
+        assertEquals(mapper.writeValueAsString(BookResponse.de(livro)),
+                new String(segundo, StandardCharsets.UTF_8));
+        assertEquals(1, jsonCache.getAcertos());
+        assertEquals(1, jsonCache.getFaltas());
+        assertEquals(primeiro.length + BookJsonCache.BYTES_POR_ENTRADA, jsonCache.getBytes());
+    }
+
+    @Test
+    @DisplayName("Deve serializar de novo quando a versão muda ou o fragmento é invalidado")
+    void deveSerializarNovaVersao() throws Exception {
+        // Arrange
+        jsonCache.obter(livro);
+        livro.setQuantidadeDisponivel(2);
+        livro.setVersion(1L);
+
+        // Act
+        String novaVersao = new String(jsonCache.obter(livro), StandardCharsets.UTF_8);
+        jsonCache.invalidar(1L);
+        jsonCache.obter(livro);
+
+        // Assert
+        assertEquals(2, mapper.readTree(novaVersao).get("quantidadeDisponivel").asInt());
+        assertEquals(0, jsonCache.getAcertos());
+        assertEquals(3, jsonCache.getFaltas());
+        assertEquals(1, jsonCache.getTamanho());
+    }
+}
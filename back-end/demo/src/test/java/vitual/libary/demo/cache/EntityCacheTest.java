@@ -0,0 +1,68 @@
+package vitual.libary.demo.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do cache de entidades (carregamento concorrente com invalidação).
+ */
+@DisplayName("Testes - Cache de entidades")
+class EntityCacheTest {
+
+    private final AtomicInteger leituras = new AtomicInteger();
+    private Runnable aoCopiar = () -> { };
+    private EntityCache<Long, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        UnaryOperator<String> copiador = valor -> {
+            aoCopiar.run();
+            return valor;
+        };
+        cache = new EntityCache<>("teste", Caffeine.newBuilder().recordStats().build(), copiador,
+                100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    @DisplayName("Deve guardar o valor carregado e devolvê-lo sem ler de novo")
+    void deveGuardarValorCarregado() {
+        // Act
+        cache.obter(1L, this::ler);
+        String segundo = cache.obter(1L, this::ler);
+
+        // Assert
+        assertEquals("v1", segundo);
+        assertEquals(1, leituras.get());
+    }
+
+    @Test
+    @DisplayName("Não deve repor o valor antigo quando uma escrita invalida a chave depois da leitura")
+    void naoDeveReporValorAntigo() {
+        // Arrange - a escrita é confirmada depois da leitura do banco, antes da inserção no cache
+        aoCopiar = () -> {
+            aoCopiar = () -> { };
+            cache.invalidar(1L);
+        };
+
+        // Act
+        String lido = cache.obter(1L, this::ler);
+        String depois = cache.obter(1L, this::ler);
+
+        // Assert
+        assertEquals("v1", lido);
+        assertEquals("v2", depois);
+        assertEquals(2, leituras.get());
+    }
+
+    private String ler(Long chave) {
+        return "v" + leituras.incrementAndGet();
+    }
+}
@@ -0,0 +1,79 @@
+package vitual.libary.demo.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import vitual.libary.demo.exception.ConnectionAdmissionTimeoutException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes da admissão ao pool de conexões (ConnectionAdmissionDataSource).
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes - Admissão ao pool de conexões")
+class ConnectionAdmissionDataSourceTest {
+
+    @Mock
+    private DataSource alvo;
+
+    @Mock
+    private Connection conexaoReal;
+
+    private ConnectionAdmissionDataSource admissao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        lenient().when(alvo.getConnection()).thenReturn(conexaoReal);
+        admissao = new ConnectionAdmissionDataSource(alvo, 2, Duration.ofMillis(50));
+    }
+
+    @Test
+    @DisplayName("Deve recusar após o tempo de espera quando todas as licenças estão em uso")
+    void deveRecusarQuandoLicencasEsgotadas() throws SQLException {
+        // Arrange
+        admissao.getConnection();
+        admissao.getConnection();
+
+        // Act & Assert
+        assertThrows(ConnectionAdmissionTimeoutException.class, () -> admissao.getConnection());
+        assertEquals(1, admissao.getRejeitadas());
+        verify(alvo, times(2)).getConnection();
+    }
+
+    @Test
+    @DisplayName("Deve devolver a licença uma única vez ao fechar a conexão")
+    void deveDevolverLicencaAoFechar() throws SQLException {
+        // Arrange
+        Connection conexao = admissao.getConnection();
+        assertEquals(1, admissao.getLivres());
+
+        // Act
+        conexao.close();
+        conexao.close();
+
+        // Assert
+        assertEquals(2, admissao.getLivres());
+        verify(conexaoReal, times(2)).close();
+    }
+
+    @Test
+    @DisplayName("Deve devolver a licença se o pool falhar ao entregar a conexão")
+    void deveDevolverLicencaSeAlvoFalhar() throws SQLException {
+        // Arrange
+        when(alvo.getConnection()).thenThrow(new SQLException("pool indisponível"));
+
+        // Act & Assert
+        assertThrows(SQLException.class, () -> admissao.getConnection());
+        assertEquals(2, admissao.getLivres());
+    }
+}
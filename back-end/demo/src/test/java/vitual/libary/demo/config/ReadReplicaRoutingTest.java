@@ -0,0 +1,121 @@
+package vitual.libary.demo.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do roteamento para réplicas de leitura, com dois bancos H2 em memória
+ * fazendo o papel de primário e réplica (sem infraestrutura de replicação).
+ */
+@DisplayName("Testes - Roteamento para réplicas de leitura")
+class ReadReplicaRoutingTest {
+
+    private JdbcTemplate primario;
+    private JdbcTemplate replica;
+    private ReadReplicaRegistry registry;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate escrita;
+    private TransactionTemplate leitura;
+
+    @BeforeEach
+    void setUp() {
+        DataSource bancoPrimario = banco("primario");
+        DataSource bancoReplica = banco("replica");
+        primario = new JdbcTemplate(bancoPrimario);
+        replica = new JdbcTemplate(bancoReplica);
+        replica.execute("CREATE TABLE atraso (ms BIGINT)");
+        replica.update("INSERT INTO atraso VALUES (0)");
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", bancoReplica);
+        registry = new ReadReplicaRegistry(replicas, Duration.ofMillis(500), "SELECT ms FROM atraso");
+        registry.verificarAtraso();
+
+        // Mesma montagem do ReadReplicaConfig
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(bancoPrimario);
+        dataSource.setReadOnlyDataSource(new ReadReplicaRoutingDataSource(bancoPrimario, () -> registry));
+
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        escrita = new TransactionTemplate(transactionManager);
+        leitura = new TransactionTemplate(transactionManager);
+        leitura.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primario.execute("SHUTDOWN");
+        replica.execute("SHUTDOWN");
+    }
+
+    private static DataSource banco(String nome) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + nome + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE origem (nome VARCHAR(20))");
+        jdbc.update("INSERT INTO origem VALUES (?)", nome);
+        return dataSource;
+    }
+
+    private String origem(TransactionTemplate transacao) {
+        return transacao.execute(status -> jdbc.queryForObject("SELECT nome FROM origem", String.class));
+    }
+
+    @Test
+    @DisplayName("Deve enviar transações somente leitura à réplica e as demais ao primário")
+    void deveRotearPorTipoDeTransacao() {
+        // Act & Assert
+        assertEquals("replica", origem(leitura));
+        assertEquals("primario", origem(escrita));
+        assertEquals("primario", jdbc.queryForObject("SELECT nome FROM origem", String.class));
+        assertEquals(1, registry.getReplicas().get(0).getLeituras());
+    }
+
+    @Test
+    @DisplayName("Deve ler do primário enquanto a réplica estiver acima do atraso máximo")
+    void deveUsarPrimarioComReplicaAtrasada() {
+        // Arrange
+        replica.update("UPDATE atraso SET ms = 5000");
+        registry.verificarAtraso();
+
+        // Act
+        String atrasada = origem(leitura);
+        replica.update("UPDATE atraso SET ms = 100");
+        registry.verificarAtraso();
+        String recuperada = origem(leitura);
+
+        // Assert
+        assertEquals("primario", atrasada);
+        assertEquals("replica", recuperada);
+        assertEquals(1, registry.getLeiturasNoPrimario());
+    }
+
+    @Test
+    @DisplayName("Deve tirar do rodízio a réplica que não responde à verificação")
+    void deveUsarPrimarioComReplicaForaDoAr() {
+        // Arrange
+        replica.execute("DROP TABLE atraso");
+
+        // Act
+        registry.verificarAtraso();
+
+        // Assert
+        ReadReplicaRegistry.Replica estado = registry.getReplicas().get(0);
+        assertFalse(estado.isDisponivel());
+        assertEquals(-1, estado.getAtrasoMillis());
+        assertEquals("primario", origem(leitura));
+    }
+}
@@ -0,0 +1,77 @@
+package vitual.libary.demo.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import vitual.libary.demo.dto.BookResponse;
+import vitual.libary.demo.dto.CursorPageResponse;
+import vitual.libary.demo.entity.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes das respostas JSON: campos parciais (?fields=) e senha fora da saída.
+ */
+@DisplayName("Testes - Campos parciais nas respostas JSON")
+class SparseFieldsetTest {
+
+    private ObjectMapper mapper;
+    private CursorPageResponse<BookResponse> pagina;
+
+    @BeforeEach
+    void setUp() {
+        // Mesmo filtro padrão do JsonConfig
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .filters(SparseFieldsetAdvice.todosOsCampos())
+                .build();
+        BookResponse livro = new BookResponse(1L, "Dom Casmurro", "Machado de Assis", 1899,
+                "9788535910663", 5, 3);
+        pagina = new CursorPageResponse<>(List.of(livro), 1, false, null);
+    }
+
+    @Test
+    @DisplayName("Deve serializar todos os campos quando fields não é informado")
+    void deveSerializarTodosOsCamposPorPadrao() throws Exception {
+        // Act
+        JsonNode livro = mapper.valueToTree(pagina).get("content").get(0);
+
+        // Assert
+        assertEquals(7, livro.size());
+        assertEquals("Machado de Assis", livro.get("autor").asText());
+    }
+
+    @Test
+    @DisplayName("Deve manter só os campos pedidos, sem alterar o envelope da página")
+    void deveManterSoOsCamposPedidos() throws Exception {
+        // Act
+        String json = mapper.writer(SparseFieldsetAdvice.somente(" id, titulo ,"))
+                .writeValueAsString(pagina);
+        JsonNode raiz = mapper.readTree(json);
+
+        // Assert
+        assertEquals("{\"id\":1,\"titulo\":\"Dom Casmurro\"}", raiz.get("content").get(0).toString());
+        assertFalse(raiz.get("hasNext").asBoolean());
+        assertEquals(1, raiz.get("size").asInt());
+    }
+
+    @Test
+    @DisplayName("Deve aceitar a senha na entrada e nunca escrevê-la na saída")
+    void deveOmitirSenhaNaSaida() throws Exception {
+        // Arrange
+        User user = mapper.readValue("{\"nome\":\"Ana\",\"email\":\"ana@biblioteca.com\",\"senha\":\"segredo\"}",
+                User.class);
+
+        // Act
+        JsonNode json = mapper.valueToTree(user);
+
+        // Assert
+        assertEquals("segredo", user.getSenha());
+        assertFalse(json.has("senha"));
+        assertEquals("ana@biblioteca.com", json.get("email").asText());
+    }
+}
@@ -0,0 +1,77 @@
+package vitual.libary.demo.repository;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes Unitários para BookStockBatchRepository (contagens do batch JDBC).
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - BookStockBatchRepository")
+class BookStockBatchRepositoryTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache cache;
+
+    private BookStockBatchRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        repository = new BookStockBatchRepository(jdbcTemplate, entityManagerFactory);
+    }
+
+    @Test
+    @DisplayName("Deve reservar só as posições em que o UPDATE condicional alterou a linha")
+    void deveUsarContagemDoBatch() {
+        // Arrange
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 0});
+
+        // Act
+        boolean[] reservados = repository.decrementarDisponivel(List.of(1L, 2L));
+
+        // Assert
+        assertArrayEquals(new boolean[]{true, false}, reservados);
+    }
+
+    @Test
+    @DisplayName("Deve falhar o batch sem contagem e passar a usar um UPDATE por item")
+    void deveFalharBatchSemContagem() {
+        // Arrange - driver que não informa a contagem por instrução
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenReturn(new int[]{1, Statement.SUCCESS_NO_INFO});
+        when(jdbcTemplate.update(anyString(), eq(1L))).thenReturn(1);
+        when(jdbcTemplate.update(anyString(), eq(2L))).thenReturn(0);
+
+        // Act & Assert - nada é dado como reservado
+        assertThrows(IncorrectUpdateSemanticsDataAccessException.class,
+                () -> repository.decrementarDisponivel(List.of(1L, 2L)));
+
+        boolean[] reservados = repository.decrementarDisponivel(List.of(1L, 2L));
+        assertArrayEquals(new boolean[]{true, false}, reservados);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+}
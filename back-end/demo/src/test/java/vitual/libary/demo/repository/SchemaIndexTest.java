@@ -0,0 +1,181 @@
+package vitual.libary.demo.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica, pelo plano de execução, que as consultas frequentes de
+ * empréstimos e usuários usam os índices criados pelas migrações Flyway.
+ *
+ * - H2: sempre executado, em memória (db/migration/common + db/migration/h2);
+ * - PostgreSQL: só com BIBLIOTECA_PG_URL definida (e BIBLIOTECA_PG_USER /
+ *   BIBLIOTECA_PG_PASSWORD), em um schema próprio que é apagado ao final.
+ */
+@DisplayName("Testes de Índices - Migrações Flyway")
+class SchemaIndexTest {
+
+    private static final String SCHEMA_POSTGRES = "plano_indices_teste";
+
+    private Flyway flyway;
+
+    @AfterEach
+    void tearDown() {
+        if (flyway != null) {
+            flyway.clean();
+        }
+    }
+
+    @Test
+    @DisplayName("H2: empréstimo em aberto e histórico do usuário devem usar índice")
+    void deveUsarIndicesNoH2() throws SQLException {
+        String url = "jdbc:h2:mem:indices;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        flyway = migrar(url, "sa", "", "h2", null);
+
+        try (Connection conexao = DriverManager.getConnection(url, "sa", "")) {
+            // Act
+            String emAberto = plano(conexao,
+                "EXPLAIN SELECT id FROM loans WHERE book_id = 1 AND returned = false");
+            String historico = plano(conexao,
+                "EXPLAIN SELECT id FROM loans WHERE user_id = 1 AND returned = true");
+            String periodo = plano(conexao,
+                "EXPLAIN SELECT id FROM loans WHERE loan_date >= DATE '2025-01-01'");
+            String isbn = plano(conexao,
+                "EXPLAIN SELECT id FROM books WHERE isbn = '9788535914849'");
+
+            // Assert
+            assertTrue(emAberto.contains("idx_loans_livro_em_aberto"), emAberto);
+            assertTrue(historico.contains("idx_loans_usuario_devolvido"), historico);
+            assertTrue(periodo.contains("idx_loans_data_emprestimo"), periodo);
+            assertTrue(isbn.contains("idx_books_isbn"), isbn);
+        }
+    }
+
+    @Test
+    @DisplayName("H2: e-mails que diferem só em maiúsculas devem ser recusados")
+    void deveRecusarEmailRepetidoSemCaixaNoH2() throws SQLException {
+        String url = "jdbc:h2:mem:email_unico;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        flyway = migrar(url, "sa", "", "h2", null);
+
+        try (Connection conexao = DriverManager.getConnection(url, "sa", "")) {
+            // Arrange
+            inserirUsuario(conexao, "leitor@biblioteca.com");
+
+            // Act & Assert
+            assertThrows(SQLException.class, () -> inserirUsuario(conexao, "Leitor@Biblioteca.com"));
+        }
+    }
+
+    @Test
+    @DisplayName("H2: segundo empréstimo em aberto do mesmo livro deve ser recusado")
+    void deveRecusarSegundoEmprestimoAbertoNoH2() throws SQLException {
+        String url = "jdbc:h2:mem:emprestimo_unico;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        flyway = migrar(url, "sa", "", "h2", null);
+
+        try (Connection conexao = DriverManager.getConnection(url, "sa", "")) {
+            // Arrange
+            inserirLivroEUsuario(conexao);
+            inserirEmprestimo(conexao, 1, true);
+            inserirEmprestimo(conexao, 2, false);
+
+            // Act & Assert - devolvidos não contam; o segundo em aberto é recusado
+            assertThrows(SQLException.class, () -> inserirEmprestimo(conexao, 3, false));
+        }
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "BIBLIOTECA_PG_URL", matches = ".+")
+    @DisplayName("PostgreSQL: empréstimo em aberto deve usar o índice parcial e o login o índice único lower(email)")
+    void deveUsarIndicesNoPostgres() throws SQLException {
+        String url = System.getenv("BIBLIOTECA_PG_URL");
+        String usuario = System.getenv().getOrDefault("BIBLIOTECA_PG_USER", "postgres");
+        String senha = System.getenv().getOrDefault("BIBLIOTECA_PG_PASSWORD", "");
+        flyway = migrar(url, usuario, senha, "postgresql", SCHEMA_POSTGRES);
+
+        try (Connection conexao = DriverManager.getConnection(url, usuario, senha);
+             Statement sessao = conexao.createStatement()) {
+            // Tabelas vazias: desliga o seq scan para verificar que o índice é aplicável
+            sessao.execute("SET search_path TO " + SCHEMA_POSTGRES);
+            sessao.execute("SET enable_seqscan = off");
+
+            // Act
+            String emAberto = plano(conexao,
+                "EXPLAIN SELECT id FROM loans WHERE book_id = 1 AND returned = false");
+            String email = plano(conexao,
+                "EXPLAIN SELECT id FROM users WHERE lower(email) = lower('Leitor@Biblioteca.com')");
+            String historico = plano(conexao,
+                "EXPLAIN SELECT id FROM loans WHERE user_id = 1 AND returned = true");
+
+            // Assert
+            assertTrue(emAberto.contains("idx_loans_livro_em_aberto"), emAberto);
+            assertTrue(email.contains("idx_users_email_lower"), email);
+            assertTrue(historico.contains("idx_loans_usuario_devolvido"), historico);
+
+            inserirUsuario(conexao, "leitor@biblioteca.com");
+            assertThrows(SQLException.class, () -> inserirUsuario(conexao, "Leitor@Biblioteca.com"));
+
+            inserirLivroEUsuario(conexao);
+            inserirEmprestimo(conexao, 1, true);
+            inserirEmprestimo(conexao, 2, false);
+            assertThrows(SQLException.class, () -> inserirEmprestimo(conexao, 3, false));
+        }
+    }
+
+    private static void inserirUsuario(Connection conexao, String email) throws SQLException {
+        try (Statement comando = conexao.createStatement()) {
+            comando.executeUpdate("INSERT INTO users (nome, email, senha, role) VALUES ('Leitor', '"
+                + email + "', 'x', 'USER')");
+        }
+    }
+
+    private static void inserirLivroEUsuario(Connection conexao) throws SQLException {
+        try (Statement comando = conexao.createStatement()) {
+            comando.executeUpdate("INSERT INTO users (id, nome, email, senha, role) "
+                + "VALUES (1000, 'Leitor', 'emprestimo@biblioteca.com', 'x', 'MEMBRO')");
+            comando.executeUpdate("INSERT INTO books (id, titulo, autor, ano_publicacao, isbn, quantidade_total, "
+                + "quantidade_disponivel) VALUES (1000, 'Livro', 'Autor', 2000, '9788535914849', 5, 5)");
+        }
+    }
+
+    private static void inserirEmprestimo(Connection conexao, long id, boolean devolvido) throws SQLException {
+        try (Statement comando = conexao.createStatement()) {
+            comando.executeUpdate("INSERT INTO loans (id, user_id, book_id, loan_date, returned) VALUES ("
+                + id + ", 1000, 1000, DATE '2025-01-01', " + devolvido + ")");
+        }
+    }
+
+    private static Flyway migrar(String url, String usuario, String senha, String banco, String schema) {
+        var configuracao = Flyway.configure()
+            .dataSource(url, usuario, senha)
+            .locations("classpath:db/migration/common", "classpath:db/migration/" + banco)
+            .cleanDisabled(false);
+        if (schema != null) {
+            configuracao.schemas(schema);
+        }
+        Flyway migrador = configuracao.load();
+        migrador.migrate();
+        return migrador;
+    }
+
+    private static String plano(Connection conexao, String sql) throws SQLException {
+        StringBuilder plano = new StringBuilder();
+        try (Statement comando = conexao.createStatement(); ResultSet linhas = comando.executeQuery(sql)) {
+            while (linhas.next()) {
+                plano.append(linhas.getString(1)).append('\n');
+            }
+        }
+        return plano.toString().toLowerCase(Locale.ROOT);
+    }
+}
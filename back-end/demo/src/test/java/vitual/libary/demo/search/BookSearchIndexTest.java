@@ -0,0 +1,120 @@
+package vitual.libary.demo.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import vitual.libary.demo.entity.Book;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes Unitários para BookSearchIndex
+ *
+ * Cobertura de testes:
+ * - normalização de acentos e ISBN
+ * - ranking por relevância e paginação
+ * - sincronização incremental e reconstrução
+ */
+@DisplayName("Testes Unitários - BookSearchIndex")
+class BookSearchIndexTest {
+
+    private BookSearchIndex indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new BookSearchIndex();
+        indice.iniciarReconstrucao();
+        indice.indexarLote(Arrays.asList(
+                livro(1L, "Dom Casmurro", "Machado de Assis", "978-8535911664"),
+                livro(2L, "Memórias Póstumas de Brás Cubas", "Machado de Assis", "978-8535911671"),
+                livro(3L, "O Cortiço", "Aluísio Azevedo", "978-8508133130"),
+                livro(4L, "Machado: uma biografia", "Autor Teste", "111-2223334445")));
+        indice.concluirReconstrucao();
+    }
+
+    @Test
+    @DisplayName("Deve ignorar acentos e maiúsculas na busca")
+    void deveIgnorarAcentosEMaiusculas() {
+        Page<Book> resultado = indice.buscar("MEMORIAS postumas", PageRequest.of(0, 10));
+
+        assertEquals(1, resultado.getTotalElements());
+        assertEquals(2L, resultado.getContent().get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Deve encontrar livro por prefixo e por ISBN sem hífen")
+    void deveEncontrarPorPrefixoEIsbn() {
+        assertEquals(3L, indice.buscar("corti", PageRequest.of(0, 10)).getContent().get(0).getId());
+        assertEquals(1L, indice.buscar("9788535911664", PageRequest.of(0, 10)).getContent().get(0).getId());
+        assertEquals(1L, indice.buscar("978-8535911664", PageRequest.of(0, 10)).getContent().get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Deve priorizar termos encontrados no título")
+    void devePriorizarTitulo() {
+        Page<Book> resultado = indice.buscar("machado", PageRequest.of(0, 10));
+
+        assertEquals(3, resultado.getTotalElements());
+        assertEquals(4L, resultado.getContent().get(0).getId(), "Título pesa mais que autor");
+    }
+
+    @Test
+    @DisplayName("Deve paginar resultados mantendo o total")
+    void devePaginarResultados() {
+        Page<Book> primeira = indice.buscar("machado", PageRequest.of(0, 2));
+        Page<Book> segunda = indice.buscar("machado", PageRequest.of(1, 2));
+
+        assertEquals(2, primeira.getContent().size());
+        assertEquals(1, segunda.getContent().size());
+        assertEquals(3, segunda.getTotalElements());
+        assertEquals(2L, segunda.getContent().get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Deve exigir todos os termos da consulta")
+    void deveExigirTodosOsTermos() {
+        assertEquals(1, indice.buscar("dom machado", PageRequest.of(0, 10)).getTotalElements());
+        assertTrue(indice.buscar("dom azevedo", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve refletir atualizações e remoções incrementais")
+    void deveRefletirAlteracoesIncrementais() {
+        indice.indexar(livro(1L, "Quincas Borba", "Machado de Assis", "978-0000000001"));
+        indice.remover(3L);
+
+        assertTrue(indice.buscar("casmurro", PageRequest.of(0, 10)).isEmpty());
+        assertEquals(1L, indice.buscar("quincas", PageRequest.of(0, 10)).getContent().get(0).getId());
+        assertTrue(indice.buscar("cortico", PageRequest.of(0, 10)).isEmpty());
+        assertEquals(3, indice.tamanho());
+    }
+
+    @Test
+    @DisplayName("Não deve reindexar livro removido durante a reconstrução")
+    void naoDeveReindexarLivroRemovidoDuranteReconstrucao() {
+        indice.iniciarReconstrucao();
+        indice.remover(1L);
+        indice.indexarLote(List.of(livro(1L, "Dom Casmurro", "Machado de Assis", "978-8535911664")));
+        indice.concluirReconstrucao();
+
+        assertTrue(indice.estaPronto());
+        assertTrue(indice.buscar("casmurro", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    private static Book livro(Long id, String titulo, String autor, String isbn) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitulo(titulo);
+        book.setAutor(autor);
+        book.setIsbn(isbn);
+        book.setAnoPublicacao(2000);
+        book.setQuantidadeTotal(1);
+        book.setQuantidadeDisponivel(1);
+        return book;
+    }
+}
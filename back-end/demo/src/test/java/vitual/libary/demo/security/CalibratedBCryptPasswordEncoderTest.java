@@ -0,0 +1,57 @@
+package vitual.libary.demo.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import vitual.libary.demo.config.SecurityConfig;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes Unitários para CalibratedBCryptPasswordEncoder
+ *
+ * Cobertura de testes:
+ * - escolha do custo a partir da medição (entre mínimo e máximo)
+ * - pedido de novo hash para outro custo ou hash sem prefixo (encoder do SecurityConfig)
+ */
+@DisplayName("Testes Unitários - CalibratedBCryptPasswordEncoder")
+class CalibratedBCryptPasswordEncoderTest {
+
+    private static final long ALVO = Duration.ofMillis(250).toNanos();
+
+    @Test
+    @DisplayName("Deve escolher o maior custo dentro da latência alvo, respeitando mínimo e máximo")
+    void deveEscolherCustoPelaLatenciaAlvo() {
+        // Act & Assert - 1 ms no custo 6: custo 13 estima 128 ms, custo 14 estima 256 ms
+        assertEquals(13, CalibratedBCryptPasswordEncoder.escolherCusto(1_000_000L, ALVO, 10, 14));
+        // Máquina lenta: nem o mínimo cabe no alvo, fica o mínimo
+        assertEquals(10, CalibratedBCryptPasswordEncoder.escolherCusto(20_000_000L, ALVO, 10, 14));
+        // Máquina muito rápida: limitado ao máximo
+        assertEquals(14, CalibratedBCryptPasswordEncoder.escolherCusto(10_000L, ALVO, 10, 14));
+    }
+
+    @Test
+    @DisplayName("Deve aceitar hashes antigos e pedir novo hash quando o custo ou o formato diferem")
+    void devePedirNovoHashParaOutroCusto() {
+        // Arrange - mesmo encoder do SecurityConfig, com custo 5
+        PasswordEncoder encoder = new SecurityConfig(null).passwordEncoder(new CalibratedBCryptPasswordEncoder(5));
+        String antigoSemPrefixo = new BCryptPasswordEncoder(5).encode("senha123");
+        String custoMaior = "{bcrypt}" + new BCryptPasswordEncoder(6).encode("senha123");
+
+        // Act
+        String novo = encoder.encode("senha123");
+
+        // Assert
+        assertTrue(novo.startsWith("{bcrypt}$2a$05$"));
+        assertEquals(5, CalibratedBCryptPasswordEncoder.custoDe(novo.substring("{bcrypt}".length())));
+        assertTrue(encoder.matches("senha123", antigoSemPrefixo));
+        assertTrue(encoder.matches("senha123", custoMaior));
+        assertFalse(encoder.matches("outra", novo));
+        assertFalse(encoder.upgradeEncoding(novo));
+        assertTrue(encoder.upgradeEncoding(antigoSemPrefixo));
+        assertTrue(encoder.upgradeEncoding(custoMaior));
+    }
+}
@@ -0,0 +1,94 @@
+package vitual.libary.demo.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import vitual.libary.demo.cache.EntityCacheRegistry;
+import vitual.libary.demo.entity.User;
+import vitual.libary.demo.repository.UserRepository;
+import vitual.libary.demo.service.UserService;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes Unitários para JwtAuthenticationFilter no modo stateless.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - JwtAuthenticationFilter")
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Deve revalidar token antigo sem o cache de entidades e ver o rebaixamento")
+    void deveRevalidarSemCache() throws Exception {
+        // Arrange - usuário já no cache de entidades como BIBLIOTECARIO
+        UserService userService = new UserService(userRepository,
+                new EntityCacheRegistry(new MockEnvironment()), new UserStateRegistry(Duration.ofMinutes(5), 100));
+        when(userRepository.findById(7L)).thenReturn(Optional.of(usuario("BIBLIOTECARIO")));
+        userService.buscarPorId(7L);
+
+        // Rebaixado em outro nó: só o banco (sem cache) já tem a role nova
+        when(userRepository.buscarSemCache(7L)).thenReturn(Optional.of(usuario("MEMBRO")));
+
+        // Token emitido antes da janela de max-staleness, ainda com a role antiga
+        Claims claims = Jwts.claims()
+                .subject("7")
+                .add("email", "ana@biblioteca.com")
+                .add("role", "BIBLIOTECARIO")
+                .issuedAt(new Date(System.currentTimeMillis() - Duration.ofMinutes(10).toMillis()))
+                .build();
+        when(jwtTokenProvider.verifyAndExtract("token")).thenReturn(Optional.of(claims));
+
+        JwtAuthenticationFilter filtro = new JwtAuthenticationFilter(jwtTokenProvider, userService,
+                new UserStateRegistry(Duration.ofMinutes(5), 100), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(filtro, "stateless", true);
+        MockHttpServletRequest requisicao = new MockHttpServletRequest("GET", "/api/books");
+        requisicao.addHeader("Authorization", "Bearer token");
+
+        // Act
+        filtro.doFilter(requisicao, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Assert
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(auth);
+        assertEquals("MEMBRO", auth.getAuthorities().iterator().next().getAuthority());
+        assertEquals("BIBLIOTECARIO", userService.buscarPorId(7L).getRole());
+    }
+
+    private static User usuario(String role) {
+        User user = new User();
+        user.setId(7L);
+        user.setNome("Ana");
+        user.setEmail("ana@biblioteca.com");
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,84 @@
+package vitual.libary.demo.security;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vitual.libary.demo.entity.User;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes Unitários para JwtTokenProvider
+ *
+ * Cobertura de testes:
+ * - verificação e extração das claims em uma única chamada
+ * - tokens adulterados e expirados
+ */
+@DisplayName("Testes Unitários - JwtTokenProvider")
+class JwtTokenProviderTest {
+
+    private static final String SEGREDO =
+            "my-super-secret-key-for-jwt-token-generation-and-validation-biblioteca-2025";
+
+    private JwtTokenProvider provider;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        provider = new JwtTokenProvider(SEGREDO, 86400000L, 100L);
+
+        user = new User();
+        user.setId(7L);
+        user.setNome("João Silva");
+        user.setEmail("joao@email.com");
+        user.setRole("MEMBRO");
+    }
+
+    @Test
+    @DisplayName("Deve verificar o token e devolver as claims")
+    void deveVerificarEExtrairClaims() {
+        // Arrange
+        String token = provider.generateToken(user);
+
+        // Act
+        Optional<Claims> primeira = provider.verifyAndExtract(token);
+        Optional<Claims> segunda = provider.verifyAndExtract(token);
+
+        // Assert
+        assertTrue(primeira.isPresent());
+        assertEquals("7", primeira.get().getSubject());
+        assertEquals("MEMBRO", primeira.get().get("role", String.class));
+        assertSame(primeira.get(), segunda.get());
+        assertEquals(7L, provider.getUserIdFromToken(token));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar token adulterado")
+    void deveRejeitarTokenAdulterado() {
+        // Arrange
+        String token = provider.generateToken(user);
+        String adulterado = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        // Act & Assert
+        assertTrue(provider.verifyAndExtract(token).isPresent());
+        assertFalse(provider.verifyAndExtract(adulterado).isPresent());
+        assertFalse(provider.validateToken("nao-e-um-jwt"));
+        assertFalse(provider.validateToken(null));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar token expirado")
+    void deveRejeitarTokenExpirado() {
+        // Arrange
+        JwtTokenProvider expirando = new JwtTokenProvider(SEGREDO, -1000L, 100L);
+        String token = expirando.generateToken(user);
+
+        // Act & Assert
+        assertFalse(expirando.verifyAndExtract(token).isPresent());
+        assertFalse(provider.validateToken(token));
+    }
+}
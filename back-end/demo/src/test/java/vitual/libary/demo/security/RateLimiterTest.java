@@ -0,0 +1,81 @@
+package vitual.libary.demo.security;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes Unitários para RateLimiter e RateLimitFilter (relógio controlado).
+ */
+@DisplayName("Testes Unitários - RateLimiter")
+class RateLimiterTest {
+
+    private final AtomicLong agora = new AtomicLong();
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        // auth: rajada de 3, uma ficha a cada 2 s; busca desligada
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.rate-limit.auth.capacity", "3")
+                .withProperty("app.rate-limit.auth.per-minute", "30")
+                .withProperty("app.rate-limit.busca.per-minute", "0");
+        rateLimiter = new RateLimiter(environment, agora::get);
+    }
+
+    @Test
+    @DisplayName("Deve aceitar a rajada, recusar a seguinte e repor uma ficha por intervalo")
+    void deveAplicarBaldeDeFichas() {
+        // Act & Assert
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tentar(RateLimiter.Grupo.AUTH, "ip:10.0.0.1"));
+        }
+        assertEquals(TimeUnit.SECONDS.toNanos(2), rateLimiter.tentar(RateLimiter.Grupo.AUTH, "ip:10.0.0.1"));
+        // Outra chave tem o próprio balde
+        assertEquals(0, rateLimiter.tentar(RateLimiter.Grupo.AUTH, "ip:10.0.0.2"));
+
+        agora.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(0, rateLimiter.tentar(RateLimiter.Grupo.AUTH, "ip:10.0.0.1"));
+        assertTrue(rateLimiter.tentar(RateLimiter.Grupo.AUTH, "ip:10.0.0.1") > 0);
+
+        assertEquals(2, rateLimiter.getRejeitadas(RateLimiter.Grupo.AUTH));
+        assertEquals(0, rateLimiter.tentar(RateLimiter.Grupo.BUSCA, "usuario:1"));
+    }
+
+    @Test
+    @DisplayName("Deve responder 429 com Retry-After sem chamar o restante da cadeia")
+    void deveRecusarLoginAcimaDoLimite() throws Exception {
+        // Arrange
+        RateLimitFilter filtro = new RateLimitFilter(rateLimiter);
+        FilterChain cadeia = mock(FilterChain.class);
+
+        // Act
+        MockHttpServletResponse resposta = null;
+        for (int i = 0; i < 4; i++) {
+            MockHttpServletRequest requisicao = new MockHttpServletRequest("POST", "/api/auth/login");
+            requisicao.setRemoteAddr("10.0.0.1");
+            resposta = new MockHttpServletResponse();
+            filtro.doFilter(requisicao, resposta, cadeia);
+        }
+
+        // Assert
+        verify(cadeia, times(3)).doFilter(any(), any());
+        assertEquals(429, resposta.getStatus());
+        assertEquals("2", resposta.getHeader("Retry-After"));
+        assertEquals(RateLimiter.Grupo.BUSCA,
+                RateLimitFilter.grupoDe(new MockHttpServletRequest("GET", "/api/books/7")));
+        assertEquals(RateLimiter.Grupo.GERAL,
+                RateLimitFilter.grupoDe(new MockHttpServletRequest("POST", "/api/books")));
+    }
+}
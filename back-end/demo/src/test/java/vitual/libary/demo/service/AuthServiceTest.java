@@ -0,0 +1,97 @@
+package vitual.libary.demo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import vitual.libary.demo.dto.AuthRequest;
+import vitual.libary.demo.entity.User;
+import vitual.libary.demo.repository.UserRepository;
+import vitual.libary.demo.security.JwtTokenProvider;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes Unitários para AuthService (login com a senha conferida).
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - AuthService")
+class AuthServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    // Custo mínimo do BCrypt para o teste não depender da CPU; mesmo arranjo de SecurityConfig
+    private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+    private AuthService authService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        authService = new AuthService(userRepository, userService, encoder, jwtTokenProvider, true);
+
+        // Hash antigo, sem o prefixo {bcrypt}
+        user = new User();
+        user.setId(1L);
+        user.setNome("Ana");
+        user.setEmail("ana@escola.com");
+        user.setSenha(bcrypt.encode("senha123"));
+        user.setRole("MEMBRO");
+        when(userRepository.buscarPorEmailExato("ana@escola.com")).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    @DisplayName("Deve regravar no login o hash em formato antigo")
+    void deveAtualizarHashNoLogin() {
+        // Arrange
+        String hashAntigo = user.getSenha();
+        when(userService.atualizarHashDaSenha(eq(1L), eq(hashAntigo), anyString())).thenReturn(true);
+        when(jwtTokenProvider.generateToken(user)).thenReturn("token");
+
+        // Act
+        authService.login(requisicao("senha123"));
+
+        // Assert
+        ArgumentCaptor<String> novoHash = ArgumentCaptor.forClass(String.class);
+        verify(userService).atualizarHashDaSenha(eq(1L), eq(hashAntigo), novoHash.capture());
+        assertTrue(novoHash.getValue().startsWith("{bcrypt}"));
+        assertTrue(bcrypt.matches("senha123", novoHash.getValue().substring("{bcrypt}".length())));
+        assertEquals(1, authService.getHashesAtualizados());
+    }
+
+    @Test
+    @DisplayName("Deve recusar senha incorreta sem gerar token nem mexer no hash")
+    void deveRecusarSenhaIncorreta() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> authService.login(requisicao("errada")));
+        verify(userService, never()).atualizarHashDaSenha(any(), any(), any());
+        verify(jwtTokenProvider, never()).generateToken(any());
+    }
+
+    private static AuthRequest requisicao(String senha) {
+        AuthRequest request = new AuthRequest();
+        request.setEmail("ana@escola.com");
+        request.setSenha(senha);
+        return request;
+    }
+}
@@ -0,0 +1,123 @@
+package vitual.libary.demo.service;
+
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import vitual.libary.demo.dto.BookImportResponse;
+import vitual.libary.demo.entity.Book;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes Unitários para BookImportService (leitura, validação e lotes).
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - BookImportService")
+class BookImportServiceTest {
+
+    @Mock
+    private BookService bookService;
+
+    private ValidatorFactory validatorFactory;
+    private BookImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        // Lotes de 2 linhas por transação, batches JDBC de 50, no máximo 10 erros listados
+        importService = new BookImportService(bookService, validatorFactory.getValidator(),
+                Jackson2ObjectMapperBuilder.json().build(), 2, 50, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    @DisplayName("Deve ler CSV com aspas, gravar em lotes e rejeitar linhas inválidas com o número da linha")
+    void deveImportarCsvEmLotes() throws Exception {
+        // Arrange
+        String csv = """
+                isbn,titulo,autor,anoPublicacao,quantidadeTotal
+                978-1,"Memórias, \"\"Póstumas\"\"",Machado de Assis,1881,3
+                978-2,"Iracema
+                (2ª edição)",José de Alencar,1865,2
+                978-3,,Autor,2000,1
+                978-4,O Cortiço,Aluísio Azevedo,mil,1
+                978-5,O Guarani,José de Alencar,1857,4
+                """;
+        when(bookService.importarLote(anyList(), eq(50)))
+                .thenReturn(new boolean[]{true, false}, new boolean[]{true});
+
+        // Act
+        BookImportResponse resultado = importService.importar(entrada(csv), ExportService.Formato.CSV);
+
+        // Assert
+        assertEquals(5, resultado.getLinhas());
+        assertEquals(2, resultado.getInseridos());
+        assertEquals(1, resultado.getAtualizados());
+        assertEquals(2, resultado.getRejeitados());
+        assertEquals(5, resultado.getErros().get(0).getLinha());
+        assertEquals("O título é obrigatório.", resultado.getErros().get(0).getErro());
+        assertEquals(6, resultado.getErros().get(1).getLinha());
+        assertTrue(resultado.getErros().get(1).getErro().contains("anoPublicacao"));
+        verify(bookService).importarLote(argThat(livros -> livros.size() == 2
+                && livros.get(0).getTitulo().equals("Memórias, \"Póstumas\"")
+                && livros.get(0).getQuantidadeDisponivel() == 3
+                && livros.get(1).getTitulo().equals("Iracema\n(2ª edição)")), eq(50));
+    }
+
+    @Test
+    @DisplayName("Deve regravar linha a linha quando o banco rejeita o lote, isolando a linha com erro")
+    void deveIsolarLinhaRejeitadaPeloBanco() throws Exception {
+        // Arrange
+        String ndjson = """
+                {"isbn":"978-1","titulo":"Dom Casmurro","autor":"Machado de Assis","anoPublicacao":1899,"quantidadeTotal":2}
+                {"isbn":"978-2","titulo":"Iracema","autor":"José de Alencar","anoPublicacao":1865,"quantidadeTotal":1}
+
+                {"isbn":"978-3",
+                """;
+        when(bookService.importarLote(anyList(), anyInt())).thenAnswer(invocacao -> {
+            List<Book> livros = invocacao.getArgument(0);
+            if (livros.stream().anyMatch(livro -> livro.getIsbn().equals("978-2"))) {
+                throw new DataIntegrityViolationException("valor muito longo");
+            }
+            return new boolean[livros.size()];
+        });
+
+        // Act
+        BookImportResponse resultado = importService.importar(entrada(ndjson), ExportService.Formato.NDJSON);
+
+        // Assert
+        assertEquals(3, resultado.getLinhas());
+        assertEquals(1, resultado.getAtualizados());
+        assertEquals(2, resultado.getRejeitados());
+        assertEquals("978-2", resultado.getErros().get(0).getIsbn());
+        assertEquals(2, resultado.getErros().get(0).getLinha());
+        assertEquals(4, resultado.getErros().get(1).getLinha());
+        verify(bookService, times(3)).importarLote(anyList(), anyInt());
+    }
+
+    private static InputStream entrada(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -4,23 +4,44 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.aop.framework.ProxyFactory;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import vitual.libary.demo.dto.BookCursor;
+import org.springframework.mock.env.MockEnvironment;
+import vitual.libary.demo.cache.BookJsonCache;
+import vitual.libary.demo.cache.EntityCacheRegistry;
 import vitual.libary.demo.entity.Book;
 import vitual.libary.demo.exception.BookNotFoundException;
+import vitual.libary.demo.exception.InsufficientStockException;
 import vitual.libary.demo.repository.BookRepository;
+import vitual.libary.demo.repository.BookStockBatchRepository;
+import vitual.libary.demo.search.BookSearchIndex;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -42,6 +63,18 @@ class BookServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private BookStockBatchRepository bookStockBatchRepository;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private BookJsonCache bookJsonCache;
+
+    @Spy
+    private EntityCacheRegistry cacheRegistry = new EntityCacheRegistry(new MockEnvironment());
+
     @InjectMocks
     private BookService BookService;
 
@@ -335,6 +368,237 @@ class BookServiceTest {
         verify(bookRepository, times(1)).findByTituloContainingIgnoreCase(termoBusca, pageable);
     }
 
+    @Test
+    @DisplayName("Deve buscar pelo índice em memória quando ele estiver pronto")
+    void deveBuscarPeloIndiceQuandoPronto() {
+        // Arrange
+        String termoBusca = "casmurro";
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<Book> pageResponse = new PageImpl<>(Arrays.asList(livroExemplo));
+
+        when(bookSearchIndex.estaPronto()).thenReturn(true);
+        when(bookSearchIndex.buscar(termoBusca, pageable)).thenReturn(pageResponse);
+
+        // Act
+        Page<Book> resultado = BookService.buscarPorTitulo(termoBusca, pageable);
+
+        // Assert
+        assertEquals(1, resultado.getContent().size());
+        verify(bookRepository, never()).findByTituloContainingIgnoreCase(any(), any());
+    }
+
+    @Test
+    @DisplayName("Não deve tirar conexão do pool quando o índice responde a busca")
+    void naoDeveUsarConexaoQuandoIndiceResponde() {
+        // Arrange - proxy transacional como o do Spring, sobre um DataSource que conta
+        // as conexões pedidas (sem LazyConnectionDataSourceProxy, como sem réplicas)
+        AtomicInteger conexoes = new AtomicInteger();
+        DataSource dataSource = new DelegatingDataSource(
+                new DriverManagerDataSource("jdbc:h2:mem:busca-sem-conexao", "sa", "")) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                conexoes.incrementAndGet();
+                return super.getConnection();
+            }
+        };
+        ProxyFactory fabrica = new ProxyFactory(BookService);
+        fabrica.setProxyTargetClass(true);
+        fabrica.addAdvice(new TransactionInterceptor(new DataSourceTransactionManager(dataSource),
+                new AnnotationTransactionAttributeSource()));
+        BookService comTransacoes = (BookService) fabrica.getProxy();
+
+        Pageable pageable = PageRequest.of(0, 10);
+        when(bookSearchIndex.estaPronto()).thenReturn(true);
+        when(bookSearchIndex.buscar("casmurro", pageable)).thenReturn(new PageImpl<>(Arrays.asList(livroExemplo)));
+        when(bookRepository.findAll(pageable)).thenReturn(new PageImpl<>(Arrays.asList(livroExemplo)));
+
+        // Act
+        comTransacoes.buscarPorTitulo("casmurro", pageable);
+        int conexoesNaBusca = conexoes.get();
+        comTransacoes.listarTodos(pageable);
+
+        // Assert - a listagem (readOnly) pega conexão ao abrir a transação; a busca, não
+        assertEquals(0, conexoesNaBusca);
+        assertEquals(1, conexoes.get());
+    }
+
+    @Test
+    @DisplayName("Deve manter o índice de busca sincronizado ao salvar e deletar")
+    void deveSincronizarIndiceAoSalvarEDeletar() {
+        // Arrange
+        when(bookRepository.save(any(Book.class))).thenReturn(livroExemplo);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(livroExemplo));
+
+        // Act
+        BookService.salvar(livroExemplo);
+        BookService.deletar(1L);
+
+        // Assert
+        verify(bookSearchIndex, times(1)).indexar(any(Book.class));
+        verify(bookSearchIndex, times(1)).remover(1L);
+    }
+
+    @Test
+    @DisplayName("Deve invalidar o JSON em cache ao atualizar, deletar e mexer no estoque")
+    void deveInvalidarJsonEmCache() {
+        // Arrange
+        when(bookRepository.save(any(Book.class))).thenReturn(livroExemplo);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(livroExemplo));
+        when(bookStockBatchRepository.incrementarDisponivel(1L)).thenReturn(1);
+        when(bookStockBatchRepository.decrementarDisponivel(List.of(1L, 2L))).thenReturn(new boolean[]{true, false});
+
+        // Act
+        BookService.atualizar(1L, livroExemplo);
+        BookService.liberarExemplar(1L);
+        BookService.reservarExemplares(List.of(1L, 2L));
+        BookService.deletar(1L);
+
+        // Assert
+        verify(bookJsonCache, times(4)).invalidar(1L);
+        verify(bookJsonCache, never()).invalidar(2L);
+    }
+
+    @Test
+    @DisplayName("Deve listar por cursor continuando após o último ID")
+    void deveListarPorCursorAposUltimoId() {
+        // Arrange
+        Slice<Book> fatia = new SliceImpl<>(Arrays.asList(livroExemplo), PageRequest.of(0, 10), false);
+        BookCursor cursor = BookCursor.decodificar(BookCursor.apos(livroExemplo, BookCursor.Ordenacao.ID).codificar());
+
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(1L, PageRequest.of(0, 10))).thenReturn(fatia);
+
+        // Act
+        Slice<Book> resultado = BookService.listarPorCursor(cursor, 10);
+
+        // Assert
+        assertEquals(1, resultado.getNumberOfElements());
+        verify(bookRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Deve listar por cursor ordenado por título")
+    void deveListarPorCursorOrdenadoPorTitulo() {
+        // Arrange
+        Slice<Book> fatia = new SliceImpl<>(Arrays.asList(livroExemplo), PageRequest.of(0, 5), true);
+        BookCursor cursor = BookCursor.decodificar(BookCursor.apos(livroExemplo, BookCursor.Ordenacao.TITULO).codificar());
+
+        when(bookRepository.buscarAposTitulo("Dom Casmurro", 1L, PageRequest.of(0, 5))).thenReturn(fatia);
+
+        // Act
+        Slice<Book> resultado = BookService.listarPorCursor(cursor, 5);
+
+        // Assert
+        assertTrue(resultado.hasNext());
+        assertEquals("Dom Casmurro", cursor.titulo());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar cursor adulterado")
+    void deveRejeitarCursorAdulterado() {
+        assertThrows(IllegalArgumentException.class, () -> BookCursor.decodificar("nao-e-um-cursor"));
+    }
+
+    @Test
+    @DisplayName("Deve reservar exemplar com UPDATE condicional")
+    void deveReservarExemplarComUpdateCondicional() {
+        // Arrange
+        livroExemplo.setQuantidadeDisponivel(4);
+        when(bookStockBatchRepository.decrementarDisponivel(1L)).thenReturn(1);
+        when(bookRepository.buscarSemCache(1L)).thenReturn(Optional.of(livroExemplo));
+
+        // Act
+        Book resultado = BookService.reservarExemplar(1L);
+
+        // Assert
+        assertEquals(4, resultado.getQuantidadeDisponivel());
+        verify(bookRepository, never()).save(any(Book.class));
+        verify(bookSearchIndex).ajustarDisponivel(1L, -1);
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção ao reservar exemplar de livro esgotado")
+    void deveLancarExcecaoAoReservarLivroEsgotado() {
+        // Arrange
+        livroExemplo.setQuantidadeDisponivel(0);
+        when(bookStockBatchRepository.decrementarDisponivel(1L)).thenReturn(0);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(livroExemplo));
+
+        // Act & Assert
+        InsufficientStockException exception = assertThrows(
+            InsufficientStockException.class,
+            () -> BookService.reservarExemplar(1L)
+        );
+
+        assertTrue(exception.getMessage().contains("Dom Casmurro"));
+        verify(bookSearchIndex, never()).ajustarDisponivel(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Deve liberar exemplar e lançar exceção se o livro não existe")
+    void deveLiberarExemplar() {
+        // Arrange
+        when(bookStockBatchRepository.incrementarDisponivel(1L)).thenReturn(1);
+        when(bookStockBatchRepository.incrementarDisponivel(999L)).thenReturn(0);
+
+        // Act
+        BookService.liberarExemplar(1L);
+
+        // Assert
+        verify(bookSearchIndex).ajustarDisponivel(1L, 1);
+        assertThrows(BookNotFoundException.class, () -> BookService.liberarExemplar(999L));
+    }
+
+    @Test
+    @DisplayName("Deve reservar exemplares em lote e ajustar o índice só dos reservados")
+    void deveReservarExemplaresEmLote() {
+        // Arrange
+        when(bookStockBatchRepository.decrementarDisponivel(List.of(1L, 2L)))
+            .thenReturn(new boolean[]{true, false});
+
+        // Act
+        boolean[] reservados = BookService.reservarExemplares(List.of(1L, 2L));
+
+        // Assert
+        assertArrayEquals(new boolean[]{true, false}, reservados);
+        verify(bookSearchIndex).ajustarDisponivel(1L, -1);
+        verify(bookSearchIndex, never()).ajustarDisponivel(2L, -1);
+    }
+
+    @Test
+    @DisplayName("Deve importar lote inserindo ISBNs novos e atualizando os existentes sem perder empréstimos")
+    void deveImportarLoteComUpsertPorIsbn() {
+        // Arrange - livro existente com 2 exemplares emprestados
+        livroExemplo.setQuantidadeDisponivel(3);
+        Book atualizacao = livroExemplo.copiar();
+        atualizacao.setId(null);
+        atualizacao.setTitulo("Dom Casmurro (edição revista)");
+        atualizacao.setQuantidadeTotal(4);
+        atualizacao.setQuantidadeDisponivel(4);
+        Book novo = livroExemplo.copiar();
+        novo.setId(null);
+        novo.setIsbn("978-8508133594");
+        when(bookRepository.findByIsbnInOrderByIdAsc(any())).thenReturn(List.of(livroExemplo));
+        doAnswer(invocacao -> {
+            List<Book> livros = invocacao.getArgument(0);
+            livros.forEach(livro -> livro.setId(2L));
+            return null;
+        }).when(bookRepository).inserirEmLote(anyList(), anyInt());
+
+        // Act
+        boolean[] inseridos = BookService.importarLote(List.of(atualizacao, novo), 50);
+
+        // Assert
+        assertArrayEquals(new boolean[]{false, true}, inseridos);
+        assertEquals("Dom Casmurro (edição revista)", livroExemplo.getTitulo());
+        assertEquals(4, livroExemplo.getQuantidadeTotal());
+        assertEquals(2, livroExemplo.getQuantidadeDisponivel());
+        assertNull(novo.getId());
+        verify(bookRepository).inserirEmLote(argThat(livros -> livros.size() == 1
+                && livros.get(0).getIsbn().equals("978-8508133594")), eq(50));
+        verify(bookJsonCache).invalidar(1L);
+        verify(bookSearchIndex, times(2)).indexar(any(Book.class));
+    }
+
     @Test
     @DisplayName("Deve deletar livro com sucesso")
     void deveDeletarLivroComSucesso() {
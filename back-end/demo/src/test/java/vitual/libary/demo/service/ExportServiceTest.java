@@ -0,0 +1,103 @@
+package vitual.libary.demo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import vitual.libary.demo.config.SparseFieldsetAdvice;
+import vitual.libary.demo.dto.BookResponse;
+import vitual.libary.demo.dto.LoanFilter;
+import vitual.libary.demo.dto.LoanSummary;
+import vitual.libary.demo.repository.BookRepository;
+import vitual.libary.demo.repository.LoanRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes Unitários para ExportService (formatos NDJSON e CSV).
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - ExportService")
+class ExportServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        // Mesmo filtro padrão do JsonConfig e datas ISO, como o ObjectMapper do Spring Boot
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+                .filters(SparseFieldsetAdvice.todosOsCampos())
+                .build();
+        exportService = new ExportService(bookRepository, loanRepository, mapper);
+    }
+
+    @Test
+    @DisplayName("Deve escrever um livro por linha em NDJSON e fechar o stream da consulta")
+    void deveExportarLivrosEmNdjson() throws Exception {
+        // Arrange
+        AtomicBoolean fechado = new AtomicBoolean();
+        when(bookRepository.percorrerResumos()).thenReturn(Stream.of(
+                new BookResponse(1L, "Dom Casmurro", "Machado de Assis", 1899, "9788535910663", 5, 3),
+                new BookResponse(2L, "Iracema", "José de Alencar", 1865, null, 1, 1))
+                .onClose(() -> fechado.set(true)));
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        // Act
+        long quantidade = exportService.exportarLivros(ExportService.Formato.de("ndjson"), saida);
+
+        // Assert
+        String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, quantidade);
+        assertEquals(2, linhas.length);
+        assertTrue(linhas[0].startsWith("{\"id\":1,\"titulo\":\"Dom Casmurro\""));
+        assertTrue(linhas[1].contains("\"isbn\":null"));
+        assertTrue(fechado.get());
+    }
+
+    @Test
+    @DisplayName("Deve escrever empréstimos em CSV com cabeçalho e campos escapados")
+    void deveExportarEmprestimosEmCsv() throws Exception {
+        // Arrange
+        LoanFilter filtro = new LoanFilter(7L, null, null, null, null);
+        when(loanRepository.percorrerResumos(filtro)).thenReturn(Stream.of(
+                new LoanSummary(10L, LocalDate.of(2025, 3, 1), null, false,
+                        1L, "Memórias, \"Póstumas\"", "Machado de Assis", "978",
+                        7L, "Ana", "ana@biblioteca.com")));
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        // Act
+        exportService.exportarEmprestimos(filtro, ExportService.Formato.de("CSV"), saida);
+
+        // Assert
+        String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals("id,loanDate,returnDate,returned,bookId,bookTitulo,bookAutor,bookIsbn,userId,userNome,userEmail",
+                linhas[0]);
+        assertEquals("10,2025-03-01,,false,1,\"Memórias, \"\"Póstumas\"\"\",Machado de Assis,978,7,Ana,ana@biblioteca.com",
+                linhas[1]);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar formato desconhecido")
+    void deveRejeitarFormatoDesconhecido() {
+        // Act & Assert
+        assertEquals(ExportService.Formato.NDJSON, ExportService.Formato.de(null));
+        assertThrows(IllegalArgumentException.class, () -> ExportService.Formato.de("xml"));
+    }
+}
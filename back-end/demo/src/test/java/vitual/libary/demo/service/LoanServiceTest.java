@@ -7,6 +7,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Slice;
+import vitual.libary.demo.dto.LoanBatchResponse;
+import vitual.libary.demo.dto.LoanBorrowBatchRequest;
+import vitual.libary.demo.dto.LoanCursor;
+import vitual.libary.demo.dto.LoanFilter;
+import vitual.libary.demo.dto.LoanSummary;
 import vitual.libary.demo.entity.Book;
 import vitual.libary.demo.entity.Loan;
 import vitual.libary.demo.entity.User;
@@ -14,11 +22,16 @@ import vitual.libary.demo.exception.BookNotFoundException;
 import vitual.libary.demo.exception.InsufficientStockException;
 import vitual.libary.demo.repository.LoanRepository;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 /**
@@ -33,6 +46,7 @@ import static org.mockito.Mockito.*;
  * - emprestar() - Realizar empréstimo
  * - devolver() - Registrar devolução
  * - atualizar() - Editar empréstimo
+ * - listarPorCursor() - Listagem paginada por cursor
  */
 @ExtendWith(MockitoExtension.class)
 @DisplayName("Testes Unitários - LoanService")
@@ -100,11 +114,10 @@ class LoanServiceTest {
         Long bookId = 1L;
         Long userId = 1L;
 
-        when(bookService.buscarPorId(bookId)).thenReturn(livroDisponivel);
         when(userService.buscarPorId(userId)).thenReturn(usuario);
-        when(loanRepository.findByBookIdAndReturnedFalse(bookId)).thenReturn(Optional.empty());
+        when(loanRepository.existeEmprestimoAberto(bookId)).thenReturn(false);
+        when(bookService.reservarExemplar(bookId)).thenReturn(livroDisponivel);
         when(loanRepository.save(any(Loan.class))).thenReturn(emprestimoAtivo);
-        when(bookService.salvar(any(Book.class))).thenReturn(livroDisponivel);
 
         // Act
         Loan resultado = LoanService.emprestar(bookId, userId);
@@ -116,8 +129,9 @@ class LoanServiceTest {
         assertEquals(LocalDate.now(), resultado.getLoanDate());
         assertFalse(resultado.isReturned());
 
-        // Verificar que o estoque foi decrementado
-        verify(bookService, times(1)).salvar(any(Book.class));
+        // Verificar que o estoque foi decrementado pelo UPDATE condicional
+        verify(bookService, times(1)).reservarExemplar(bookId);
+        verify(bookService, never()).salvar(any(Book.class));
         verify(loanRepository, times(1)).save(any(Loan.class));
     }
 
@@ -128,8 +142,10 @@ class LoanServiceTest {
         Long bookId = 2L;
         Long userId = 1L;
 
-        when(bookService.buscarPorId(bookId)).thenReturn(livroEsgotado);
         when(userService.buscarPorId(userId)).thenReturn(usuario);
+        when(loanRepository.existeEmprestimoAberto(bookId)).thenReturn(false);
+        when(bookService.reservarExemplar(bookId)).thenThrow(new InsufficientStockException(
+            "Não há exemplares disponíveis do livro 'Livro Esgotado'."));
 
         // Act & Assert
         InsufficientStockException exception = assertThrows(
@@ -153,10 +169,8 @@ class LoanServiceTest {
         Long bookId = 1L;
         Long userId = 1L;
 
-        when(bookService.buscarPorId(bookId)).thenReturn(livroDisponivel);
         when(userService.buscarPorId(userId)).thenReturn(usuario);
-        when(loanRepository.findByBookIdAndReturnedFalse(bookId))
-            .thenReturn(Optional.of(emprestimoAtivo));
+        when(loanRepository.existeEmprestimoAberto(bookId)).thenReturn(true);
 
         // Act & Assert
         IllegalStateException exception = assertThrows(
@@ -167,9 +181,31 @@ class LoanServiceTest {
 
         assertTrue(exception.getMessage().contains("já está emprestado"));
 
+        verify(bookService, never()).reservarExemplar(any());
         verify(loanRepository, never()).save(any(Loan.class));
     }
 
+    @Test
+    @DisplayName("Deve responder livro já emprestado quando o índice único recusa o empréstimo concorrente")
+    void deveTraduzirViolacaoDoIndiceDeEmprestimoAberto() {
+        // Arrange - outra requisição emprestou o livro entre a verificação e o INSERT
+        Long bookId = 1L;
+        Long userId = 1L;
+
+        when(userService.buscarPorId(userId)).thenReturn(usuario);
+        when(loanRepository.existeEmprestimoAberto(bookId)).thenReturn(false);
+        when(bookService.reservarExemplar(bookId)).thenReturn(livroDisponivel);
+        when(loanRepository.save(any(Loan.class))).thenThrow(new DataIntegrityViolationException("duplicate key",
+            new ConstraintViolationException("duplicate key", new SQLException(), "idx_loans_livro_em_aberto")));
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(
+            IllegalStateException.class,
+            () -> LoanService.emprestar(bookId, userId)
+        );
+        assertTrue(exception.getMessage().contains("já está emprestado"));
+    }
+
     @Test
     @DisplayName("Deve lançar exceção ao emprestar com livro inexistente")
     void deveLancarExcecaoAoEmprestarComLivroInexistente() {
@@ -177,7 +213,9 @@ class LoanServiceTest {
         Long bookIdInexistente = 999L;
         Long userId = 1L;
 
-        when(bookService.buscarPorId(bookIdInexistente))
+        when(userService.buscarPorId(userId)).thenReturn(usuario);
+        when(loanRepository.existeEmprestimoAberto(bookIdInexistente)).thenReturn(false);
+        when(bookService.reservarExemplar(bookIdInexistente))
             .thenThrow(new BookNotFoundException("Livro não encontrado com ID: 999"));
 
         // Act & Assert
@@ -198,10 +236,8 @@ class LoanServiceTest {
     void deveRegistrarDevolucaoComSucesso() {
         // Arrange
         Long loanId = 1L;
-        int quantidadeAntes = livroDisponivel.getQuantidadeDisponivel();
 
         when(loanRepository.findById(loanId)).thenReturn(Optional.of(emprestimoAtivo));
-        when(bookService.salvar(any(Book.class))).thenReturn(livroDisponivel);
         when(loanRepository.save(any(Loan.class))).thenReturn(emprestimoAtivo);
 
         // Act
@@ -213,7 +249,8 @@ class LoanServiceTest {
         assertEquals(LocalDate.now(), resultado.getReturnDate());
 
         // Verificar que o estoque foi incrementado
-        verify(bookService, times(1)).salvar(any(Book.class));
+        verify(bookService, times(1)).liberarExemplar(1L);
+        verify(bookService, never()).salvar(any(Book.class));
         verify(loanRepository, times(1)).save(any(Loan.class));
     }
 
@@ -238,7 +275,7 @@ class LoanServiceTest {
 
         // Verificar que NÃO salvou novamente
         verify(loanRepository, never()).save(any(Loan.class));
-        verify(bookService, never()).salvar(any(Book.class));
+        verify(bookService, never()).liberarExemplar(any());
     }
 
     @Test
@@ -276,7 +313,6 @@ class LoanServiceTest {
         novoUsuario.setEmail("carlos@teste.com");
 
         when(loanRepository.findById(loanId)).thenReturn(Optional.of(emprestimoAtivo));
-        when(bookService.buscarPorId(novoBookId)).thenReturn(livroDisponivel);
         when(userService.buscarPorId(novoUserId)).thenReturn(novoUsuario);
         when(loanRepository.save(any(Loan.class))).thenReturn(emprestimoAtivo);
 
@@ -290,7 +326,8 @@ class LoanServiceTest {
 
         verify(loanRepository, times(1)).save(any(Loan.class));
         // Como o livro não mudou, não deve alterar estoque
-        verify(bookService, never()).salvar(any(Book.class));
+        verify(bookService, never()).reservarExemplar(any());
+        verify(bookService, never()).liberarExemplar(any());
     }
 
     @Test
@@ -308,9 +345,8 @@ class LoanServiceTest {
         novoLivro.setQuantidadeDisponivel(5);
 
         when(loanRepository.findById(loanId)).thenReturn(Optional.of(emprestimoAtivo));
-        when(bookService.buscarPorId(novoBookId)).thenReturn(novoLivro);
         when(userService.buscarPorId(novoUserId)).thenReturn(usuario);
-        when(bookService.salvar(any(Book.class))).thenReturn(livroDisponivel);
+        when(bookService.reservarExemplar(novoBookId)).thenReturn(novoLivro);
         when(loanRepository.save(any(Loan.class))).thenReturn(emprestimoAtivo);
 
         // Act
@@ -319,8 +355,11 @@ class LoanServiceTest {
         // Assert
         assertNotNull(resultado);
 
-        // Deve ter incrementado o livro antigo e decrementado o novo
-        verify(bookService, times(2)).salvar(any(Book.class));
+        assertEquals(novoLivro, resultado.getBook());
+
+        // Deve ter decrementado o novo livro e incrementado o antigo
+        verify(bookService, times(1)).reservarExemplar(3L);
+        verify(bookService, times(1)).liberarExemplar(1L);
         verify(loanRepository, times(1)).save(any(Loan.class));
     }
 
@@ -354,8 +393,9 @@ class LoanServiceTest {
         Long novoUserId = 1L;
 
         when(loanRepository.findById(loanId)).thenReturn(Optional.of(emprestimoAtivo));
-        when(bookService.buscarPorId(novoBookId)).thenReturn(livroEsgotado);
         when(userService.buscarPorId(novoUserId)).thenReturn(usuario);
+        when(bookService.reservarExemplar(novoBookId)).thenThrow(new InsufficientStockException(
+            "Não há exemplares disponíveis do livro 'Livro Esgotado'."));
 
         // Act & Assert
         InsufficientStockException exception = assertThrows(
@@ -365,8 +405,8 @@ class LoanServiceTest {
 
         assertTrue(exception.getMessage().contains("Não há exemplares disponíveis"));
 
-        // Deve ter liberado o livro antigo mas não salvou o novo empréstimo
-        verify(bookService, times(1)).salvar(any(Book.class)); // Apenas libera o antigo
+        // Falha antes de liberar o livro antigo e não salva o empréstimo
+        verify(bookService, never()).liberarExemplar(any());
         verify(loanRepository, never()).save(any(Loan.class));
     }
 
@@ -381,14 +421,13 @@ class LoanServiceTest {
         Long loanId = 1L;
 
         when(loanRepository.findById(loanId)).thenReturn(Optional.of(emprestimoAtivo));
-        when(bookService.salvar(any(Book.class))).thenReturn(livroDisponivel);
         doNothing().when(loanRepository).delete(any(Loan.class));
 
         // Act
         LoanService.deletar(loanId);
 
         // Assert
-        verify(bookService, times(1)).salvar(any(Book.class));
+        verify(bookService, times(1)).liberarExemplar(1L);
         verify(loanRepository, times(1)).delete(any(Loan.class));
     }
 
@@ -411,4 +450,153 @@ class LoanServiceTest {
 
         verify(loanRepository, never()).delete(any(Loan.class));
     }
-}
\ No newline at end of file
+
+    // ========================================
+    // TESTES PARA MÉTODOS EM LOTE
+    // ========================================
+
+    @Test
+    @DisplayName("Deve emprestar em lote gravando apenas os itens válidos")
+    void deveEmprestarEmLoteParcial() {
+        // Arrange
+        Book outroLivro = new Book();
+        outroLivro.setId(3L);
+        outroLivro.setTitulo("Concorrido");
+        outroLivro.setQuantidadeTotal(1);
+        outroLivro.setQuantidadeDisponivel(1);
+
+        when(bookService.buscarTodosPorId(anyCollection()))
+            .thenReturn(Map.of(1L, livroDisponivel, 3L, outroLivro));
+        when(userService.buscarTodosPorId(anyCollection())).thenReturn(Map.of(1L, usuario));
+        when(loanRepository.buscarLivrosComEmprestimoAberto(anyCollection())).thenReturn(List.of());
+        // O livro 3 esgotou entre a leitura e o UPDATE condicional
+        when(bookService.reservarExemplares(List.of(1L, 3L))).thenReturn(new boolean[]{true, false});
+        when(loanRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Loan> loans = invocation.getArgument(0);
+            loans.get(0).setId(10L);
+            return loans;
+        });
+
+        // Act
+        LoanBatchResponse resposta = LoanService.emprestarEmLote(
+            List.of(item(1L, 1L), item(999L, 1L), item(3L, 1L)), false);
+
+        // Assert
+        assertTrue(resposta.isConfirmado());
+        assertEquals(1, resposta.getSucessos());
+        assertEquals(2, resposta.getFalhas());
+        assertEquals(10L, resposta.getItens().get(0).getLoanId());
+        assertTrue(resposta.getItens().get(1).getErro().contains("Livro não encontrado"));
+        assertTrue(resposta.getItens().get(2).getErro().contains("Não há exemplares disponíveis"));
+        assertEquals(2, livroDisponivel.getQuantidadeDisponivel(), "Estoque exibido reflete o UPDATE");
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar lote atômico sem alterar estoque")
+    void deveRejeitarLoteAtomico() {
+        // Arrange
+        when(bookService.buscarTodosPorId(anyCollection())).thenReturn(Map.of(1L, livroDisponivel));
+        when(userService.buscarTodosPorId(anyCollection())).thenReturn(Map.of(1L, usuario));
+        when(loanRepository.buscarLivrosComEmprestimoAberto(anyCollection())).thenReturn(List.of());
+
+        // Act
+        LoanBatchResponse resposta = LoanService.emprestarEmLote(
+            List.of(item(1L, 1L), item(1L, 999L)), true);
+
+        // Assert
+        assertFalse(resposta.isConfirmado());
+        assertEquals(0, resposta.getSucessos());
+        assertTrue(resposta.getItens().get(0).getErro().contains("Lote cancelado"));
+        assertTrue(resposta.getItens().get(1).getErro().contains("Usuário não encontrado"));
+        verify(bookService, never()).reservarExemplares(anyList());
+        verify(loanRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Deve devolver em lote e rejeitar itens repetidos ou já devolvidos")
+    void deveDevolverEmLote() {
+        // Arrange
+        Loan devolvido = new Loan();
+        devolvido.setId(2L);
+        devolvido.setBook(livroEsgotado);
+        devolvido.setUser(usuario);
+        devolvido.setReturned(true);
+
+        when(loanRepository.findByIdIn(anyCollection())).thenReturn(List.of(emprestimoAtivo, devolvido));
+        when(bookService.liberarExemplares(List.of(1L))).thenReturn(new boolean[]{true});
+
+        // Act
+        LoanBatchResponse resposta = LoanService.devolverEmLote(List.of(1L, 1L, 2L), false);
+
+        // Assert
+        assertEquals(1, resposta.getSucessos());
+        assertTrue(emprestimoAtivo.isReturned());
+        assertEquals(LocalDate.now(), emprestimoAtivo.getReturnDate());
+        assertTrue(resposta.getItens().get(1).getErro().contains("repetido"));
+        assertTrue(resposta.getItens().get(2).getErro().contains("já foi devolvido"));
+    }
+
+    @Test
+    @DisplayName("Deve recusar lote vazio")
+    void deveRecusarLoteVazio() {
+        assertThrows(IllegalArgumentException.class, () -> LoanService.devolverEmLote(List.of(), false));
+    }
+
+    // ========================================
+    // TESTES PARA MÉTODO: listarPorCursor()
+    // ========================================
+
+    @Test
+    @DisplayName("Deve indicar próxima página quando o cursor encontra mais itens")
+    void deveIndicarProximaPaginaNoCursor() {
+        // Arrange
+        LoanFilter filtro = new LoanFilter(1L, null, false, null, null);
+        when(loanRepository.buscarResumosAntesDe(filtro, 50L, 3))
+            .thenReturn(List.of(resumo(49L), resumo(48L), resumo(47L)));
+
+        // Act
+        Slice<LoanSummary> fatia = LoanService.listarPorCursor(filtro, new LoanCursor(50L), 2);
+
+        // Assert
+        assertTrue(fatia.hasNext());
+        assertEquals(2, fatia.getNumberOfElements());
+        assertEquals(48L, fatia.getContent().get(1).getId());
+    }
+
+    @Test
+    @DisplayName("Deve encerrar a listagem por cursor na última página")
+    void deveEncerrarCursorNaUltimaPagina() {
+        // Arrange
+        when(loanRepository.buscarResumosAntesDe(LoanFilter.vazio(), null, 3))
+            .thenReturn(List.of(resumo(2L)));
+
+        // Act
+        Slice<LoanSummary> fatia = LoanService.listarPorCursor(LoanFilter.vazio(), LoanCursor.inicio(), 2);
+
+        // Assert
+        assertFalse(fatia.hasNext());
+        assertEquals(1, fatia.getNumberOfElements());
+    }
+
+    @Test
+    @DisplayName("Deve preservar o ID ao codificar e decodificar o cursor")
+    void devePreservarIdNoCursor() {
+        LoanCursor cursor = LoanCursor.apos(resumo(123L));
+
+        assertEquals(123L, LoanCursor.decodificar(cursor.codificar()).id());
+        assertThrows(IllegalArgumentException.class, () -> LoanCursor.decodificar("invalido"));
+    }
+
+    private LoanSummary resumo(Long id) {
+        return new LoanSummary(id, LocalDate.now(), null, false,
+            livroDisponivel.getId(), livroDisponivel.getTitulo(), livroDisponivel.getAutor(), null,
+            usuario.getId(), usuario.getNome(), usuario.getEmail());
+    }
+
+    private static LoanBorrowBatchRequest.Item item(Long bookId, Long userId) {
+        LoanBorrowBatchRequest.Item item = new LoanBorrowBatchRequest.Item();
+        item.setBookId(bookId);
+        item.setUserId(userId);
+        return item;
+    }
+}
@@ -0,0 +1,101 @@
+package vitual.libary.demo.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import vitual.libary.demo.config.ConflictRetryListener;
+import vitual.libary.demo.config.RetryConfig;
+import vitual.libary.demo.entity.Loan;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes da política de retry em conflito de versão (@RetryOnConflict).
+ *
+ * Sobe apenas a configuração de retry e um bean de teste, sem banco.
+ */
+@SpringJUnitConfig(RetryOnConflictTest.Config.class)
+@TestPropertySource(properties = {
+        "app.loans.retry.max-attempts=3",
+        "app.loans.retry.initial-delay-ms=1",
+        "app.loans.retry.max-delay-ms=2"
+})
+@DisplayName("Testes - Retry em conflito de versão")
+class RetryOnConflictTest {
+
+    @Configuration
+    @Import({RetryConfig.class, ConflictRetryListener.class})
+    static class Config {
+        @Bean
+        OperacaoConcorrente operacaoConcorrente() {
+            return new OperacaoConcorrente();
+        }
+    }
+
+    static class OperacaoConcorrente {
+        private final AtomicInteger chamadas = new AtomicInteger();
+        private int falhasAntesDeSucesso;
+
+        public void reiniciar(int falhasAntesDeSucesso) {
+            this.chamadas.set(0);
+            this.falhasAntesDeSucesso = falhasAntesDeSucesso;
+        }
+
+        public int getChamadas() {
+            return chamadas.get();
+        }
+
+        @RetryOnConflict
+        public String executar() {
+            if (chamadas.incrementAndGet() <= falhasAntesDeSucesso) {
+                throw new ObjectOptimisticLockingFailureException(Loan.class, 1L);
+            }
+            return "ok";
+        }
+    }
+
+    @Autowired
+    private OperacaoConcorrente operacao;
+
+    @Autowired
+    private ConflictRetryListener listener;
+
+    @Test
+    @DisplayName("Deve repetir após conflito e contar conflitos e tentativas")
+    void deveRepetirAposConflito() {
+        // Arrange
+        long conflitosAntes = listener.getConflitos();
+        long tentativasAntes = listener.getNovasTentativas();
+        operacao.reiniciar(2);
+
+        // Act
+        String resultado = operacao.executar();
+
+        // Assert
+        assertEquals("ok", resultado);
+        assertEquals(3, operacao.getChamadas());
+        assertEquals(conflitosAntes + 2, listener.getConflitos());
+        assertEquals(tentativasAntes + 2, listener.getNovasTentativas());
+    }
+
+    @Test
+    @DisplayName("Deve desistir após o número máximo de tentativas")
+    void deveDesistirAposMaximoDeTentativas() {
+        // Arrange
+        long esgotadasAntes = listener.getEsgotadas();
+        operacao.reiniciar(Integer.MAX_VALUE);
+
+        // Act & Assert
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> operacao.executar());
+        assertEquals(3, operacao.getChamadas());
+        assertEquals(esgotadasAntes + 1, listener.getEsgotadas());
+    }
+}
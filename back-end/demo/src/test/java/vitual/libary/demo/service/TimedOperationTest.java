@@ -0,0 +1,119 @@
+package vitual.libary.demo.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import vitual.libary.demo.config.ConflictRetryListener;
+import vitual.libary.demo.config.OperationMetricsAspect;
+import vitual.libary.demo.config.RetryConfig;
+import vitual.libary.demo.entity.Loan;
+import vitual.libary.demo.exception.InsufficientStockException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do timer das operações de serviço (@TimedOperation).
+ *
+ * Sobe o aspecto de métricas junto com o retry, sem banco.
+ */
+@SpringJUnitConfig(TimedOperationTest.Config.class)
+@TestPropertySource(properties = {
+        "app.loans.retry.max-attempts=3",
+        "app.loans.retry.initial-delay-ms=1",
+        "app.loans.retry.max-delay-ms=2"
+})
+@DisplayName("Testes - Métricas das operações de serviço")
+class TimedOperationTest {
+
+    @Configuration
+    @EnableAspectJAutoProxy
+    @Import({RetryConfig.class, ConflictRetryListener.class, OperationMetricsAspect.class})
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        OperacaoMedida operacaoMedida() {
+            return new OperacaoMedida();
+        }
+    }
+
+    static class OperacaoMedida {
+        private final AtomicInteger chamadas = new AtomicInteger();
+        private int conflitosAntesDeSucesso;
+
+        public void reiniciar(int conflitosAntesDeSucesso) {
+            this.chamadas.set(0);
+            this.conflitosAntesDeSucesso = conflitosAntesDeSucesso;
+        }
+
+        @TimedOperation("emprestar")
+        @RetryOnConflict
+        public String emprestar() {
+            if (chamadas.incrementAndGet() <= conflitosAntesDeSucesso) {
+                throw new ObjectOptimisticLockingFailureException(Loan.class, 1L);
+            }
+            return "ok";
+        }
+
+        @TimedOperation("reservar")
+        public void reservar() {
+            throw new InsufficientStockException("Sem exemplares");
+        }
+    }
+
+    @Autowired
+    private OperacaoMedida operacao;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private Timer timer(String operacao, String resultado) {
+        return registry.find("biblioteca.operacao")
+                .tags("servico", "OperacaoMedida", "operacao", operacao, "resultado", resultado)
+                .timer();
+    }
+
+    @Test
+    @DisplayName("Deve medir a operação uma vez, incluindo as novas tentativas")
+    void deveMedirOperacaoComNovasTentativas() {
+        // Arrange
+        operacao.reiniciar(2);
+
+        // Act
+        operacao.emprestar();
+
+        // Assert
+        Timer sucesso = timer("emprestar", "sucesso");
+        assertNotNull(sucesso);
+        assertEquals(1, sucesso.count());
+        assertNull(timer("emprestar", "ObjectOptimisticLockingFailureException"));
+    }
+
+    @Test
+    @DisplayName("Deve registrar a falha com o nome da exceção")
+    void deveRegistrarFalhaComNomeDaExcecao() {
+        // Act
+        assertThrows(InsufficientStockException.class, () -> operacao.reservar());
+
+        // Assert
+        Timer falha = timer("reservar", "InsufficientStockException");
+        assertNotNull(falha);
+        assertEquals(1, falha.count());
+        assertEquals(0, timer("reservar", "sucesso").count());
+    }
+}
@@ -0,0 +1,155 @@
+package vitual.libary.demo.service;
+
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import vitual.libary.demo.dto.UserImportResponse;
+import vitual.libary.demo.entity.User;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes Unitários para UserImportService (duplicidade, hash em paralelo e lotes).
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - UserImportService")
+class UserImportServiceTest {
+
+    @Mock
+    private UserService userService;
+
+    // Custo mínimo do BCrypt para o teste não depender da CPU
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+
+    private ValidatorFactory validatorFactory;
+    private UserImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        // 2 threads de hash, lotes de 2 linhas, batches JDBC de 50, no máximo 10 erros listados
+        importService = new UserImportService(userService, encoder, validatorFactory.getValidator(),
+                Jackson2ObjectMapperBuilder.json().build(), 2, 2, 50, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.encerrar();
+        validatorFactory.close();
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar e-mails já cadastrados ou repetidos e gravar os demais com a senha codificada")
+    @SuppressWarnings("unchecked")
+    void deveImportarCsvComVerificacaoDeDuplicidade() throws Exception {
+        // Arrange
+        String csv = """
+                nome,email,senha,role
+                Ana,ana@escola.com,senha123,
+                Bruno,bruno@escola.com,senha456,bibliotecario
+                Carla,ANA@escola.com,outra,
+                Davi,davi@escola.com,senha789,
+                Eva,nao-e-email,senha000,
+                Fábio,fabio@escola.com,senha111,ADMIN
+                """;
+        // "ANA" está no segundo lote: a primeira já foi gravada, e a consulta a encontra
+        when(userService.emailsCadastrados(anyCollection()))
+                .thenReturn(Set.of("bruno@escola.com"), Set.of("ana@escola.com"));
+
+        // Act
+        UserImportResponse resultado = importService.importar(entrada(csv), ExportService.Formato.CSV);
+
+        // Assert
+        assertEquals(6, resultado.getLinhas());
+        assertEquals(2, resultado.getInseridos());
+        assertEquals(4, resultado.getRejeitados());
+        assertEquals(List.of(3L, 4L, 6L, 7L),
+                resultado.getErros().stream().map(UserImportResponse.ErroLinha::getLinha).sorted().toList());
+
+        ArgumentCaptor<List<User>> lotes = ArgumentCaptor.forClass(List.class);
+        verify(userService, times(2)).importarLote(lotes.capture(), eq(50));
+        List<User> gravados = lotes.getAllValues().stream().flatMap(List::stream).toList();
+        assertEquals(List.of("ana@escola.com", "davi@escola.com"), gravados.stream().map(User::getEmail).toList());
+        assertEquals("MEMBRO", gravados.get(0).getRole());
+        assertTrue(encoder.matches("senha123", gravados.get(0).getSenha()));
+        assertTrue(encoder.matches("senha789", gravados.get(1).getSenha()));
+        verify(userService, times(2)).emailsCadastrados(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar e-mail repetido no mesmo lote antes de codificar a senha")
+    @SuppressWarnings("unchecked")
+    void deveRejeitarRepetidoNoLote() throws Exception {
+        // Arrange
+        String ndjson = """
+                {"nome":"Ana","email":"ana@escola.com","senha":"senha123"}
+                {"nome":"Outra Ana","email":"Ana@Escola.com","senha":"senha456"}
+                """;
+        when(userService.emailsCadastrados(anyCollection())).thenReturn(Set.of());
+
+        // Act
+        UserImportResponse resultado = importService.importar(entrada(ndjson), ExportService.Formato.NDJSON);
+
+        // Assert
+        assertEquals(1, resultado.getInseridos());
+        assertEquals(1, resultado.getRejeitados());
+        assertEquals(2, resultado.getErros().get(0).getLinha());
+        assertTrue(resultado.getErros().get(0).getErro().startsWith("Email repetido no arquivo"));
+        ArgumentCaptor<List<User>> lote = ArgumentCaptor.forClass(List.class);
+        verify(userService).importarLote(lote.capture(), eq(50));
+        assertEquals(List.of("ana@escola.com"), lote.getValue().stream().map(User::getEmail).toList());
+    }
+
+    @Test
+    @DisplayName("Deve gravar linha a linha quando o banco rejeita o lote, isolando o e-mail em conflito")
+    void deveIsolarConflitoDoBanco() throws Exception {
+        // Arrange - "bia" foi cadastrada por outra requisição depois da verificação
+        String ndjson = """
+                {"nome":"Ana","email":"ana@escola.com","senha":"senha123"}
+                {"nome":"Bia","email":"bia@escola.com","senha":"senha456"}
+                """;
+        when(userService.emailsCadastrados(anyCollection())).thenReturn(Set.of());
+        doAnswer(invocacao -> {
+            List<User> usuarios = invocacao.getArgument(0);
+            if (usuarios.stream().anyMatch(u -> u.getEmail().equals("bia@escola.com"))) {
+                throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+            }
+            return null;
+        }).when(userService).importarLote(anyList(), anyInt());
+
+        // Act
+        UserImportResponse resultado = importService.importar(entrada(ndjson), ExportService.Formato.NDJSON);
+
+        // Assert
+        assertEquals(1, resultado.getInseridos());
+        assertEquals(1, resultado.getRejeitados());
+        assertEquals("bia@escola.com", resultado.getErros().get(0).getEmail());
+        assertEquals(2, resultado.getErros().get(0).getLinha());
+        verify(userService, times(3)).importarLote(anyList(), anyInt());
+    }
+
+    private static InputStream entrada(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+}
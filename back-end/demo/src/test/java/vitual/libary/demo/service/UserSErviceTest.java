@@ -6,10 +6,14 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+import vitual.libary.demo.cache.EntityCacheRegistry;
 import vitual.libary.demo.entity.User;
 import vitual.libary.demo.exception.UserNotFoundException;
 import vitual.libary.demo.repository.UserRepository;
+import vitual.libary.demo.security.UserStateRegistry;
 
 import java.util.Arrays;
 import java.util.List;
@@ -17,6 +21,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 /**
@@ -36,6 +41,12 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserStateRegistry userStateRegistry;
+
+    @Spy
+    private EntityCacheRegistry cacheRegistry = new EntityCacheRegistry(new MockEnvironment());
+
     @InjectMocks
     private UserService UserService;
 
@@ -219,6 +230,45 @@ class UserServiceTest {
         verify(userRepository, times(1)).findById(idInexistente);
     }
 
+    @Test
+    @DisplayName("Deve usar o cache na segunda busca pelo mesmo ID")
+    void deveUsarCacheNaSegundaBusca() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(membroExemplo));
+
+        // Act
+        User primeira = UserService.buscarPorId(1L);
+        User segunda = UserService.buscarPorId(1L);
+
+        // Assert
+        assertEquals(primeira.getEmail(), segunda.getEmail());
+        assertNotSame(primeira, segunda, "Acertos devem devolver cópias independentes");
+        verify(userRepository, times(1)).findById(1L);
+        assertEquals(1, cacheRegistry.estatisticas().get(0).getAcertos());
+    }
+
+    @Test
+    @DisplayName("Deve invalidar o cache ao atualizar o usuário")
+    void deveInvalidarCacheAoAtualizar() {
+        // Arrange
+        User dadosAtualizados = new User();
+        dadosAtualizados.setNome("Maria Atualizada");
+        dadosAtualizados.setEmail("maria.santos@teste.com");
+        dadosAtualizados.setSenha("");
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(membroExemplo));
+        when(userRepository.save(any(User.class))).thenReturn(membroExemplo);
+
+        // Act
+        UserService.buscarPorId(1L);
+        UserService.atualizar(1L, dadosAtualizados);
+        UserService.buscarPorId(1L);
+
+        // Assert - a busca após a escrita volta ao banco
+        verify(userRepository).save(argThat(u -> "Maria Atualizada".equals(u.getNome())));
+        verify(userRepository, times(2)).findById(1L);
+    }
+
     // ========================================
     // TESTES PARA MÉTODO: atualizar()
     // ========================================
@@ -374,6 +424,8 @@ class UserServiceTest {
         // Assert
         verify(userRepository, times(1)).findById(idParaDeletar);
         verify(userRepository, times(1)).delete(any(User.class));
+        // Tokens do usuário removido deixam de valer no modo stateless
+        verify(userStateRegistry, times(1)).registrarRemocao(idParaDeletar);
     }
 
     @Test
@@ -441,4 +493,21 @@ class UserServiceTest {
 
         verify(userRepository, times(1)).save(any(User.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Deve trocar o hash da senha só se o gravado ainda for o verificado no login")
+    void deveAtualizarHashDaSenhaSomenteSeNaoMudou() {
+        // Arrange
+        membroExemplo.setSenha("$2a$10$hashantigo");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(membroExemplo));
+
+        // Act
+        boolean concorrente = UserService.atualizarHashDaSenha(1L, "$2a$10$outrohash", "{bcrypt}$2a$12$novo");
+        boolean atualizado = UserService.atualizarHashDaSenha(1L, "$2a$10$hashantigo", "{bcrypt}$2a$12$novo");
+
+        // Assert
+        assertFalse(concorrente);
+        assertTrue(atualizado);
+        assertEquals("{bcrypt}$2a$12$novo", membroExemplo.getSenha());
+    }
+}
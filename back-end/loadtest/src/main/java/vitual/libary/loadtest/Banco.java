@@ -0,0 +1,79 @@
+package vitual.libary.loadtest;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Diferenças entre os bancos suportados pelo gerador de dados.
+ */
+enum Banco {
+
+    POSTGRESQL("postgresql"),
+    H2("h2");
+
+    private final String pastaMigracoes;
+
+    Banco(String pastaMigracoes) {
+        this.pastaMigracoes = pastaMigracoes;
+    }
+
+    static Banco daUrl(String url) {
+        if (url.startsWith("jdbc:postgresql:")) {
+            return POSTGRESQL;
+        }
+        if (url.startsWith("jdbc:h2:")) {
+            return H2;
+        }
+        throw new IllegalArgumentException("Banco não suportado (use PostgreSQL ou H2): " + url);
+    }
+
+    /**
+     * Pasta das migrações específicas (db/migration/{vendor}).
+     */
+    String pastaMigracoes() {
+        return pastaMigracoes;
+    }
+
+    static long maiorId(Connection conexao, String tabela) throws SQLException {
+        try (Statement comando = conexao.createStatement();
+             ResultSet resultado = comando.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + tabela)) {
+            resultado.next();
+            return resultado.getLong(1);
+        }
+    }
+
+    /**
+     * Avança a identidade da tabela para depois dos IDs gravados
+     * explicitamente, para que os próximos INSERTs da aplicação não colidam.
+     * Livros e usuários usam sequências (books_seq, users_seq; V5 e V6) no lugar de uma identidade.
+     */
+    void ajustarIdentidade(Connection conexao, String tabela) throws SQLException {
+        long maior = maiorId(conexao, tabela);
+        try (Statement comando = conexao.createStatement()) {
+            if (this == POSTGRESQL) {
+                comando.execute("SELECT setval(pg_get_serial_sequence('" + tabela + "', 'id'), " + Math.max(maior, 1) + ")");
+            } else if (tabela.equals("books") || tabela.equals("users")) {
+                comando.execute("ALTER SEQUENCE " + tabela + "_seq RESTART WITH " + (maior + 1));
+            } else {
+                comando.execute("ALTER TABLE " + tabela + " ALTER COLUMN id RESTART WITH " + (maior + 1));
+            }
+        }
+    }
+
+    /**
+     * Atualiza as estatísticas do otimizador depois da carga.
+     */
+    void analisar(Connection conexao) throws SQLException {
+        try (Statement comando = conexao.createStatement()) {
+            if (this == POSTGRESQL) {
+                comando.execute("ANALYZE users");
+                comando.execute("ANALYZE books");
+                comando.execute("ANALYZE loans");
+            } else {
+                comando.execute("ANALYZE");
+            }
+        }
+    }
+}
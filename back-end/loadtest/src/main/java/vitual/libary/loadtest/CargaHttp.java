@@ -0,0 +1,278 @@
+package vitual.libary.loadtest;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import vitual.libary.demo.DemoApplication;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Teste de carga HTTP com tráfego misto: login, listagem e consulta de livros,
+ * empréstimo e devolução.
+ *
+ * Sem --url, sobe a aplicação no perfil h2 neste processo (porta aleatória).
+ * A preparação cadastra um bibliotecário, os livros e os membros pela própria
+ * API. Depois do aquecimento, mede latência (p50/p95/p99/p999), vazão e taxas
+ * de recusa/erro por endpoint.
+ *
+ * - --taxa > 0: malha aberta, uma requisição a cada 1/taxa segundos, com no
+ *   máximo --concorrencia em andamento. A latência conta a partir do horário
+ *   agendado, então o tempo esperando vaga também entra (sem omissão coordenada).
+ * - --taxa = 0: malha fechada, --concorrencia clientes em laço.
+ *
+ * Uso: mvn -pl loadtest exec:exec -Dcarga.args="--duracao=60s --concorrencia=128 --taxa=800"
+ */
+public final class CargaHttp {
+
+    private static final int TAMANHO_PAGINA = 20;
+    private static final int EXEMPLARES_POR_LIVRO = 5;
+
+    private final Configuracao configuracao;
+    private final ClienteBiblioteca cliente;
+    private final List<Long> livros = new ArrayList<>();
+    private final List<Long> membros = new ArrayList<>();
+    private final List<String> emails = new ArrayList<>();
+    private final ConcurrentLinkedQueue<Long> emprestimosAbertos = new ConcurrentLinkedQueue<>();
+    private final Operacao[] sorteio;
+
+    private volatile Estatisticas estatisticas = new Estatisticas();
+
+    private CargaHttp(Configuracao configuracao, String url) {
+        this.configuracao = configuracao;
+        this.cliente = new ClienteBiblioteca(url);
+        this.sorteio = montarSorteio(configuracao.mistura());
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Relatório em UTF-8 independentemente da localidade do terminal
+        System.setOut(new PrintStream(new FileOutputStream(FileDescriptor.out), true, StandardCharsets.UTF_8));
+        Configuracao configuracao = Configuracao.ler(args);
+
+        ConfigurableApplicationContext aplicacao = null;
+        String url = configuracao.url();
+        if (url.isBlank()) {
+            aplicacao = iniciarAplicacao(configuracao.propriedadesAplicacao());
+            url = "http://localhost:" + ((WebServerApplicationContext) aplicacao).getWebServer().getPort();
+        }
+
+        try {
+            new CargaHttp(configuracao, url).executar();
+        } finally {
+            if (aplicacao != null) {
+                aplicacao.close();
+            }
+        }
+    }
+
+    /**
+     * Sobe a aplicação no perfil h2, com o pool de conexões do tamanho do de
+     * produção (5); as propriedades repassadas nos argumentos têm precedência.
+     */
+    private static ConfigurableApplicationContext iniciarAplicacao(Map<String, String> repassadas) {
+        Map<String, String> propriedades = new LinkedHashMap<>();
+        propriedades.put("server.port", "0");
+        propriedades.put("spring.main.banner-mode", "off");
+        propriedades.put("spring.jpa.show-sql", "false");
+        propriedades.put("spring.datasource.hikari.maximum-pool-size", "5");
+        propriedades.put("logging.level.root", "WARN");
+        propriedades.put("logging.level.org.hibernate.SQL", "WARN");
+        propriedades.put("logging.level.vitual.libary.demo.config", "INFO");
+        // Todos os clientes saem do mesmo IP: sem limite de requisições, salvo se repassado
+        propriedades.put("app.rate-limit.enabled", "false");
+        propriedades.putAll(repassadas);
+        if (!repassadas.isEmpty()) {
+            System.out.println("Aplicação local com " + repassadas);
+        }
+
+        return new SpringApplicationBuilder(DemoApplication.class)
+                .profiles("h2")
+                .run(propriedades.entrySet().stream()
+                        .map(propriedade -> "--" + propriedade.getKey() + "=" + propriedade.getValue())
+                        .toArray(String[]::new));
+    }
+
+    private void executar() throws Exception {
+        ExecutorService executor = Executores.clientes(configuracao.concorrencia());
+        try {
+            preparar(executor);
+
+            System.out.printf("Clientes: %s | concorrência %d | %s | aquecimento %ds | medição %ds%n",
+                    Executores.virtuais(executor) ? "threads virtuais" : "pool de threads de plataforma",
+                    configuracao.concorrencia(),
+                    configuracao.taxa() > 0 ? "taxa " + configuracao.taxa() + " req/s" : "malha fechada",
+                    configuracao.aquecimento().toSeconds(), configuracao.duracao().toSeconds());
+
+            gerarTrafego(executor, configuracao.aquecimento(), new SplittableRandom(configuracao.semente()));
+
+            estatisticas = new Estatisticas();
+            long inicio = System.nanoTime();
+            gerarTrafego(executor, configuracao.duracao(), new SplittableRandom(configuracao.semente() + 1));
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+
+            System.out.println();
+            estatisticas.imprimir(System.out, segundos);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Cadastra bibliotecário, livros e membros pela API. Os e-mails levam um
+     * sufixo da execução, então o mesmo servidor (--url) aceita várias rodadas.
+     */
+    private void preparar(ExecutorService executor) throws Exception {
+        long rodada = System.currentTimeMillis();
+        ClienteBiblioteca.Resposta bibliotecario = cliente.registrar(
+                "Bibliotecário de Carga", "bibliotecario-" + rodada + "@carga.local", "BIBLIOTECARIO");
+        if (!bibliotecario.sucesso()) {
+            throw new IllegalStateException("Falha ao registrar o bibliotecário: HTTP " + bibliotecario.status());
+        }
+        cliente.autenticar(bibliotecario.corpo().get("token").asText());
+
+        List<Callable<ClienteBiblioteca.Resposta>> cadastros = new ArrayList<>();
+        for (int i = 0; i < configuracao.livros(); i++) {
+            int numero = i;
+            cadastros.add(() -> cliente.criarLivro(numero, EXEMPLARES_POR_LIVRO));
+        }
+        for (Future<ClienteBiblioteca.Resposta> livro : executor.invokeAll(cadastros)) {
+            livros.add(idCriado(livro.get(), "livro"));
+        }
+
+        cadastros.clear();
+        for (int i = 0; i < configuracao.usuarios(); i++) {
+            String email = "membro-" + rodada + "-" + i + "@carga.local";
+            emails.add(email);
+            cadastros.add(() -> cliente.registrar("Membro de Carga", email, "MEMBRO"));
+        }
+        for (Future<ClienteBiblioteca.Resposta> membro : executor.invokeAll(cadastros)) {
+            ClienteBiblioteca.Resposta resposta = membro.get();
+            if (!resposta.sucesso()) {
+                throw new IllegalStateException("Falha ao registrar membro: HTTP " + resposta.status());
+            }
+            membros.add(resposta.corpo().get("userId").asLong());
+        }
+        System.out.printf("Dados preparados: %d livros, %d membros%n", livros.size(), membros.size());
+    }
+
+    private static long idCriado(ClienteBiblioteca.Resposta resposta, String tipo) {
+        if (!resposta.sucesso() || resposta.corpo() == null) {
+            throw new IllegalStateException("Falha ao cadastrar " + tipo + ": HTTP " + resposta.status());
+        }
+        return resposta.corpo().get("id").asLong();
+    }
+
+    private void gerarTrafego(ExecutorService executor, Duration duracao, SplittableRandom aleatorio)
+            throws InterruptedException {
+        long fim = System.nanoTime() + duracao.toNanos();
+        Semaphore vagas = new Semaphore(configuracao.concorrencia());
+
+        if (configuracao.taxa() > 0) {
+            long intervalo = TimeUnit.SECONDS.toNanos(1) / configuracao.taxa();
+            long agendada = System.nanoTime();
+            while (agendada < fim) {
+                LockSupport.parkNanos(agendada - System.nanoTime());
+                vagas.acquire();
+                long inicio = agendada;
+                Operacao operacao = sortear(aleatorio);
+                long semente = aleatorio.nextLong();
+                executor.execute(() -> {
+                    try {
+                        executarOperacao(operacao, new SplittableRandom(semente), inicio);
+                    } finally {
+                        vagas.release();
+                    }
+                });
+                agendada += intervalo;
+            }
+        } else {
+            for (int i = 0; i < configuracao.concorrencia(); i++) {
+                SplittableRandom aleatorioCliente = aleatorio.split();
+                vagas.acquire();
+                executor.execute(() -> {
+                    try {
+                        while (System.nanoTime() < fim) {
+                            executarOperacao(sortear(aleatorioCliente), aleatorioCliente, System.nanoTime());
+                        }
+                    } finally {
+                        vagas.release();
+                    }
+                });
+            }
+        }
+
+        // Espera as requisições em andamento antes de encerrar a fase
+        vagas.acquire(configuracao.concorrencia());
+    }
+
+    private void executarOperacao(Operacao operacao, SplittableRandom aleatorio, long inicio) {
+        Long emprestimoParaDevolver = null;
+        if (operacao == Operacao.DEVOLVER) {
+            emprestimoParaDevolver = emprestimosAbertos.poll();
+            if (emprestimoParaDevolver == null) {
+                // Nada a devolver ainda: empresta no lugar
+                operacao = Operacao.EMPRESTAR;
+            }
+        }
+
+        int status;
+        try {
+            ClienteBiblioteca.Resposta resposta = switch (operacao) {
+                case LOGIN -> cliente.login(emails.get(aleatorio.nextInt(emails.size())));
+                case LISTAR -> cliente.listarLivros(aleatorio.nextInt(Math.max(1, livros.size() / TAMANHO_PAGINA)),
+                        TAMANHO_PAGINA);
+                case BUSCAR -> cliente.buscarLivro(livros.get(aleatorio.nextInt(livros.size())));
+                case EMPRESTAR -> cliente.emprestar(livros.get(aleatorio.nextInt(livros.size())),
+                        membros.get(aleatorio.nextInt(membros.size())));
+                case DEVOLVER -> cliente.devolver(emprestimoParaDevolver);
+            };
+            status = resposta.status();
+            if (operacao == Operacao.EMPRESTAR && resposta.sucesso() && resposta.corpo() != null) {
+                emprestimosAbertos.add(resposta.corpo().get("id").asLong());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            // Timeout ou falha de conexão
+            status = 0;
+        }
+        estatisticas.registrar(operacao, status, System.nanoTime() - inicio);
+    }
+
+    private Operacao sortear(SplittableRandom aleatorio) {
+        return sorteio[aleatorio.nextInt(sorteio.length)];
+    }
+
+    /**
+     * Tabela de sorteio com cada operação repetida conforme o seu peso.
+     */
+    private static Operacao[] montarSorteio(Map<Operacao, Integer> mistura) {
+        List<Operacao> tabela = new ArrayList<>();
+        mistura.forEach((operacao, peso) -> {
+            for (int i = 0; i < peso; i++) {
+                tabela.add(operacao);
+            }
+        });
+        if (tabela.isEmpty()) {
+            throw new IllegalArgumentException("A mistura de operações não pode ser vazia");
+        }
+        return tabela.toArray(new Operacao[0]);
+    }
+}
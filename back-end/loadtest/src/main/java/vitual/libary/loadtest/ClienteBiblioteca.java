@@ -0,0 +1,117 @@
+package vitual.libary.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Cliente HTTP mínimo da API da biblioteca (java.net.http), usado pela
+ * preparação dos dados e pelas operações do teste de carga.
+ */
+final class ClienteBiblioteca {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * @param status código HTTP
+     * @param corpo corpo JSON (null se vazio ou não JSON)
+     */
+    record Resposta(int status, JsonNode corpo) {
+
+        boolean sucesso() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    private final HttpClient http;
+    private final String base;
+    private final ObjectMapper json = new ObjectMapper();
+    private volatile String token;
+
+    ClienteBiblioteca(String base) {
+        this.base = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * Token usado no cabeçalho Authorization das próximas requisições.
+     */
+    void autenticar(String token) {
+        this.token = token;
+    }
+
+    Resposta registrar(String nome, String email, String role) throws IOException, InterruptedException {
+        return enviar("POST", "/api/auth/register",
+                Map.of("nome", nome, "email", email, "senha", "carga123", "role", role));
+    }
+
+    Resposta login(String email) throws IOException, InterruptedException {
+        return enviar("POST", "/api/auth/login", Map.of("email", email, "senha", "carga123"));
+    }
+
+    Resposta criarLivro(int numero, int exemplares) throws IOException, InterruptedException {
+        return enviar("POST", "/api/books", Map.of(
+                "titulo", "Livro de Carga " + numero,
+                "autor", "Autor " + (numero % 200),
+                "anoPublicacao", 1950 + numero % 70,
+                "isbn", String.format("979%010d", numero),
+                "quantidadeTotal", exemplares,
+                "quantidadeDisponivel", exemplares));
+    }
+
+    Resposta listarLivros(int pagina, int tamanho) throws IOException, InterruptedException {
+        return enviar("GET", "/api/books?page=" + pagina + "&size=" + tamanho, null);
+    }
+
+    Resposta buscarLivro(long id) throws IOException, InterruptedException {
+        return enviar("GET", "/api/books/" + id, null);
+    }
+
+    Resposta emprestar(long bookId, long userId) throws IOException, InterruptedException {
+        return enviar("POST", "/api/loans/borrow", Map.of("bookId", bookId, "userId", userId));
+    }
+
+    Resposta devolver(long loanId) throws IOException, InterruptedException {
+        return enviar("PUT", "/api/loans/" + loanId + "/return", null);
+    }
+
+    private Resposta enviar(String metodo, String caminho, Object corpo) throws IOException, InterruptedException {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create(base + caminho))
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json");
+        if (token != null) {
+            requisicao.header("Authorization", "Bearer " + token);
+        }
+        if (corpo != null) {
+            requisicao.header("Content-Type", "application/json")
+                    .method(metodo, HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(corpo)));
+        } else {
+            requisicao.method(metodo, HttpRequest.BodyPublishers.noBody());
+        }
+
+        HttpResponse<byte[]> resposta = http.send(requisicao.build(), HttpResponse.BodyHandlers.ofByteArray());
+        return new Resposta(resposta.statusCode(), lerJson(resposta.body()));
+    }
+
+    private JsonNode lerJson(byte[] corpo) {
+        if (corpo == null || corpo.length == 0) {
+            return null;
+        }
+        try {
+            return json.readTree(corpo);
+        } catch (IOException e) {
+            // Mensagens de erro em texto puro
+            return null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package vitual.libary.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Parâmetros do teste de carga, lidos dos argumentos --nome=valor.
+ *
+ * @param url servidor alvo; vazio = sobe a aplicação no perfil h2 neste processo
+ * @param duracao tempo de medição
+ * @param aquecimento tempo de tráfego antes da medição (descartado)
+ * @param concorrencia máximo de requisições em andamento
+ * @param taxa requisições por segundo (0 = malha fechada, sem limite de taxa)
+ * @param livros livros cadastrados na preparação
+ * @param usuarios membros cadastrados na preparação
+ * @param semente semente do sorteio das operações
+ * @param mistura peso de cada operação no tráfego
+ * @param propriedadesAplicacao propriedades repassadas à aplicação local (--spring.*, --app.*, --server.*)
+ */
+record Configuracao(String url, Duration duracao, Duration aquecimento, int concorrencia, int taxa,
+                    int livros, int usuarios, long semente, Map<Operacao, Integer> mistura,
+                    Map<String, String> propriedadesAplicacao) {
+
+    private static final List<String> PREFIXOS_DA_APLICACAO = List.of("spring.", "app.", "server.");
+
+    static final String MISTURA_PADRAO = "listar:30,buscar:35,login:10,emprestar:13,devolver:12";
+
+    static Configuracao ler(String[] args) {
+        Map<String, String> valores = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argumento inválido (use --nome=valor): " + arg);
+            }
+            int separador = arg.indexOf('=');
+            valores.put(arg.substring(2, separador), arg.substring(separador + 1));
+        }
+
+        return new Configuracao(
+                valores.getOrDefault("url", ""),
+                duracao(valores.getOrDefault("duracao", "30s")),
+                duracao(valores.getOrDefault("aquecimento", "10s")),
+                Integer.parseInt(valores.getOrDefault("concorrencia", "64")),
+                Integer.parseInt(valores.getOrDefault("taxa", "0")),
+                Integer.parseInt(valores.getOrDefault("livros", "2000")),
+                Integer.parseInt(valores.getOrDefault("usuarios", "200")),
+                Long.parseLong(valores.getOrDefault("semente", "42")),
+                mistura(valores.getOrDefault("mistura", MISTURA_PADRAO)),
+                propriedadesAplicacao(valores));
+    }
+
+    private static Map<String, String> propriedadesAplicacao(Map<String, String> valores) {
+        Map<String, String> propriedades = new TreeMap<>();
+        valores.forEach((nome, valor) -> {
+            if (PREFIXOS_DA_APLICACAO.stream().anyMatch(nome::startsWith)) {
+                propriedades.put(nome, valor);
+            }
+        });
+        return propriedades;
+    }
+
+    /**
+     * Aceita "30s", "2m" ou um número de segundos.
+     */
+    private static Duration duracao(String valor) {
+        if (valor.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(valor.substring(0, valor.length() - 1)));
+        }
+        if (valor.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(valor.substring(0, valor.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(valor));
+    }
+
+    /**
+     * Lê "listar:30,buscar:35,..." (pesos relativos, não precisam somar 100).
+     */
+    private static Map<Operacao, Integer> mistura(String valor) {
+        Map<Operacao, Integer> pesos = new EnumMap<>(Operacao.class);
+        for (String parte : valor.split(",")) {
+            String[] chaveValor = parte.trim().split(":");
+            pesos.put(Operacao.deNome(chaveValor[0]), Integer.parseInt(chaveValor[1]));
+        }
+        return pesos;
+    }
+}
@@ -0,0 +1,94 @@
+package vitual.libary.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latência (HdrHistogram, em microssegundos) e contagem de respostas por
+ * operação.
+ *
+ * - sucesso: 2xx;
+ * - recusada: 4xx (regra de negócio, ex: livro sem estoque ou já emprestado);
+ * - erro: 5xx, timeout ou falha de conexão.
+ */
+final class Estatisticas {
+
+    // Até 60 s, com 3 dígitos significativos
+    private static final long LATENCIA_MAXIMA_US = TimeUnit.SECONDS.toMicros(60);
+
+    private final Map<Operacao, Contadores> porOperacao = new EnumMap<>(Operacao.class);
+
+    Estatisticas() {
+        for (Operacao operacao : Operacao.values()) {
+            porOperacao.put(operacao, new Contadores());
+        }
+    }
+
+    /**
+     * @param status código HTTP, ou 0 se a requisição falhou antes da resposta
+     */
+    void registrar(Operacao operacao, int status, long latenciaNanos) {
+        Contadores contadores = porOperacao.get(operacao);
+        contadores.latencia.recordValue(Math.min(LATENCIA_MAXIMA_US, Math.max(1, latenciaNanos / 1_000)));
+        if (status >= 200 && status < 300) {
+            contadores.sucessos.increment();
+        } else if (status >= 400 && status < 500) {
+            contadores.recusadas.increment();
+        } else {
+            contadores.erros.increment();
+        }
+    }
+
+    void imprimir(PrintStream saida, double segundos) {
+        saida.printf("%-28s %9s %9s %8s %8s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Total", "Req/s", "Recus.%", "Erro%", "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms");
+
+        Histogram geral = new Histogram(LATENCIA_MAXIMA_US, 3);
+        long totalGeral = 0;
+        long errosGeral = 0;
+        long recusadasGeral = 0;
+        for (Map.Entry<Operacao, Contadores> item : porOperacao.entrySet()) {
+            Contadores contadores = item.getValue();
+            long total = contadores.latencia.getTotalCount();
+            if (total == 0) {
+                continue;
+            }
+            geral.add(contadores.latencia);
+            totalGeral += total;
+            errosGeral += contadores.erros.sum();
+            recusadasGeral += contadores.recusadas.sum();
+            linha(saida, item.getKey().endpoint(), contadores.latencia, total,
+                    contadores.recusadas.sum(), contadores.erros.sum(), segundos);
+        }
+        if (totalGeral > 0) {
+            linha(saida, "TOTAL", geral, totalGeral, recusadasGeral, errosGeral, segundos);
+        }
+    }
+
+    private static void linha(PrintStream saida, String nome, Histogram latencia, long total,
+                              long recusadas, long erros, double segundos) {
+        saida.printf("%-28s %9d %9.1f %8.2f %8.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                nome, total, total / segundos,
+                100.0 * recusadas / total, 100.0 * erros / total,
+                ms(latencia.getValueAtPercentile(50)), ms(latencia.getValueAtPercentile(95)),
+                ms(latencia.getValueAtPercentile(99)), ms(latencia.getValueAtPercentile(99.9)),
+                ms(latencia.getMaxValue()));
+    }
+
+    private static double ms(long micros) {
+        return micros / 1_000.0;
+    }
+
+    private static final class Contadores {
+        private final Histogram latencia = new ConcurrentHistogram(LATENCIA_MAXIMA_US, 3);
+        private final LongAdder sucessos = new LongAdder();
+        private final LongAdder recusadas = new LongAdder();
+        private final LongAdder erros = new LongAdder();
+    }
+}
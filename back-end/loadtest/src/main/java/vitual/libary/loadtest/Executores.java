@@ -0,0 +1,28 @@
+package vitual.libary.loadtest;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Escolhe o executor dos clientes: uma thread virtual por requisição quando a
+ * JVM oferece (Java 21+), senão um pool fixo de threads de plataforma do
+ * tamanho da concorrência. O projeto compila em Java 17, por isso a API de
+ * threads virtuais é obtida por reflexão.
+ */
+final class Executores {
+
+    private Executores() {
+    }
+
+    static ExecutorService clientes(int concorrencia) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(concorrencia);
+        }
+    }
+
+    static boolean virtuais(ExecutorService executor) {
+        return !(executor instanceof java.util.concurrent.ThreadPoolExecutor);
+    }
+}
@@ -0,0 +1,260 @@
+package vitual.libary.loadtest;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Gera um acervo sintético (usuários, livros e histórico de empréstimos) direto
+ * no banco, para observar consultas e planos de execução com volume real.
+ *
+ * - Livros populares: o livro de cada empréstimo segue Zipf (--zipf-livros);
+ * - leitores assíduos: o usuário de cada empréstimo segue Zipf (--zipf-usuarios),
+ *   então poucos usuários concentram históricos longos;
+ * - os empréstimos são gerados em ordem cronológica ao longo de --anos; os dos
+ *   últimos 30 dias ficam em aberto com probabilidade --abertos (no máximo um
+ *   por livro, como exige o LoanService) e o estoque disponível é ajustado;
+ * - a mesma --semente gera exatamente os mesmos dados.
+ *
+ * As linhas são geradas em fluxo e gravadas em lotes (COPY no PostgreSQL, JDBC
+ * batch no H2). O esquema é criado/atualizado pelas migrações Flyway da
+ * aplicação; os IDs continuam a partir dos já existentes.
+ *
+ * Uso: mvn -pl loadtest exec:exec@dados -Ddados.args="--url=jdbc:postgresql://localhost:5432/biblioteca
+ *      --usuario=postgres --senha=... --livros=1000000 --usuarios=200000 --emprestimos=5000000"
+ */
+public final class GeradorDeDados {
+
+    private static final String[] PRENOMES = {
+        "Ana", "Maria", "João", "José", "Pedro", "Lucas", "Mariana", "Juliana", "Gabriel", "Rafael",
+        "Fernanda", "Beatriz", "Carlos", "Paulo", "Camila", "Larissa", "Bruno", "Felipe", "Letícia", "Amanda",
+        "Rodrigo", "Tiago", "Patrícia", "Aline", "Gustavo", "Vinícius", "Isabela", "Laura", "Eduardo", "Helena"
+    };
+    private static final String[] SOBRENOMES = {
+        "Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves", "Pereira", "Lima", "Gomes",
+        "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes", "Soares", "Fernandes", "Vieira", "Barbosa",
+        "Rocha", "Dias", "Nascimento", "Andrade", "Moreira", "Nunes", "Marques", "Machado", "Mendes", "Freitas"
+    };
+    private static final String[] SUJEITOS = {
+        "O Segredo", "A Casa", "O Mistério", "A Última Carta", "O Jardim", "A Viagem", "O Silêncio", "A Cidade",
+        "O Livro", "A Memória", "O Retrato", "A Sombra", "O Caminho", "A Ilha", "O Guardião", "A Canção",
+        "O Relógio", "A Herança", "O Mapa", "A Noite"
+    };
+    private static final String[] COMPLEMENTOS = {
+        "do Rio", "das Estrelas", "do Sertão", "da Montanha", "do Mar", "de Vidro", "do Tempo", "da Floresta",
+        "de Papel", "do Inverno", "da Aurora", "dos Esquecidos", "do Farol", "da Praça", "do Deserto",
+        "de Pedra", "da Chuva", "do Norte", "das Águas", "do Destino"
+    };
+
+    private static final String[] COLUNAS_USUARIOS = {"id", "nome", "email", "senha", "role"};
+    private static final String[] COLUNAS_LIVROS = {
+        "id", "titulo", "autor", "ano_publicacao", "isbn", "quantidade_total", "quantidade_disponivel", "version"
+    };
+    private static final String[] COLUNAS_EMPRESTIMOS = {
+        "id", "user_id", "book_id", "loan_date", "return_date", "returned", "version"
+    };
+
+    private static final int DIAS_EM_ABERTO = 30;
+
+    private final Map<String, String> argumentos;
+    private final SplittableRandom aleatorio;
+    private final int lote;
+
+    private GeradorDeDados(Map<String, String> argumentos) {
+        this.argumentos = argumentos;
+        this.aleatorio = new SplittableRandom(Long.parseLong(argumento("semente", "42")));
+        this.lote = Integer.parseInt(argumento("lote", "5000"));
+    }
+
+    public static void main(String[] args) throws SQLException {
+        System.setOut(new PrintStream(new FileOutputStream(FileDescriptor.out), true, StandardCharsets.UTF_8));
+
+        Map<String, String> argumentos = new HashMap<>();
+        for (String arg : args) {
+            int separador = arg.indexOf('=');
+            if (!arg.startsWith("--") || separador < 0) {
+                throw new IllegalArgumentException("Argumento inválido (use --nome=valor): " + arg);
+            }
+            argumentos.put(arg.substring(2, separador), arg.substring(separador + 1));
+        }
+        new GeradorDeDados(argumentos).gerar();
+    }
+
+    private String argumento(String nome, String padrao) {
+        return argumentos.getOrDefault(nome, padrao);
+    }
+
+    private int inteiro(String nome, String padrao) {
+        return Integer.parseInt(argumento(nome, padrao));
+    }
+
+    private void gerar() throws SQLException {
+        String url = argumento("url", "jdbc:h2:./target/biblioteca-dados;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;AUTO_SERVER=TRUE");
+        String usuario = argumento("usuario", "sa");
+        String senha = argumento("senha", "");
+        Banco banco = Banco.daUrl(url);
+
+        Flyway.configure()
+                .dataSource(url, usuario, senha)
+                .locations("classpath:db/migration/common", "classpath:db/migration/" + banco.pastaMigracoes())
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        int usuarios = inteiro("usuarios", "10000");
+        int livros = inteiro("livros", "100000");
+        int emprestimos = inteiro("emprestimos", "500000");
+
+        try (Connection conexao = DriverManager.getConnection(url, usuario, senha)) {
+            conexao.setAutoCommit(false);
+
+            long primeiroUsuario = Banco.maiorId(conexao, "users") + 1;
+            long primeiroLivro = Banco.maiorId(conexao, "books") + 1;
+            long primeiroEmprestimo = Banco.maiorId(conexao, "loans") + 1;
+
+            medir("users", () -> gerarUsuarios(banco, conexao, primeiroUsuario, usuarios));
+            medir("books", () -> gerarLivros(banco, conexao, primeiroLivro, livros));
+            medir("loans", () -> gerarEmprestimos(banco, conexao, primeiroEmprestimo, emprestimos,
+                    primeiroUsuario, usuarios, primeiroLivro, livros));
+
+            medir("ajustes", () -> {
+                ajustarEstoque(conexao, primeiroLivro);
+                banco.ajustarIdentidade(conexao, "users");
+                banco.ajustarIdentidade(conexao, "books");
+                banco.ajustarIdentidade(conexao, "loans");
+                conexao.commit();
+                banco.analisar(conexao);
+                conexao.commit();
+                return 0;
+            });
+        }
+    }
+
+    private long gerarUsuarios(Banco banco, Connection conexao, long primeiroId, int quantidade) throws SQLException {
+        // Um único hash BCrypt para todos (senha "senha123"): calcular um por linha levaria horas
+        String hash = new BCryptPasswordEncoder().encode("senha123");
+        try (Gravador gravador = Gravador.para(banco, conexao, "users", COLUNAS_USUARIOS, lote)) {
+            for (int i = 0; i < quantidade; i++) {
+                long id = primeiroId + i;
+                String nome = PRENOMES[aleatorio.nextInt(PRENOMES.length)] + " "
+                        + SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)] + " "
+                        + SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)];
+                String role = aleatorio.nextInt(100) == 0 ? "BIBLIOTECARIO" : "MEMBRO";
+                gravador.linha(id, nome, "leitor" + id + "@dados.local", hash, role);
+            }
+            return gravador.linhas();
+        }
+    }
+
+    private long gerarLivros(Banco banco, Connection conexao, long primeiroId, int quantidade) throws SQLException {
+        // Autores também seguem Zipf: poucos autores com muitos títulos
+        Zipf autores = new Zipf(Math.max(1, quantidade / 20), 1.0);
+        try (Gravador gravador = Gravador.para(banco, conexao, "books", COLUNAS_LIVROS, lote)) {
+            for (int i = 0; i < quantidade; i++) {
+                long id = primeiroId + i;
+                String titulo = SUJEITOS[aleatorio.nextInt(SUJEITOS.length)] + " "
+                        + COMPLEMENTOS[aleatorio.nextInt(COMPLEMENTOS.length)];
+                if (aleatorio.nextInt(3) == 0) {
+                    titulo += " - Volume " + (1 + aleatorio.nextInt(5));
+                }
+                int autor = autores.sortear(aleatorio);
+                String nomeAutor = PRENOMES[autor % PRENOMES.length] + " "
+                        + SOBRENOMES[(autor / PRENOMES.length) % SOBRENOMES.length] + " " + autor;
+                int exemplares = 1 + aleatorio.nextInt(10);
+                gravador.linha(id, titulo, nomeAutor, 1900 + aleatorio.nextInt(126), isbn(id),
+                        exemplares, exemplares, 0L);
+            }
+            return gravador.linhas();
+        }
+    }
+
+    private long gerarEmprestimos(Banco banco, Connection conexao, long primeiroId, int quantidade,
+                                  long primeiroUsuario, int usuarios, long primeiroLivro, int livros)
+            throws SQLException {
+        Zipf popularidade = new Zipf(livros, Double.parseDouble(argumento("zipf-livros", "1.1")));
+        Zipf assiduidade = new Zipf(usuarios, Double.parseDouble(argumento("zipf-usuarios", "0.9")));
+        double abertos = Double.parseDouble(argumento("abertos", "0.3"));
+        int dias = 365 * inteiro("anos", "5");
+        LocalDate hoje = LocalDate.now();
+        LocalDate inicio = hoje.minusDays(dias);
+        BitSet livrosEmprestados = new BitSet(livros);
+
+        try (Gravador gravador = Gravador.para(banco, conexao, "loans", COLUNAS_EMPRESTIMOS, lote)) {
+            for (int i = 0; i < quantidade; i++) {
+                int livro = popularidade.embaralhar(popularidade.sortear(aleatorio));
+                int usuario = assiduidade.embaralhar(assiduidade.sortear(aleatorio));
+
+                // Ordem cronológica: IDs maiores são empréstimos mais recentes
+                LocalDate data = inicio.plusDays((long) i * dias / quantidade);
+                boolean recente = data.isAfter(hoje.minusDays(DIAS_EM_ABERTO));
+                boolean emAberto = recente && !livrosEmprestados.get(livro) && aleatorio.nextDouble() < abertos;
+
+                LocalDate devolucao = null;
+                if (emAberto) {
+                    livrosEmprestados.set(livro);
+                } else {
+                    devolucao = data.plusDays(1 + aleatorio.nextInt(DIAS_EM_ABERTO));
+                    if (devolucao.isAfter(hoje)) {
+                        devolucao = hoje;
+                    }
+                }
+                gravador.linha(primeiroId + i, primeiroUsuario + usuario, primeiroLivro + livro,
+                        data, devolucao, !emAberto, 0L);
+            }
+            return gravador.linhas();
+        }
+    }
+
+    /**
+     * Um exemplar a menos para cada livro gerado com empréstimo em aberto
+     * (um UPDATE só, em vez de acompanhar o estoque linha a linha).
+     */
+    private static void ajustarEstoque(Connection conexao, long primeiroLivro) throws SQLException {
+        try (Statement comando = conexao.createStatement()) {
+            comando.executeUpdate("UPDATE books SET quantidade_disponivel = quantidade_disponivel - 1 "
+                    + "WHERE id >= " + primeiroLivro + " AND id IN "
+                    + "(SELECT book_id FROM loans WHERE returned = false)");
+        }
+    }
+
+    /**
+     * ISBN-13 válido (prefixo 978 + 9 dígitos do ID + dígito verificador).
+     */
+    private static String isbn(long id) {
+        String corpo = "978" + String.format("%09d", id % 1_000_000_000L);
+        int soma = 0;
+        for (int i = 0; i < 12; i++) {
+            soma += (corpo.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return corpo + (10 - soma % 10) % 10;
+    }
+
+    private interface Etapa {
+        long executar() throws SQLException;
+    }
+
+    private static void medir(String nome, Etapa etapa) throws SQLException {
+        long inicio = System.nanoTime();
+        long linhas = etapa.executar();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        if (linhas > 0) {
+            System.out.printf("%-8s %,12d linhas em %7.1f s (%,.0f linhas/s)%n", nome, linhas, segundos, linhas / segundos);
+        } else {
+            System.out.printf("%-8s concluído em %7.1f s%n", nome, segundos);
+        }
+    }
+}
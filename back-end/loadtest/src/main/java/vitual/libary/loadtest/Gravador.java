@@ -0,0 +1,148 @@
+package vitual.libary.loadtest;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Grava linhas de uma tabela em lotes, sem manter a tabela em memória.
+ *
+ * - PostgreSQL: COPY ... FROM STDIN (CSV), enviado em blocos;
+ * - outros bancos: INSERT com JDBC batch, commit a cada lote.
+ */
+abstract class Gravador implements AutoCloseable {
+
+    protected final Connection conexao;
+    private long linhas;
+
+    protected Gravador(Connection conexao) {
+        this.conexao = conexao;
+    }
+
+    static Gravador para(Banco banco, Connection conexao, String tabela, String[] colunas, int lote)
+            throws SQLException {
+        return banco == Banco.POSTGRESQL
+                ? new Copy(conexao, tabela, colunas)
+                : new Lote(conexao, tabela, colunas, lote);
+    }
+
+    final void linha(Object... valores) throws SQLException {
+        gravar(valores);
+        linhas++;
+    }
+
+    long linhas() {
+        return linhas;
+    }
+
+    protected abstract void gravar(Object[] valores) throws SQLException;
+
+    @Override
+    public abstract void close() throws SQLException;
+
+    /**
+     * INSERT em lotes (JDBC batch).
+     */
+    private static final class Lote extends Gravador {
+
+        private final PreparedStatement insercao;
+        private final int tamanhoLote;
+        private int pendentes;
+
+        Lote(Connection conexao, String tabela, String[] colunas, int tamanhoLote) throws SQLException {
+            super(conexao);
+            this.tamanhoLote = tamanhoLote;
+            String parametros = String.join(", ", java.util.Collections.nCopies(colunas.length, "?"));
+            this.insercao = conexao.prepareStatement("INSERT INTO " + tabela
+                    + " (" + String.join(", ", colunas) + ") VALUES (" + parametros + ")");
+        }
+
+        @Override
+        protected void gravar(Object[] valores) throws SQLException {
+            for (int i = 0; i < valores.length; i++) {
+                insercao.setObject(i + 1, valores[i]);
+            }
+            insercao.addBatch();
+            if (++pendentes == tamanhoLote) {
+                descarregar();
+            }
+        }
+
+        private void descarregar() throws SQLException {
+            insercao.executeBatch();
+            conexao.commit();
+            pendentes = 0;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (pendentes > 0) {
+                descarregar();
+            }
+            insercao.close();
+        }
+    }
+
+    /**
+     * COPY FROM STDIN do PostgreSQL em formato CSV.
+     */
+    private static final class Copy extends Gravador {
+
+        private static final int TAMANHO_BLOCO = 1 << 20;
+
+        private final CopyIn copia;
+        private final StringBuilder bloco = new StringBuilder(TAMANHO_BLOCO + 1024);
+
+        Copy(Connection conexao, String tabela, String[] colunas) throws SQLException {
+            super(conexao);
+            this.copia = conexao.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                    "COPY " + tabela + " (" + String.join(", ", colunas) + ") FROM STDIN WITH (FORMAT csv)");
+        }
+
+        @Override
+        protected void gravar(Object[] valores) throws SQLException {
+            for (int i = 0; i < valores.length; i++) {
+                if (i > 0) {
+                    bloco.append(',');
+                }
+                campo(valores[i]);
+            }
+            bloco.append('\n');
+            if (bloco.length() >= TAMANHO_BLOCO) {
+                enviar();
+            }
+        }
+
+        private void campo(Object valor) {
+            if (valor == null) {
+                return; // campo vazio sem aspas = NULL no CSV do COPY
+            }
+            String texto = valor instanceof LocalDate data ? data.toString() : valor.toString();
+            if (texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0 || texto.indexOf('\n') >= 0 || texto.isEmpty()) {
+                bloco.append('"').append(texto.replace("\"", "\"\"")).append('"');
+            } else {
+                bloco.append(texto);
+            }
+        }
+
+        private void enviar() throws SQLException {
+            byte[] bytes = bloco.toString().getBytes(StandardCharsets.UTF_8);
+            copia.writeToCopy(bytes, 0, bytes.length);
+            bloco.setLength(0);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (bloco.length() > 0) {
+                enviar();
+            }
+            copia.endCopy();
+            conexao.commit();
+        }
+    }
+}
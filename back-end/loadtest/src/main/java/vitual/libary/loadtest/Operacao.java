@@ -0,0 +1,34 @@
+package vitual.libary.loadtest;
+
+/**
+ * Operações do tráfego simulado, com o endpoint usado no relatório.
+ */
+enum Operacao {
+
+    LOGIN("login", "POST /api/auth/login"),
+    LISTAR("listar", "GET /api/books"),
+    BUSCAR("buscar", "GET /api/books/{id}"),
+    EMPRESTAR("emprestar", "POST /api/loans/borrow"),
+    DEVOLVER("devolver", "PUT /api/loans/{id}/return");
+
+    private final String nome;
+    private final String endpoint;
+
+    Operacao(String nome, String endpoint) {
+        this.nome = nome;
+        this.endpoint = endpoint;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+
+    static Operacao deNome(String nome) {
+        for (Operacao operacao : values()) {
+            if (operacao.nome.equalsIgnoreCase(nome)) {
+                return operacao;
+            }
+        }
+        throw new IllegalArgumentException("Operação desconhecida: " + nome);
+    }
+}
@@ -0,0 +1,104 @@
+package vitual.libary.loadtest;
+
+import java.util.SplittableRandom;
+
+/**
+ * Sorteio de postos 1..n com distribuição de Zipf (P(k) proporcional a 1/k^s),
+ * em tempo constante por amostra, pelo método de rejeição-inversão de
+ * Hörmann e Derflinger (o mesmo do ZipfDistribution do Commons Math).
+ *
+ * O posto 1 é o mais popular. Para não concentrar os populares nos menores
+ * IDs, use {@link #embaralhar(int)} para mapear o posto a um índice.
+ */
+final class Zipf {
+
+    private final int n;
+    private final double s;
+    private final double hIntegralX1;
+    private final double hIntegralN;
+    private final double limiteAceitacao;
+    private final long multiplicador;
+
+    /**
+     * @param n quantidade de elementos
+     * @param s expoente (0 = uniforme; 1 a 1,5 = cauda típica de popularidade)
+     */
+    Zipf(int n, double s) {
+        if (n < 1 || s < 0) {
+            throw new IllegalArgumentException("Zipf inválido: n=" + n + ", s=" + s);
+        }
+        this.n = n;
+        this.s = s;
+        this.hIntegralX1 = hIntegral(1.5) - 1d;
+        this.hIntegralN = hIntegral(n + 0.5);
+        this.limiteAceitacao = 2d - hIntegralInversa(hIntegral(2.5) - h(2));
+        this.multiplicador = primoComN(n);
+    }
+
+    /**
+     * @return posto sorteado, de 1 (mais popular) a n
+     */
+    int sortear(SplittableRandom aleatorio) {
+        while (true) {
+            double u = hIntegralN + aleatorio.nextDouble() * (hIntegralX1 - hIntegralN);
+            double x = hIntegralInversa(u);
+            int k = (int) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > n) {
+                k = n;
+            }
+            if (k - x <= limiteAceitacao || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    /**
+     * Bijeção fixa posto (1..n) -> índice (0..n-1) que espalha os postos
+     * populares pelo intervalo inteiro.
+     */
+    int embaralhar(int posto) {
+        return (int) (((posto - 1) * multiplicador) % n);
+    }
+
+    private double h(double x) {
+        return Math.exp(-s * Math.log(x));
+    }
+
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return auxiliar2((1d - s) * logX) * logX;
+    }
+
+    private double hIntegralInversa(double x) {
+        double t = x * (1d - s);
+        if (t < -1d) {
+            t = -1d;
+        }
+        return Math.exp(auxiliar1(t) * x);
+    }
+
+    // log(1 + x) / x, estável perto de 0
+    private static double auxiliar1(double x) {
+        return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1d / 3 - 0.25 * x));
+    }
+
+    // (exp(x) - 1) / x, estável perto de 0
+    private static double auxiliar2(double x) {
+        return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+    }
+
+    // Passo perto de n / phi e coprimo com n: vizinhos no posto ficam longe no índice
+    private static long primoComN(int n) {
+        long candidato = Math.max(1, (long) (n * 0.6180339887));
+        while (mdc(candidato, n) != 1) {
+            candidato++;
+        }
+        return candidato;
+    }
+
+    private static long mdc(long a, long b) {
+        return b == 0 ? a : mdc(b, a % b);
+    }
+}
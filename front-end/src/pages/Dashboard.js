@@ -19,9 +19,11 @@ function Dashboard({ onLogout }) {
 
     const carregarEstatisticas = async () => {
         try {
-            const [livrosRes, emprestimosRes] = await Promise.all([
+            // Só os totais interessam: páginas de 1 item, contadas pelo servidor
+            const [livrosRes, emprestimosRes, ativosRes] = await Promise.all([
                 livroService.listar(0, 1),
-                emprestimoService.listar()
+                emprestimoService.listar({ size: 1 }),
+                emprestimoService.listarAtivos(0, 1)
             ]);
 
             let totalMembros = 0;
@@ -37,8 +39,8 @@ function Dashboard({ onLogout }) {
             setStats({
                 totalLivros: livrosRes.data.totalElements || 0,
                 totalMembros: totalMembros,
-                totalEmprestimos: emprestimosRes.data.length || 0,
-                emprestimosAtivos: emprestimosRes.data.filter(e => !e.returned).length || 0
+                totalEmprestimos: emprestimosRes.data.totalElements || 0,
+                emprestimosAtivos: ativosRes.data.totalElements || 0
             });
         } catch (err) {
             setError('Erro ao carregar estatísticas');
@@ -13,6 +13,8 @@ function EmprestimosPage({ onLogout }) {
     const [editingLoanId, setEditingLoanId] = useState(null);
     const [editFormData, setEditFormData] = useState({ bookId: '', userId: '' });
     const [userRole, setUserRole] = useState('');
+    const [proximoCursor, setProximoCursor] = useState(null);
+    const [carregandoMais, setCarregandoMais] = useState(false);
 
     useEffect(() => {
         // ✅ CORREÇÃO: Usar 'user_role' com underscore (consistente com Login.js)
@@ -26,24 +28,16 @@ function EmprestimosPage({ onLogout }) {
         setLoading(true);
         setError('');
         try {
+            // Primeira página por cursor; as seguintes vêm de carregarMais()
             const [empRes, membRes, livRes] = await Promise.all([
-                emprestimoService.listar(),
+                emprestimoService.listarPorCursor(filtroDeStatus()),
                 membroService.listar(),
                 livroService.listar(0, 100)
             ]);
 
-            let emprestimoData = empRes.data || [];
-            if (!Array.isArray(emprestimoData)) {
-                emprestimoData = [];
-            }
-
-            if (filterStatus === 'ativos') {
-                emprestimoData = emprestimoData.filter(e => !e.returned);
-            } else if (filterStatus === 'devolvidos') {
-                emprestimoData = emprestimoData.filter(e => e.returned);
-            }
-
-            setEmprestimos(emprestimoData);
+            const emprestimoData = empRes.data.content;
+            setEmprestimos(Array.isArray(emprestimoData) ? emprestimoData : []);
+            setProximoCursor(empRes.data.next || null);
 
             const membroData = Array.isArray(membRes.data) ? membRes.data : [];
             setMembros(membroData);
@@ -54,6 +48,7 @@ function EmprestimosPage({ onLogout }) {
             setError('Erro ao carregar dados');
             console.error('❌ Erro ao buscar dados:', err);
             setEmprestimos([]);
+            setProximoCursor(null);
             setMembros([]);
             setLivros([]);
         } finally {
@@ -61,6 +56,30 @@ function EmprestimosPage({ onLogout }) {
         }
     };
 
+    // Filtro de status aplicado no servidor (repetido em cada página do cursor)
+    const filtroDeStatus = () => {
+        if (filterStatus === 'ativos') return { returned: false };
+        if (filterStatus === 'devolvidos') return { returned: true };
+        return {};
+    };
+
+    const carregarMais = async () => {
+        if (!proximoCursor) return;
+        setCarregandoMais(true);
+        setError('');
+        try {
+            const response = await emprestimoService.listarPorCursor(filtroDeStatus(), proximoCursor);
+            const pagina = Array.isArray(response.data.content) ? response.data.content : [];
+            setEmprestimos(anteriores => [...anteriores, ...pagina]);
+            setProximoCursor(response.data.next || null);
+        } catch (err) {
+            setError('Erro ao carregar mais empréstimos');
+            console.error('❌ Erro ao carregar mais empréstimos:', err);
+        } finally {
+            setCarregandoMais(false);
+        }
+    };
+
     const handleInputChange = (e) => {
         const { name, value } = e.target;
         setFormData({ ...formData, [name]: value });
@@ -280,7 +299,7 @@ function EmprestimosPage({ onLogout }) {
                 </div>
 
                 {/* Lista de Empréstimos */}
-                <h2>Empréstimos ({emprestimos.length})</h2>
+                <h2>Empréstimos ({emprestimos.length}{proximoCursor ? '+' : ''})</h2>
                 {loading && <p>⏳ Carregando...</p>}
                 {!loading && emprestimos.length === 0 && <p>Nenhum empréstimo encontrado</p>}
 
@@ -377,6 +396,18 @@ function EmprestimosPage({ onLogout }) {
                     </div>
                 )}
 
+                {!loading && proximoCursor && (
+                    <div style={{ textAlign: 'center', marginTop: '15px' }}>
+                        <button
+                            onClick={carregarMais}
+                            disabled={carregandoMais}
+                            style={{ padding: '8px 20px', background: '#007bff', color: 'white', border: 'none', cursor: 'pointer', borderRadius: '4px', fontWeight: 'bold' }}
+                        >
+                            {carregandoMais ? '⏳ Carregando...' : 'Carregar mais'}
+                        </button>
+                    </div>
+                )}
+
                 {/* Modal de Edição */}
                 {editingLoanId && (
                     <div style={{
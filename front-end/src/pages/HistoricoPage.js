@@ -8,6 +8,8 @@ function HistoricoPage({ onLogout }) {
     const [historico, setHistorico] = useState([]);
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState('');
+    const [proximoCursor, setProximoCursor] = useState(null);
+    const [carregandoMais, setCarregandoMais] = useState(false);
 
     useEffect(() => {
         fetchHistorico();
@@ -17,17 +19,38 @@ function HistoricoPage({ onLogout }) {
         setLoading(true);
         setError('');
         try {
-            const response = await emprestimoService.listarPorUsuario(membroId);
-            setHistorico(Array.isArray(response.data) ? response.data : []);
+            // Primeira página por cursor; as seguintes vêm de carregarMais()
+            const response = await emprestimoService.listarPorCursor({ userId: membroId });
+            const historicoData = response.data.content;
+            setHistorico(Array.isArray(historicoData) ? historicoData : []);
+            setProximoCursor(response.data.next || null);
         } catch (err) {
             setError('Erro ao buscar histórico');
             console.error(err);
             setHistorico([]);
+            setProximoCursor(null);
         } finally {
             setLoading(false);
         }
     };
 
+    const carregarMais = async () => {
+        if (!proximoCursor) return;
+        setCarregandoMais(true);
+        setError('');
+        try {
+            const response = await emprestimoService.listarPorCursor({ userId: membroId }, proximoCursor);
+            const pagina = Array.isArray(response.data.content) ? response.data.content : [];
+            setHistorico(anteriores => [...anteriores, ...pagina]);
+            setProximoCursor(response.data.next || null);
+        } catch (err) {
+            setError('Erro ao carregar mais empréstimos');
+            console.error(err);
+        } finally {
+            setCarregandoMais(false);
+        }
+    };
+
     return (
         <div>
             <Navbar onLogout={onLogout} />
@@ -77,6 +100,18 @@ function HistoricoPage({ onLogout }) {
                         </table>
                     </div>
                 )}
+
+                {!loading && proximoCursor && (
+                    <div style={{ textAlign: 'center', marginTop: '15px' }}>
+                        <button
+                            onClick={carregarMais}
+                            disabled={carregandoMais}
+                            style={{ padding: '8px 20px', background: '#17a2b8', color: 'white', border: 'none', cursor: 'pointer', borderRadius: '4px', fontWeight: 'bold' }}
+                        >
+                            {carregandoMais ? '⏳ Carregando...' : 'Carregar mais'}
+                        </button>
+                    </div>
+                )}
             </div>
         </div>
     );
@@ -60,10 +60,15 @@ export const membroService = {
 
 // --- EMPRÉSTIMOS (RF05-RF08, RF12) ---
 export const emprestimoService = {
-    listar: () => api.get('/loans'),
-    listarPorUsuario: (userId) => api.get('/loans', { params: { userId } }),
-    listarAtivos: () => api.get('/loans', { params: { returned: false } }),
-    listarDevolvidos: () => api.get('/loans', { params: { returned: true } }),
+    // Respostas paginadas: os empréstimos vêm em data.content e o total em data.totalElements
+    listar: (params = {}) => api.get('/loans', { params }),
+    listarPorUsuario: (userId, page = 0, size = 100) => api.get('/loans', { params: { userId, page, size } }),
+    // Paginação por cursor (do mais recente ao mais antigo): cursor '' na primeira página e,
+    // nas seguintes, o data.next da resposta anterior (null quando não há mais empréstimos)
+    listarPorCursor: (filtros = {}, cursor = '', size = 50) =>
+        api.get('/loans', { params: { ...filtros, cursor, size } }),
+    listarAtivos: (page = 0, size = 100) => api.get('/loans', { params: { returned: false, page, size } }),
+    listarDevolvidos: (page = 0, size = 100) => api.get('/loans', { params: { returned: true, page, size } }),
     obterPorId: (id) => api.get(`/loans/${id}`),
     emprestar: (bookId, userId) => api.post('/loans/borrow', { bookId, userId }),
     devolver: (loanId) => api.put(`/loans/${loanId}/return`),